@@ -0,0 +1,101 @@
+package com.example.loginandregister.model;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * AppDatabase迁移测试，基于schemas目录下导出的schema文件。
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppDatabaseMigrationTest {
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate1To2_keepsEveryUserAndRenamesDuplicates() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (1, 'alice', 'a1')");
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (2, 'bob', 'b1')");
+        // v1没有唯一约束，可能存在重复用户名
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (3, 'alice', 'a2')");
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (4, 'alice', 'a3')");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 2, true, AppDatabase.MIGRATION_1_2);
+
+        // 最早注册的一条保留原用户名，其余改名，密码不变
+        assertUser(db, 1, "alice", "a1");
+        assertUser(db, 2, "bob", "b1");
+        assertUser(db, 3, "alice#3", "a2");
+        assertUser(db, 4, "alice#4", "a3");
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM users")) {
+            assertTrue(cursor.moveToNext());
+            assertEquals(4, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrate1To2_renamesAgainWhenNewNameIsTaken() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (1, 'alice', 'a1')");
+        // 已经有人注册了“alice#3”
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (2, 'alice#3', 'x1')");
+        db.execSQL("INSERT INTO users (id, username, password) VALUES (3, 'alice', 'a2')");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 2, true, AppDatabase.MIGRATION_1_2);
+
+        assertUser(db, 1, "alice", "a1");
+        assertUser(db, 2, "alice#3", "x1");
+        assertUser(db, 3, "alice#3#3", "a2");
+    }
+
+    @Test
+    public void migrate1To2_usernameLookupUsesIndex() throws IOException {
+        helper.createDatabase(TEST_DB, 1).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 2, true, AppDatabase.MIGRATION_1_2);
+
+        // 与UserDao.getUserByUsername相同的查询
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN SELECT * FROM users WHERE username = ? LIMIT 1",
+                new Object[]{"alice"})) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        assertTrue("查询计划未使用索引: " + plan, plan.toString().contains("index_users_username"));
+        assertFalse("查询计划出现全表扫描: " + plan, plan.toString().contains("SCAN"));
+    }
+
+    @Test(expected = android.database.sqlite.SQLiteConstraintException.class)
+    public void migrate1To2_rejectsDuplicateUsername() throws IOException {
+        helper.createDatabase(TEST_DB, 1).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 2, true, AppDatabase.MIGRATION_1_2);
+        db.execSQL("INSERT INTO users (username, password) VALUES ('carol', 'c1')");
+        db.execSQL("INSERT INTO users (username, password) VALUES ('carol', 'c2')");
+    }
+
+    private static void assertUser(SupportSQLiteDatabase db, int id, String username, String password) {
+        try (Cursor cursor = db.query("SELECT username, password FROM users WHERE id = ?", new Object[]{id})) {
+            assertTrue(cursor.moveToNext());
+            assertEquals(username, cursor.getString(0));
+            assertEquals(password, cursor.getString(1));
+        }
+    }
+}
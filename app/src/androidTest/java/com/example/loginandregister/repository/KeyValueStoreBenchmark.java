@@ -0,0 +1,117 @@
+package com.example.loginandregister.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import android.util.Xml;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xmlpull.v1.XmlPullParser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * 追加日志键值存储与SharedPreferences的写入和冷启动读取对比，结果输出到logcat（TAG=KeyValueBenchmark）。
+ * 两边使用相同的键集合（约等于user_info的规模）和相同的写入序列。
+ */
+@RunWith(AndroidJUnit4.class)
+public class KeyValueStoreBenchmark {
+    private static final String TAG = "KeyValueBenchmark";
+    private static final String PREFS_NAME = "kv-benchmark";
+    private static final int KEYS = 30;
+    private static final int WRITES = 500;
+    private static final Executor DIRECT = Runnable::run;
+
+    private Context context;
+    private File logFile;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteSharedPreferences(PREFS_NAME);
+        logFile = new File(context.getFilesDir(), "kv-benchmark.kvlog");
+        logFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteSharedPreferences(PREFS_NAME);
+        logFile.delete();
+    }
+
+    @Test
+    public void compareWithSharedPreferences() throws Exception {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        SharedPreferences.Editor seed = prefs.edit();
+        try (KeyValueStore store = KeyValueStore.open(logFile, DIRECT)) {
+            KeyValueStore.Editor storeSeed = store.edit();
+            for (int i = 0; i < KEYS; i++) {
+                seed.putString("key" + i, "value" + i);
+                storeSeed.putString("key" + i, "value" + i);
+            }
+            assertTrue(seed.commit());
+            assertTrue(storeSeed.commit());
+
+            // SharedPreferences.commit：每次都同步重写整个XML文件
+            long start = System.nanoTime();
+            for (int i = 0; i < WRITES; i++) {
+                prefs.edit().putString("current_user", "user" + i).putBoolean("remember_password", i % 2 == 0).commit();
+            }
+            long prefsNanos = System.nanoTime() - start;
+
+            // 追加一条记录到映射区域
+            start = System.nanoTime();
+            for (int i = 0; i < WRITES; i++) {
+                store.edit().putString("current_user", "user" + i).putBoolean("remember_password", i % 2 == 0).commit();
+            }
+            long storeNanos = System.nanoTime() - start;
+            assertEquals("user" + (WRITES - 1), store.getString("current_user", null));
+
+            // 冷读取：重新解析XML与重放日志
+            start = System.nanoTime();
+            int prefsKeys = readPrefsFromDisk();
+            long prefsLoadNanos = System.nanoTime() - start;
+            store.sync();
+            start = System.nanoTime();
+            int storeKeys;
+            try (KeyValueStore reopened = KeyValueStore.open(logFile, DIRECT)) {
+                storeKeys = reopened.getAll().size();
+            }
+            long storeLoadNanos = System.nanoTime() - start;
+            assertEquals(prefsKeys, storeKeys);
+
+            Log.i(TAG, String.format("writes=%d prefs.commit=%.1fus/op log=%.1fus/op | cold load prefs=%.2fms log=%.2fms (log=%d bytes)",
+                    WRITES,
+                    prefsNanos / 1e3 / WRITES, storeNanos / 1e3 / WRITES,
+                    prefsLoadNanos / 1e6, storeLoadNanos / 1e6, store.getLogSize()));
+        }
+    }
+
+    /**
+     * 绕过进程内缓存，直接解析SharedPreferences的XML文件。
+     */
+    private int readPrefsFromDisk() throws Exception {
+        File xml = new File(context.getDataDir(), "shared_prefs/" + PREFS_NAME + ".xml");
+        XmlPullParser parser = Xml.newPullParser();
+        int keys = 0;
+        try (FileInputStream in = new FileInputStream(xml)) {
+            parser.setInput(in, "UTF-8");
+            for (int event = parser.getEventType(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+                if (event == XmlPullParser.START_TAG && parser.getAttributeValue(null, "name") != null) {
+                    keys++;
+                }
+            }
+        }
+        return keys;
+    }
+}
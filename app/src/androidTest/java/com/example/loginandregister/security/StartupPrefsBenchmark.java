@@ -0,0 +1,130 @@
+package com.example.loginandregister.security;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 启动时会话文件读取方式对比，结果输出到logcat（TAG=StartupPrefsBenchmark）。
+ * 立即读取：打开SharedPreferences后马上取值（SessionManager、PasswordHashing原来的构造方式），主线程等待文件加载；
+ * 延后读取：打开后先做其他启动工作，再取值（现在的方式），文件在系统的后台线程上加载。
+ * 每轮使用一个进程内没有打开过的新文件，模拟冷启动时的第一次加载。统计的都是主线程上的耗时。
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupPrefsBenchmark {
+    private static final String TAG = "StartupPrefsBenchmark";
+    private static final String PREFS_PREFIX = "startup-benchmark-";
+    private static final int ROUNDS = 20;
+    // 代表Application.onCreate中打开会话文件之后的其他主线程工作
+    private static final long OTHER_STARTUP_WORK_MILLIS = 10;
+
+    private Context context;
+    private Instrumentation instrumentation;
+    private int sequence;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+    }
+
+    @After
+    public void tearDown() {
+        for (int i = 0; i < sequence; i++) {
+            context.deleteSharedPreferences(PREFS_PREFIX + i);
+        }
+    }
+
+    @Test
+    public void compareEagerAndDeferredRead() throws Exception {
+        long[] eager = new long[ROUNDS];
+        long[] deferred = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            String eagerName = seedFile();
+            String deferredName = seedFile();
+            int index = round;
+            String[] usernames = new String[2];
+            instrumentation.runOnMainSync(() -> {
+                long start = System.nanoTime();
+                SharedPreferences prefs = context.getSharedPreferences(eagerName, Context.MODE_PRIVATE);
+                usernames[0] = prefs.getString("username", null);
+                eager[index] = System.nanoTime() - start;
+            });
+            instrumentation.runOnMainSync(() -> {
+                long start = System.nanoTime();
+                SharedPreferences prefs = context.getSharedPreferences(deferredName, Context.MODE_PRIVATE);
+                long opened = System.nanoTime() - start;
+                sleepQuietly(OTHER_STARTUP_WORK_MILLIS);
+                start = System.nanoTime();
+                usernames[1] = prefs.getString("username", null);
+                deferred[index] = opened + System.nanoTime() - start;
+            });
+            assertEquals("alice", usernames[0]);
+            assertEquals("alice", usernames[1]);
+        }
+        Log.i(TAG, String.format("rounds=%d main-thread blocked: eager median=%.3fms max=%.3fms | deferred median=%.3fms max=%.3fms",
+                ROUNDS, median(eager) / 1e6, max(eager) / 1e6, median(deferred) / 1e6, max(deferred) / 1e6));
+    }
+
+    /**
+     * 直接写出与SessionManager相同键的XML文件，绕过进程内的SharedPreferences缓存。
+     */
+    private String seedFile() throws IOException {
+        String name = PREFS_PREFIX + sequence++;
+        File dir = new File(context.getDataDir(), "shared_prefs");
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+        long expiresAt = System.currentTimeMillis() + SessionManager.SESSION_TTL;
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dir, name + ".xml")),
+                StandardCharsets.UTF_8)) {
+            writer.write("<?xml version='1.0' encoding='utf-8' standalone='yes' ?>\n<map>\n");
+            writer.write("    <string name=\"token\">benchmark-token</string>\n");
+            writer.write("    <string name=\"username\">alice</string>\n");
+            writer.write("    <long name=\"created_at\" value=\"" + System.currentTimeMillis() + "\" />\n");
+            writer.write("    <long name=\"expires_at\" value=\"" + expiresAt + "\" />\n");
+            writer.write("    <int name=\"pbkdf2_iterations\" value=\"120000\" />\n");
+            writer.write("</map>\n");
+        }
+        return name;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long max(long[] values) {
+        long max = 0;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
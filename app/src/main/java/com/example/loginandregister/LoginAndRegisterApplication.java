@@ -0,0 +1,58 @@
+package com.example.loginandregister;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+
+import com.example.loginandregister.model.AppDatabase;
+import com.example.loginandregister.repository.KeyValueStore;
+import com.example.loginandregister.repository.UserRepository;
+import com.example.loginandregister.security.CredentialVault;
+import com.example.loginandregister.security.PasswordHashing;
+import com.example.loginandregister.security.SessionManager;
+import com.example.loginandregister.utils.ExecutorMetrics;
+import com.example.loginandregister.utils.StartupTimer;
+import com.example.loginandregister.utils.ThreadPoolUtils;
+
+/**
+ * 自定义Application，负责进程级共享资源的初始化和释放。
+ */
+public class LoginAndRegisterApplication extends Application {
+    private static final String TAG = "LoginAndRegisterApp";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        Log.d(TAG, "onCreate: 初始化进程级数据层");
+        // 尽早打开会话文件，系统在后台线程加载，与下面的初始化重叠；启动路由第一次查询时读取到内存
+        SessionManager.getInstance(this);
+        UserRepository.getInstance(this);
+        // 在读线程上提前打开数据库连接，避免第一次登录查询时才建立连接
+        AppDatabase.getReadExecutor().execute("db_warmup", () -> AppDatabase.getInstance(this).getOpenHelper().getWritableDatabase());
+        // 首次启动时校准密码哈希成本，再把没有登录过的旧MD5密码分批升级
+        ThreadPoolUtils pool = ThreadPoolUtils.getInstance();
+        pool.submit(ThreadPoolUtils.Lane.IO, "startup_warmup", () -> {
+            // 提前打开user_info存储（首次运行时从SharedPreferences迁移）和凭据保险箱，登录页只读内存
+            KeyValueStore.getInstance(this);
+            CredentialVault.getInstance(this);
+            // 校准在IO通道上进行，避免批量通道的低优先级让测得的耗时偏大
+            PasswordHashing.getInstance(this).calibrateIfNeeded();
+            // 升级要用校准后的迭代次数，校准完成后再交给批量通道
+            // 批量通道繁忙时本次跳过，下次启动再升级
+            pool.submit(ThreadPoolUtils.Lane.BULK, "migrate_passwords", UserRepository.getInstance(this)::migrateLegacyPasswords,
+                    e -> Log.w(TAG, "onCreate: 批量通道繁忙，跳过旧密码升级", e));
+        }, e -> Log.w(TAG, "onCreate: IO通道繁忙，跳过启动预热", e));
+        StartupTimer.mark("application_created");
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // 界面全部退到后台时（进程此后随时可能被杀死）：
+        // 提交待合并的写入并做WAL检查点，再把线程池指标输出到logcat（TAG“ExecutorMetrics”）
+        if (level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            UserRepository.getInstance(this).onAppBackground();
+            ExecutorMetrics.logSnapshot();
+        }
+    }
+}
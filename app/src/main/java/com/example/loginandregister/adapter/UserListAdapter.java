@@ -0,0 +1,84 @@
+package com.example.loginandregister.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.loginandregister.R;
+import com.example.loginandregister.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户列表适配器，数据按页追加，只刷新新插入的区间。
+ */
+public class UserListAdapter extends RecyclerView.Adapter<UserListAdapter.UserViewHolder> {
+    // 与ViewModel共享的只追加列表
+    private List<User> users = new ArrayList<>();
+    // 上次通知时的条目数
+    private int shownCount = 0;
+
+    /**
+     * 更新用户列表。同一个列表实例再次传入时视为在末尾追加了新的一页。
+     *
+     * @param newUsers 已加载的全部用户
+     */
+    public void submitUsers(List<User> newUsers) {
+        if (newUsers == null) {
+            return;
+        }
+        if (newUsers != users) {
+            users = newUsers;
+            shownCount = newUsers.size();
+            notifyDataSetChanged();
+            return;
+        }
+        int added = users.size() - shownCount;
+        if (added > 0) {
+            notifyItemRangeInserted(shownCount, added);
+            shownCount = users.size();
+        }
+    }
+
+    @NonNull
+    @Override
+    public UserViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_user, parent, false);
+        return new UserViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
+        holder.bind(users.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return shownCount;
+    }
+
+    /**
+     * 用户ViewHolder
+     */
+    static class UserViewHolder extends RecyclerView.ViewHolder {
+        private final TextView tvUserId;
+        private final TextView tvUserName;
+
+        UserViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvUserId = itemView.findViewById(R.id.tvUserId);
+            tvUserName = itemView.findViewById(R.id.tvUserName);
+        }
+
+        void bind(User user) {
+            tvUserId.setText("#" + user.getId());
+            tvUserName.setText(user.getUsername());
+        }
+    }
+}
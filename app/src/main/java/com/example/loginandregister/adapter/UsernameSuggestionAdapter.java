@@ -0,0 +1,129 @@
+package com.example.loginandregister.adapter;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+
+import com.example.loginandregister.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 登录页用户名自动补全适配器。
+ * 过滤在Filter自带的后台线程执行：最近登录的用户排在前面，
+ * 其余候选来自数据库中所有本地账户的索引前缀查询。
+ */
+public class UsernameSuggestionAdapter extends BaseAdapter implements Filterable {
+    // 下拉框最多显示的候选数
+    private static final int MAX_SUGGESTIONS = 8;
+
+    private final LayoutInflater inflater;
+    private final UserRepository userRepository;
+    // 最近登录用户（按最近到最早排列），过滤线程只读取引用
+    private volatile List<String> recentUsers = Collections.emptyList();
+    // 当前显示的候选，只在主线程修改
+    private List<String> suggestions = Collections.emptyList();
+    private final Filter filter = new SuggestionFilter();
+
+    public UsernameSuggestionAdapter(Context context, UserRepository userRepository) {
+        this.inflater = LayoutInflater.from(context);
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * 更新最近登录用户列表
+     *
+     * @param users 按最近到最早排列的用户名
+     */
+    public void setRecentUsers(List<String> users) {
+        recentUsers = users != null ? new ArrayList<>(users) : Collections.emptyList();
+    }
+
+    @Override
+    public int getCount() {
+        return suggestions.size();
+    }
+
+    @Override
+    public String getItem(int position) {
+        return suggestions.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView view = (TextView) (convertView != null ? convertView
+                : inflater.inflate(android.R.layout.simple_dropdown_item_1line, parent, false));
+        view.setText(suggestions.get(position));
+        return view;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+
+    /**
+     * 候选过滤器，performFiltering运行在后台线程。
+     */
+    private class SuggestionFilter extends Filter {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            String prefix = constraint != null ? constraint.toString().trim() : "";
+            List<String> result = new ArrayList<>(MAX_SUGGESTIONS);
+            // 最近登录用户优先
+            for (String user : recentUsers) {
+                if (user.startsWith(prefix)) {
+                    result.add(user);
+                    if (result.size() == MAX_SUGGESTIONS) {
+                        break;
+                    }
+                }
+            }
+            // 其余本地账户按字典序补齐
+            if (!prefix.isEmpty() && result.size() < MAX_SUGGESTIONS) {
+                // 多取的部分用于跳过已出现的最近用户
+                List<String> matches = userRepository.suggestUsernames(prefix, MAX_SUGGESTIONS + result.size());
+                for (String user : matches) {
+                    if (result.size() == MAX_SUGGESTIONS) {
+                        break;
+                    }
+                    if (!result.contains(user)) {
+                        result.add(user);
+                    }
+                }
+            }
+            FilterResults results = new FilterResults();
+            results.values = result;
+            results.count = result.size();
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            suggestions = results.values != null ? (List<String>) results.values : Collections.emptyList();
+            if (results.count > 0) {
+                notifyDataSetChanged();
+            } else {
+                notifyDataSetInvalidated();
+            }
+        }
+
+        @Override
+        public CharSequence convertResultToString(Object resultValue) {
+            return (String) resultValue;
+        }
+    }
+}
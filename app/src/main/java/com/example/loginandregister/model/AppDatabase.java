@@ -1,16 +1,196 @@
 package com.example.loginandregister.model;
 
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
 import androidx.room.Database;
+import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.example.loginandregister.utils.InstrumentedThreadPoolExecutor;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Room数据库主入口，包含所有的表和DAO。
  * version用于数据库升级，entities声明所有表。
+ * 整个进程共享一个实例：开启WAL，读操作走有界读线程池，写操作走单写线程。
  */
-@Database(entities = {User.class}, version = 1)
+@Database(entities = {User.class}, version = 2)
 public abstract class AppDatabase extends RoomDatabase {
+    private static final String TAG = "AppDatabase";
+    // 数据库文件名
+    private static final String DB_NAME = "app_db";
+    // 读线程池上限，WAL模式下多个读连接可以并行
+    private static final int MAX_READERS = 4;
+
+    /**
+     * v1 -> v2：为users.username建立唯一索引。
+     * v1没有唯一约束，建索引前把重复用户名中除最早注册的一条以外都改名为“用户名#id”，
+     * 不删除任何账号。改名后恰好与已有用户名相同时再改一轮，直到没有重复。
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            Log.d(TAG, "migrate: 数据库从v1升级到v2");
+            int duplicates;
+            while ((duplicates = countDuplicateUsernames(database)) > 0) {
+                Log.w(TAG, "migrate: 重复用户名" + duplicates + "条，改名为“用户名#id”");
+                database.execSQL("UPDATE `users` SET `username` = `username` || '#' || `id` "
+                        + "WHERE `id` NOT IN (SELECT MIN(`id`) FROM `users` GROUP BY `username`)");
+            }
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_users_username` ON `users` (`username`)");
+        }
+    };
+
+    /**
+     * 统计需要改名的行数：每组重复用户名中除id最小的一条以外的行。
+     */
+    private static int countDuplicateUsernames(SupportSQLiteDatabase database) {
+        try (Cursor cursor = database.query("SELECT COUNT(*) - COUNT(DISTINCT `username`) FROM `users`")) {
+            return cursor.moveToNext() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    // 单例实例
+    private static volatile AppDatabase instance;
+    // 读线程池
+    private static InstrumentedThreadPoolExecutor readExecutor;
+    // 写线程（单线程，保证写操作串行）
+    private static InstrumentedThreadPoolExecutor writeExecutor;
+
     /**
      * 获取用户表的DAO。
      */
     public abstract UserDao userDao();
-} 
\ No newline at end of file
+
+    /**
+     * 获取进程内唯一的数据库实例。
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return AppDatabase实例
+     */
+    public static AppDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (AppDatabase.class) {
+                if (instance == null) {
+                    int readers = Math.max(2, Math.min(MAX_READERS, Runtime.getRuntime().availableProcessors()));
+                    Log.d(TAG, "getInstance: 创建数据库实例，读线程数=" + readers);
+                    readExecutor = new InstrumentedThreadPoolExecutor(
+                            "db-reader",
+                            readers,
+                            readers,
+                            30L,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(),
+                            new NamedThreadFactory("db-reader"));
+                    readExecutor.allowCoreThreadTimeOut(true);
+                    writeExecutor = new InstrumentedThreadPoolExecutor(
+                            "db-writer",
+                            1,
+                            1,
+                            30L,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(),
+                            new NamedThreadFactory("db-writer"));
+                    writeExecutor.allowCoreThreadTimeOut(true);
+                    instance = Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, DB_NAME)
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            .setQueryExecutor(readExecutor.tagged("room_query"))
+                            .setTransactionExecutor(writeExecutor.tagged("room_transaction"))
+                            .addMigrations(MIGRATION_1_2)
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 读操作使用的线程池。
+     */
+    public static InstrumentedThreadPoolExecutor getReadExecutor() {
+        return readExecutor;
+    }
+
+    /**
+     * 写操作使用的单线程池。
+     */
+    public static InstrumentedThreadPoolExecutor getWriteExecutor() {
+        return writeExecutor;
+    }
+
+    /**
+     * 在写线程上执行WAL检查点：把日志合并回主数据库文件并截断日志，排在已提交的写操作之后。
+     * 应用退到后台时调用。真机上进程随后可能被直接杀死，不会有关闭数据库的机会；
+     * 截断后的WAL让下次冷启动打开数据库时不需要重放大段日志。数据库尚未创建时什么也不做。
+     */
+    public static void checkpointAsync() {
+        synchronized (AppDatabase.class) {
+            if (instance == null) {
+                return;
+            }
+            AppDatabase db = instance;
+            writeExecutor.execute("wal_checkpoint", () -> {
+                try (Cursor cursor = db.getOpenHelper().getWritableDatabase().query("PRAGMA wal_checkpoint(TRUNCATE)")) {
+                    if (cursor.moveToNext()) {
+                        Log.d(TAG, "checkpoint: busy=" + cursor.getInt(0) + ", 日志页数=" + cursor.getInt(1)
+                                + ", 已合并页数=" + cursor.getInt(2));
+                    }
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "checkpoint: WAL检查点失败", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 关闭数据库并停止读写线程，供测试结束时调用。
+     * 真机上系统直接杀死进程，Application.onTerminate不会被调用，不要依赖它关闭数据库。
+     * 调用后再次getInstance会重新创建实例。
+     */
+    public static void closeInstance() {
+        synchronized (AppDatabase.class) {
+            if (instance == null) {
+                return;
+            }
+            Log.d(TAG, "closeInstance: 关闭数据库实例");
+            // 先让已提交的写操作执行完，再关闭连接
+            writeExecutor.shutdown();
+            readExecutor.shutdown();
+            try {
+                writeExecutor.awaitTermination(2, TimeUnit.SECONDS);
+                readExecutor.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            instance.close();
+            instance = null;
+            readExecutor = null;
+            writeExecutor = null;
+        }
+    }
+
+    /**
+     * 带名字的线程工厂，便于在日志和调试器中区分数据库线程。
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
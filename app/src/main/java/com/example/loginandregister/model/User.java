@@ -1,12 +1,14 @@
 package com.example.loginandregister.model;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * 用户实体类，对应Room数据库中的users表。
+ * username上建有唯一索引，登录和注册时的按用户名查询走索引而不是全表扫描。
  */
-@Entity(tableName = "users")
+@Entity(tableName = "users", indices = {@Index(value = "username", unique = true)})
 public class User {
     /**
      * 用户主键，自增。
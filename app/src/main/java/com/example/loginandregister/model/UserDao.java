@@ -1,9 +1,14 @@
 package com.example.loginandregister.model;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 
+import java.util.List;
+
 /**
  * 用户数据访问对象（DAO），定义对users表的操作。
  */
@@ -17,6 +22,23 @@ public interface UserDao {
     @Insert
     long insertUser(User user);
 
+    /**
+     * 用户名不存在时插入用户，依赖username唯一索引在一条语句内完成检查和插入。
+     * @param user 用户对象
+     * @return 新插入用户的主键id，用户名已存在时返回-1
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertUserIfAbsent(User user);
+
+    /**
+     * 批量插入用户，用户名已存在的行被忽略。
+     * 调用方负责把多次调用包在一个事务中。
+     * @param users 用户列表
+     * @return 与users一一对应的主键id，被忽略的行为-1
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAll(List<User> users);
+
     /**
      * 根据用户名查询用户。
      * @param username 用户名
@@ -24,4 +46,72 @@ public interface UserDao {
      */
     @Query("SELECT * FROM users WHERE username = :username LIMIT 1")
     User getUserByUsername(String username);
-} 
\ No newline at end of file
+
+    /**
+     * 批量根据用户名查询用户，参数个数不能超过SQLite变量上限（999）。
+     * @param usernames 用户名列表
+     * @return 存在的用户，顺序不保证，不存在的用户名不会出现在结果中
+     */
+    @Query("SELECT * FROM users WHERE username IN (:usernames)")
+    List<User> getUsersByUsernames(List<String> usernames);
+
+    /**
+     * 按主键做keyset分页：返回id大于lastId的下一页，按id升序。
+     * 走主键索引直接定位，不使用OFFSET，翻到任何位置的代价都相同。
+     * @param lastId 上一页最后一行的id，第一页传0
+     * @param limit 每页行数
+     * @return 当前页用户
+     */
+    @Query("SELECT * FROM users WHERE id > :lastId ORDER BY id LIMIT :limit")
+    List<User> getUsersAfter(int lastId, int limit);
+
+    /**
+     * 按前缀查询用户名，用于登录页自动补全。
+     * 用区间条件代替LIKE，可以直接在username唯一索引上做范围扫描。
+     * @param prefix 前缀（区分大小写）
+     * @param upperBound 前缀区间上界，即prefix后接'\uffff'
+     * @param limit 最多返回条数
+     * @return 按字典序排列的用户名
+     */
+    @Query("SELECT username FROM users WHERE username >= :prefix AND username < :upperBound "
+            + "ORDER BY username LIMIT :limit")
+    List<String> getUsernamesWithPrefix(String prefix, String upperBound, int limit);
+
+    /**
+     * 判断用户名是否已存在，只读索引不回表。
+     * @param username 用户名
+     * @return 存在返回true
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM users WHERE username = :username)")
+    boolean existsByUsername(String username);
+
+    /**
+     * 按keyset分页读取仍使用旧版MD5存储串的用户，用于后台迁移。
+     * @param lastId 上一页最后一行的id，第一页传0
+     * @param limit 每页行数
+     * @return 当前页用户，按id升序
+     */
+    @Query("SELECT * FROM users WHERE id > :lastId AND password NOT LIKE 'pbkdf2%' ORDER BY id LIMIT :limit")
+    List<User> getLegacyPasswordUsersAfter(int lastId, int limit);
+
+    /**
+     * 密码存储串仍为oldPassword时才替换为newPassword。
+     * 带上旧值做条件，避免后台迁移覆盖登录时刚改写的结果。
+     * @return 受影响的行数，0表示已被其他写入修改
+     */
+    @Query("UPDATE users SET password = :newPassword WHERE id = :id AND password = :oldPassword")
+    int replacePassword(int id, String oldPassword, String newPassword);
+
+    /**
+     * 用户总数。
+     */
+    @Query("SELECT COUNT(*) FROM users")
+    int countUsers();
+
+    /**
+     * 以游标方式逐行读取所有用户名，调用方负责关闭游标。
+     * 用于流式构建内存索引，不会一次性把整张表加载为List。
+     */
+    @Query("SELECT username FROM users")
+    Cursor getAllUsernamesCursor();
+}
@@ -0,0 +1,705 @@
+package com.example.loginandregister.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.loginandregister.utils.ThreadPoolUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射追加日志的键值存储，用于替代user_info SharedPreferences。
+ * 每次提交把整个事务编码为一条带长度和CRC32的记录追加到映射区域末尾，只写入变化的部分，不重写整个文件；
+ * 打开时顺序重放日志，遇到长度越界或CRC不匹配的记录即认为是崩溃时写了一半，丢弃它及之后的内容，
+ * 因此一个事务中的多个键要么全部生效，要么全部不生效。
+ * 日志中的过期记录超过一定比例后在后台压缩：把当前全部键值写成一条记录到新文件，再原子替换旧文件。
+ * 读操作访问不可变的内存快照，不加锁；每次提交替换快照，多键修改对读者同时可见。
+ *
+ * 文件格式：
+ * 文件头16字节：魔数(int) 版本(int) 保留(long)
+ * 记录：长度(int) CRC32(int) 内容[长度]，长度为0表示日志结束
+ * 内容：操作数(int)，每个操作为 类型(byte) 键(UTF) [值类型(byte) 值]
+ */
+public class KeyValueStore implements Closeable {
+    private static final String TAG = "KeyValueStore";
+
+    private static final int MAGIC = 0x554b5653; // "UKVS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    // 新文件的初始映射大小
+    private static final int INITIAL_SIZE = 16 * 1024;
+    // 日志小于此大小时不压缩
+    private static final int MIN_COMPACT_BYTES = 32 * 1024;
+    // 日志超过上次压缩后大小的多少倍时压缩
+    private static final int COMPACT_RATIO = 4;
+
+    // 操作类型
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_CLEAR = 3;
+    // 值类型
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_FLOAT = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+    private static final byte TYPE_STRING_SET = 6;
+    private static final byte TYPE_BYTES = 7;
+
+    // user_info存储的文件名和迁移来源
+    private static final String USER_INFO_FILE = "user_info.kvlog";
+    private static final String USER_INFO_PREFS = "user_info";
+    // 标记已经从SharedPreferences迁移过
+    private static final String KEY_MIGRATED = "__migrated_from_prefs";
+    // 记住的密码由CredentialVault单独迁移，这里不复制
+    private static final String CREDENTIAL_SUFFIX = "_password_plain";
+
+    // 单例实例（user_info）
+    private static volatile KeyValueStore userInfo;
+
+    private final File file;
+    private final Executor compactExecutor;
+    // 当前全部键值的不可变快照
+    private volatile Map<String, Object> values;
+    // 保护文件、映射区域和写入位置
+    private final Object writeLock = new Object();
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    // 下一条记录的写入位置
+    private int position;
+    // 上次打开或压缩后的日志长度
+    private int compactedSize;
+    private boolean compactionScheduled;
+    private boolean closed;
+    // 写入的记录数，包括压缩
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private KeyValueStore(File file, Executor compactExecutor) {
+        this.file = file;
+        this.compactExecutor = compactExecutor;
+    }
+
+    /**
+     * 打开或创建日志文件并重放，丢弃末尾不完整的记录。
+     * @param file 日志文件
+     * @param compactExecutor 执行后台压缩的线程池
+     * @throws IOException 文件无法读写或不是本格式的文件
+     */
+    public static KeyValueStore open(File file, Executor compactExecutor) throws IOException {
+        KeyValueStore store = new KeyValueStore(file, compactExecutor);
+        store.load();
+        return store;
+    }
+
+    /**
+     * 获取user_info存储，第一次调用时打开文件，并把旧的SharedPreferences数据迁移过来。
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return user_info存储
+     */
+    public static KeyValueStore getInstance(Context context) {
+        if (userInfo == null) {
+            synchronized (KeyValueStore.class) {
+                if (userInfo == null) {
+                    Context appContext = context.getApplicationContext();
+                    File file = new File(appContext.getFilesDir(), USER_INFO_FILE);
+                    Executor executor = ThreadPoolUtils.getInstance().executor(ThreadPoolUtils.Lane.IO, "kv_store");
+                    KeyValueStore store;
+                    try {
+                        store = open(file, executor);
+                    } catch (IOException e) {
+                        // 文件头损坏时无法恢复，重新创建，数据会从SharedPreferences重新迁移（如果还在）
+                        Log.e(TAG, "getInstance: 打开user_info存储失败，重新创建", e);
+                        if (!file.delete()) {
+                            Log.w(TAG, "getInstance: 删除损坏的文件失败");
+                        }
+                        try {
+                            store = open(file, executor);
+                        } catch (IOException retry) {
+                            throw new IllegalStateException("cannot open " + file, retry);
+                        }
+                    }
+                    if (!store.getBoolean(KEY_MIGRATED, false)) {
+                        store.migrateFrom(appContext.getSharedPreferences(USER_INFO_PREFS, Context.MODE_PRIVATE),
+                                key -> !key.endsWith(CREDENTIAL_SUFFIX));
+                    }
+                    userInfo = store;
+                }
+            }
+        }
+        return userInfo;
+    }
+
+    /**
+     * 一次性从SharedPreferences迁移：在一个事务中复制被接受的键并写入迁移标记，成功后从原文件删除这些键。
+     * @param prefs 迁移来源
+     * @param accept 返回false的键不复制，也不从原文件删除
+     * @return 迁移的键数，失败时返回-1
+     */
+    public int migrateFrom(SharedPreferences prefs, Predicate<String> accept) {
+        Editor editor = edit();
+        SharedPreferences.Editor cleanup = prefs.edit();
+        int count = 0;
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (!accept.test(key) || value == null) {
+                continue;
+            }
+            if (value instanceof Set) {
+                @SuppressWarnings("unchecked")
+                Set<String> set = (Set<String>) value;
+                editor.putStringSet(key, set);
+            } else {
+                editor.put(key, value);
+            }
+            cleanup.remove(key);
+            count++;
+        }
+        editor.putBoolean(KEY_MIGRATED, true);
+        if (!editor.commit()) {
+            Log.e(TAG, "migrateFrom: 迁移失败，保留原数据");
+            return -1;
+        }
+        cleanup.apply();
+        Log.d(TAG, "migrateFrom: 从SharedPreferences迁移完成，键数=" + count);
+        return count;
+    }
+
+    public String getString(String key, String defValue) {
+        Object value = values.get(key);
+        return value != null ? (String) value : defValue;
+    }
+
+    public int getInt(String key, int defValue) {
+        Object value = values.get(key);
+        return value != null ? (Integer) value : defValue;
+    }
+
+    public long getLong(String key, long defValue) {
+        Object value = values.get(key);
+        return value != null ? (Long) value : defValue;
+    }
+
+    public float getFloat(String key, float defValue) {
+        Object value = values.get(key);
+        return value != null ? (Float) value : defValue;
+    }
+
+    public boolean getBoolean(String key, boolean defValue) {
+        Object value = values.get(key);
+        return value != null ? (Boolean) value : defValue;
+    }
+
+    /**
+     * @return 不可修改的集合
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(String key, Set<String> defValue) {
+        Object value = values.get(key);
+        return value != null ? (Set<String>) value : defValue;
+    }
+
+    /**
+     * @return 存储值的副本
+     */
+    public byte[] getBytes(String key, byte[] defValue) {
+        Object value = values.get(key);
+        return value != null ? ((byte[]) value).clone() : defValue;
+    }
+
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * 当前全部键值的只读视图。
+     */
+    public Map<String, Object> getAll() {
+        return values;
+    }
+
+    /**
+     * 开始一个事务，commit前的修改对其他读者不可见。
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * 写入的记录数，每次非空提交和每次压缩各计一次。
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * 当前日志长度（字节，不含文件头）。
+     */
+    public int getLogSize() {
+        synchronized (writeLock) {
+            return position - HEADER_SIZE;
+        }
+    }
+
+    /**
+     * 把映射区域刷到磁盘。提交只保证进程崩溃后不丢失，需要抵御系统崩溃时再调用。
+     */
+    public void sync() {
+        synchronized (writeLock) {
+            if (!closed) {
+                buffer.force();
+            }
+        }
+    }
+
+    /**
+     * 立即压缩日志。
+     */
+    public void compact() throws IOException {
+        synchronized (writeLock) {
+            if (closed) {
+                throw new IOException("store closed");
+            }
+            compactLocked();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.force();
+            channel.close();
+            raf.close();
+        }
+    }
+
+    private void load() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        boolean fresh = raf.length() < HEADER_SIZE;
+        if (fresh) {
+            raf.setLength(INITIAL_SIZE);
+        }
+        if (raf.length() > Integer.MAX_VALUE) {
+            raf.close();
+            throw new IOException("log too large: " + raf.length());
+        }
+        channel = raf.getChannel();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+        if (fresh) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, 0);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            raf.close();
+            throw new IOException("not a key-value log: " + file);
+        }
+
+        Map<String, Object> map = new HashMap<>();
+        int pos = HEADER_SIZE;
+        int capacity = buffer.capacity();
+        int records = 0;
+        while (pos + RECORD_HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || length > capacity - pos - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(pos + RECORD_HEADER_SIZE);
+            slice.get(payload);
+            if (crc(payload) != buffer.getInt(pos + 4)) {
+                Log.w(TAG, "load: 记录校验失败，丢弃之后的日志，位置=" + pos);
+                break;
+            }
+            try {
+                applyPayload(payload, map);
+            } catch (IOException e) {
+                Log.w(TAG, "load: 记录内容无法解析，丢弃之后的日志，位置=" + pos, e);
+                break;
+            }
+            pos += RECORD_HEADER_SIZE + length;
+            records++;
+        }
+        // 崩溃留下的半条记录清零，避免新记录之后残留的旧字节被误认为记录
+        for (int i = pos; i < capacity; i++) {
+            if (buffer.get(i) != 0) {
+                Log.w(TAG, "load: 清除未完成的写入，位置=" + pos);
+                for (int j = pos; j < capacity; j++) {
+                    buffer.put(j, (byte) 0);
+                }
+                break;
+            }
+        }
+        position = pos;
+        compactedSize = pos - HEADER_SIZE;
+        values = Collections.unmodifiableMap(map);
+        Log.d(TAG, "load: 重放日志完成，记录数=" + records + ", 键数=" + map.size() + ", 日志长度=" + compactedSize);
+    }
+
+    /**
+     * 提交一个已编码的事务。
+     */
+    private boolean commit(byte[] payload, boolean clear, Map<String, Object> changes) {
+        boolean compact;
+        synchronized (writeLock) {
+            if (closed) {
+                Log.e(TAG, "commit: 存储已关闭");
+                return false;
+            }
+            try {
+                ensureCapacityLocked(RECORD_HEADER_SIZE + payload.length);
+            } catch (IOException e) {
+                Log.e(TAG, "commit: 扩展日志文件失败", e);
+                return false;
+            }
+            writeRecordLocked(buffer, position, payload);
+            position += RECORD_HEADER_SIZE + payload.length;
+            writeCount.incrementAndGet();
+
+            Map<String, Object> map = clear ? new HashMap<>() : new HashMap<>(values);
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    map.remove(change.getKey());
+                } else {
+                    map.put(change.getKey(), change.getValue());
+                }
+            }
+            values = Collections.unmodifiableMap(map);
+            compact = claimCompactionLocked();
+        }
+        // 在锁外提交压缩：线程池等待队列时不阻塞其他写入，提交失败也不影响已经落盘的这次写入
+        if (compact) {
+            scheduleCompaction();
+        }
+        return true;
+    }
+
+    /**
+     * 先写内容和CRC，最后写长度，长度未写入的记录在重放时被视为日志结束。
+     */
+    private static void writeRecordLocked(MappedByteBuffer target, int pos, byte[] payload) {
+        ByteBuffer slice = target.duplicate();
+        slice.position(pos + RECORD_HEADER_SIZE);
+        slice.put(payload);
+        target.putInt(pos + 4, crc(payload));
+        target.putInt(pos, payload.length);
+    }
+
+    private void ensureCapacityLocked(int needed) throws IOException {
+        if ((long) position + needed <= buffer.capacity()) {
+            return;
+        }
+        // 先尝试压缩，空间仍然不够时再扩展文件
+        if (position - HEADER_SIZE > compactedSize) {
+            compactLocked();
+            if ((long) position + needed <= buffer.capacity()) {
+                return;
+            }
+        }
+        long newSize = Math.max((long) buffer.capacity() * 2, (long) position + needed + INITIAL_SIZE);
+        if (newSize > Integer.MAX_VALUE) {
+            throw new IOException("log too large: " + newSize);
+        }
+        raf.setLength(newSize);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+        Log.d(TAG, "ensureCapacity: 扩展日志文件，大小=" + newSize);
+    }
+
+    /**
+     * 日志增长到需要压缩且尚未安排压缩时，占用压缩标记并返回true，由调用方在锁外提交。
+     */
+    private boolean claimCompactionLocked() {
+        int logSize = position - HEADER_SIZE;
+        if (compactionScheduled || logSize < MIN_COMPACT_BYTES || logSize < (long) compactedSize * COMPACT_RATIO) {
+            return false;
+        }
+        compactionScheduled = true;
+        return true;
+    }
+
+    private void scheduleCompaction() {
+        try {
+            compactExecutor.execute(this::runCompaction);
+        } catch (RejectedExecutionException e) {
+            // 释放标记，之后的写入会再次尝试安排压缩
+            synchronized (writeLock) {
+                compactionScheduled = false;
+            }
+            Log.w(TAG, "scheduleCompaction: 线程池繁忙，暂不压缩", e);
+        }
+    }
+
+    private void runCompaction() {
+        synchronized (writeLock) {
+            compactionScheduled = false;
+            if (closed) {
+                return;
+            }
+            try {
+                compactLocked();
+            } catch (IOException e) {
+                Log.e(TAG, "compact: 后台压缩失败", e);
+            }
+        }
+    }
+
+    /**
+     * 把当前快照写成一条记录到临时文件，刷盘后重命名覆盖原文件，再映射新文件。
+     */
+    private void compactLocked() throws IOException {
+        byte[] payload = encodeSnapshot(values);
+        int logEnd = HEADER_SIZE + RECORD_HEADER_SIZE + payload.length;
+        int size = Math.max(INITIAL_SIZE, logEnd * 2);
+        File tmp = new File(file.getPath() + ".compact");
+        try (RandomAccessFile tmpRaf = new RandomAccessFile(tmp, "rw")) {
+            tmpRaf.setLength(0);
+            tmpRaf.setLength(size);
+            MappedByteBuffer tmpBuffer = tmpRaf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            tmpBuffer.putInt(0, MAGIC);
+            tmpBuffer.putInt(4, VERSION);
+            tmpBuffer.putLong(8, 0);
+            writeRecordLocked(tmpBuffer, HEADER_SIZE, payload);
+            tmpBuffer.force();
+        }
+        int before = position - HEADER_SIZE;
+        channel.close();
+        raf.close();
+        if (!tmp.renameTo(file)) {
+            // 原文件未被替换，重新打开原文件继续使用
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+            throw new IOException("rename failed: " + tmp);
+        }
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        position = logEnd;
+        compactedSize = logEnd - HEADER_SIZE;
+        writeCount.incrementAndGet();
+        Log.d(TAG, "compact: 日志压缩完成，" + before + " -> " + compactedSize + " 字节");
+    }
+
+    private static byte[] encodeSnapshot(Map<String, Object> snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+            out.writeByte(OP_PUT);
+            out.writeUTF(entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(TYPE_BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Set) {
+            Set<?> set = (Set<?>) value;
+            out.writeByte(TYPE_STRING_SET);
+            out.writeInt(set.size());
+            for (Object item : set) {
+                out.writeUTF((String) item);
+            }
+        } else {
+            throw new IllegalArgumentException("unsupported value type: " + value.getClass());
+        }
+    }
+
+    private static void applyPayload(byte[] payload, Map<String, Object> map) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int ops = in.readInt();
+        for (int i = 0; i < ops; i++) {
+            byte op = in.readByte();
+            if (op == OP_CLEAR) {
+                map.clear();
+                continue;
+            }
+            String key = in.readUTF();
+            if (op == OP_REMOVE) {
+                map.remove(key);
+            } else if (op == OP_PUT) {
+                map.put(key, readValue(in));
+            } else {
+                throw new IOException("unknown op: " + op);
+            }
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_STRING:
+                return in.readUTF();
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_STRING_SET:
+                int size = in.readInt();
+                Set<String> set = new HashSet<>();
+                for (int i = 0; i < size; i++) {
+                    set.add(in.readUTF());
+                }
+                return Collections.unmodifiableSet(set);
+            case TYPE_BYTES:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return bytes;
+            default:
+                throw new IOException("unknown value type: " + type);
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 事务，语义与SharedPreferences.Editor相同：clear先于其他修改生效，值为null等同于remove。
+     * 同一个事务中的所有修改编码为一条日志记录。非线程安全，不应在线程间共享。
+     */
+    public final class Editor {
+        private boolean clear;
+        // 值为null表示删除
+        private final LinkedHashMap<String, Object> changes = new LinkedHashMap<>();
+
+        private Editor() {
+        }
+
+        public Editor putString(String key, String value) {
+            return put(key, value);
+        }
+
+        public Editor putInt(String key, int value) {
+            return put(key, value);
+        }
+
+        public Editor putLong(String key, long value) {
+            return put(key, value);
+        }
+
+        public Editor putFloat(String key, float value) {
+            return put(key, value);
+        }
+
+        public Editor putBoolean(String key, boolean value) {
+            return put(key, value);
+        }
+
+        public Editor putStringSet(String key, Set<String> value) {
+            return put(key, value != null ? Collections.unmodifiableSet(new HashSet<>(value)) : null);
+        }
+
+        public Editor putBytes(String key, byte[] value) {
+            return put(key, value != null ? value.clone() : null);
+        }
+
+        public Editor remove(String key) {
+            return put(key, null);
+        }
+
+        public Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        private Editor put(String key, Object value) {
+            if (key == null) {
+                throw new IllegalArgumentException("key must not be null");
+            }
+            changes.put(key, value);
+            return this;
+        }
+
+        /**
+         * 把事务追加到日志并更新内存快照。写入的是内存映射区域，不阻塞在磁盘IO上。
+         * @return 是否成功，没有修改时直接返回true
+         */
+        public boolean commit() {
+            if (!clear && changes.isEmpty()) {
+                return true;
+            }
+            byte[] payload;
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(changes.size() + (clear ? 1 : 0));
+                if (clear) {
+                    out.writeByte(OP_CLEAR);
+                }
+                for (Map.Entry<String, Object> change : changes.entrySet()) {
+                    if (change.getValue() == null) {
+                        out.writeByte(OP_REMOVE);
+                        out.writeUTF(change.getKey());
+                    } else {
+                        out.writeByte(OP_PUT);
+                        out.writeUTF(change.getKey());
+                        writeValue(out, change.getValue());
+                    }
+                }
+                out.flush();
+                payload = bytes.toByteArray();
+            } catch (IOException e) {
+                Log.e(TAG, "commit: 编码事务失败", e);
+                return false;
+            }
+            return KeyValueStore.this.commit(payload, clear, changes);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.loginandregister.repository;
+
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.loginandregister.security.CredentialVault;
+
+/**
+ * 登录成功后的状态提交：记住密码选项、当前用户、最近用户列表和记住的凭据在同一个事务中写入user_info存储，
+ * 每次登录只追加一条日志记录，崩溃后要么全部生效，要么全部不生效。
+ */
+public class LoginCommit {
+    private static final String TAG = "LoginCommit";
+    // user_info存储中的键
+    public static final String KEY_REMEMBER_PASSWORD = "remember_password";
+    public static final String KEY_SAVED_USERNAME = "saved_username";
+    public static final String KEY_CURRENT_USER = "current_user";
+
+    private final KeyValueStore store;
+    private final RecentUsersStore recentUsers;
+    private final CredentialVault credentialVault;
+
+    /**
+     * @param store user_info存储
+     * @param recentUsers 最近用户列表，需保存在同一个存储中
+     * @param credentialVault 凭据保险箱，需保存在同一个存储中
+     */
+    public LoginCommit(KeyValueStore store, RecentUsersStore recentUsers, CredentialVault credentialVault) {
+        this.store = store;
+        this.recentUsers = recentUsers;
+        this.credentialVault = credentialVault;
+    }
+
+    /**
+     * 在一个事务中提交登录成功后的全部状态。
+     * @param username 登录成功的用户名
+     * @param password 明文密码，记住密码时保存用于自动填充
+     * @param rememberPassword 是否记住密码，否则删除该用户保存的密码
+     * @return 是否提交成功
+     */
+    @WorkerThread
+    public boolean commit(String username, String password, boolean rememberPassword) {
+        KeyValueStore.Editor editor = store.edit();
+        if (rememberPassword) {
+            editor.putBoolean(KEY_REMEMBER_PASSWORD, true);
+            editor.putString(KEY_SAVED_USERNAME, username);
+        } else {
+            editor.putBoolean(KEY_REMEMBER_PASSWORD, false);
+            editor.remove(KEY_SAVED_USERNAME);
+        }
+        editor.putString(KEY_CURRENT_USER, username);
+        boolean committed;
+        // 持有两者的锁直到提交完成：延迟写入和过期清理不能插在取快照和提交之间，否则会被这里的旧快照覆盖。
+        // 加锁顺序固定为最近用户、凭据、存储，与延迟写入和过期清理一致
+        synchronized (recentUsers.lock()) {
+            synchronized (credentialVault) {
+                recentUsers.stage(editor, username);
+                credentialVault.stage(editor, username, rememberPassword ? password : null);
+                committed = editor.commit();
+            }
+        }
+        Log.d(TAG, "commit: 登录状态提交" + (committed ? "成功" : "失败") + "，用户名=" + username);
+        return committed;
+    }
+}
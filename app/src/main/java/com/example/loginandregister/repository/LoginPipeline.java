@@ -0,0 +1,202 @@
+package com.example.loginandregister.repository;
+
+import android.util.Log;
+
+import com.example.loginandregister.model.User;
+import com.example.loginandregister.security.LoginThrottler;
+import com.example.loginandregister.security.PasswordHashing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 异步登录流水线：预哈希在CPU线程上执行，同时用户查询走数据库读线程，两者完成后在CPU线程上校验。
+ * 进入流水线前先经过限流，被限流的尝试不会查询数据库，也不会计算哈希。
+ * 调用线程只负责提交，不做任何哈希或查询；各阶段耗时逐次记录并累计。
+ */
+public class LoginPipeline {
+    private static final String TAG = "LoginPipeline";
+
+    /**
+     * 流水线阶段。
+     */
+    public enum Stage {
+        // 预哈希（MD5），与查库并行
+        PREHASH,
+        // 按用户名查询，命中缓存时接近0
+        LOOKUP,
+        // 从两者都完成到校验结束，PBKDF2的主要耗时在这里
+        VERIFY,
+        // 从提交到得出结果
+        TOTAL
+    }
+
+    private static final int STAGE_COUNT = Stage.values().length;
+
+    private final UserRepository userRepository;
+    private final PasswordHashing passwordHashing;
+    // 按用户名和全局限流
+    private final LoginThrottler throttler;
+    // 执行哈希和校验的CPU线程池
+    private final Executor cpuExecutor;
+    // 各阶段累计次数、总耗时和最大耗时（纳秒）
+    private final AtomicLongArray stageCounts = new AtomicLongArray(STAGE_COUNT);
+    private final AtomicLongArray stageTotals = new AtomicLongArray(STAGE_COUNT);
+    private final AtomicLongArray stageMax = new AtomicLongArray(STAGE_COUNT);
+
+    /**
+     * @param userRepository 用户仓库，查询走其读线程和缓存
+     * @param passwordHashing 密码哈希
+     * @param throttler 登录限流
+     * @param cpuExecutor 执行哈希和校验的线程池
+     */
+    public LoginPipeline(UserRepository userRepository, PasswordHashing passwordHashing,
+                         LoginThrottler throttler, Executor cpuExecutor) {
+        this.userRepository = userRepository;
+        this.passwordHashing = passwordHashing;
+        this.throttler = throttler;
+        this.cpuExecutor = cpuExecutor;
+    }
+
+    /**
+     * 提交一次登录校验，立即返回。
+     * @param username 用户名
+     * @param password 明文密码
+     * @return 在CPU线程上完成的结果；被限流时立即以throttled结果完成；
+     *         线程池拒绝时以RejectedExecutionException异常完成，不会抛给调用线程
+     */
+    public CompletableFuture<LoginOutcome> login(String username, String password) {
+        long retryAfter = throttler.tryAcquire(username);
+        if (retryAfter > 0) {
+            Log.d(TAG, "login: 登录尝试过于频繁，用户名=" + username + ", 需等待=" + retryAfter + "ms");
+            return CompletableFuture.completedFuture(LoginOutcome.throttled(retryAfter));
+        }
+        long start = System.nanoTime();
+        long[] stageNanos = new long[STAGE_COUNT];
+
+        CompletableFuture<PasswordHashing.Prehash> prehash;
+        try {
+            prehash = CompletableFuture.supplyAsync(() -> {
+                long t = System.nanoTime();
+                PasswordHashing.Prehash result = passwordHashing.prehash(password);
+                stageNanos[Stage.PREHASH.ordinal()] = System.nanoTime() - t;
+                return result;
+            }, cpuExecutor);
+        } catch (RejectedExecutionException e) {
+            // supplyAsync在提交线程上抛出拒绝，转成失败的结果交给调用方的失败路径
+            Log.w(TAG, "login: 线程池繁忙，无法提交登录校验", e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<User> lookup = userRepository.getUserByUsernameAsync(username)
+                .whenComplete((user, error) -> stageNanos[Stage.LOOKUP.ordinal()] = System.nanoTime() - start);
+
+        // 两个阶段都完成后再切回CPU线程校验；thenCombineAsync保证数组写入对校验线程可见
+        return prehash.thenCombineAsync(lookup, (hashed, user) -> {
+            long t = System.nanoTime();
+            // 用户不存在时也做一次同样耗时的校验，避免通过响应时间枚举用户名
+            boolean verified = user != null
+                    ? passwordHashing.verify(hashed, user.getPassword())
+                    : passwordHashing.verifyAbsent(hashed);
+            if (verified && passwordHashing.needsRehash(user.getPassword())) {
+                // 改写在结果返回后异步进行，不计入本次登录耗时；线程池繁忙时跳过，下次登录再改写
+                try {
+                    cpuExecutor.execute(() -> userRepository.updatePasswordHash(user, passwordHashing.hash(password), null));
+                } catch (RejectedExecutionException e) {
+                    Log.w(TAG, "login: 线程池繁忙，跳过密码哈希升级", e);
+                }
+            }
+            long end = System.nanoTime();
+            stageNanos[Stage.VERIFY.ordinal()] = end - t;
+            stageNanos[Stage.TOTAL.ordinal()] = end - start;
+            record(stageNanos);
+            return new LoginOutcome(verified ? user : null, stageNanos, 0);
+        }, cpuExecutor);
+    }
+
+    /**
+     * 某阶段的平均耗时（毫秒），尚无样本时返回0。
+     */
+    public double getAverageMillis(Stage stage) {
+        long count = stageCounts.get(stage.ordinal());
+        return count == 0 ? 0 : stageTotals.get(stage.ordinal()) / 1e6 / count;
+    }
+
+    /**
+     * 某阶段的最大耗时（毫秒）。
+     */
+    public double getMaxMillis(Stage stage) {
+        return stageMax.get(stage.ordinal()) / 1e6;
+    }
+
+    private void record(long[] stageNanos) {
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            stageCounts.incrementAndGet(i);
+            stageTotals.addAndGet(i, stageNanos[i]);
+            long max;
+            do {
+                max = stageMax.get(i);
+            } while (stageNanos[i] > max && !stageMax.compareAndSet(i, max, stageNanos[i]));
+        }
+        Log.d(TAG, "login: 阶段耗时(us) 预哈希=" + stageNanos[Stage.PREHASH.ordinal()] / 1000
+                + ", 查询=" + stageNanos[Stage.LOOKUP.ordinal()] / 1000
+                + ", 校验=" + stageNanos[Stage.VERIFY.ordinal()] / 1000
+                + ", 总计=" + stageNanos[Stage.TOTAL.ordinal()] / 1000);
+    }
+
+    /**
+     * 一次登录的结果。
+     */
+    public static class LoginOutcome {
+        private final User user;
+        private final long[] stageNanos;
+        private final long retryAfterMillis;
+
+        LoginOutcome(User user, long[] stageNanos, long retryAfterMillis) {
+            this.user = user;
+            this.stageNanos = stageNanos;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        static LoginOutcome throttled(long retryAfterMillis) {
+            return new LoginOutcome(null, new long[STAGE_COUNT], retryAfterMillis);
+        }
+
+        /**
+         * 是否因尝试过于频繁被拒绝（未校验密码）。
+         */
+        public boolean isThrottled() {
+            return retryAfterMillis > 0;
+        }
+
+        /**
+         * 被限流时建议的等待毫秒数，未限流时为0。
+         */
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+
+        /**
+         * 是否校验通过。
+         */
+        public boolean isSuccess() {
+            return user != null;
+        }
+
+        /**
+         * 校验通过的用户，失败时为null。
+         */
+        public User getUser() {
+            return user;
+        }
+
+        /**
+         * 本次登录某阶段的耗时（纳秒）。
+         */
+        public long getStageNanos(Stage stage) {
+            return stageNanos[stage.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.loginandregister.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最近登录用户列表，按最近使用顺序排列的有界LRU。
+ * 提升和淘汰都是O(1)（accessOrder=true的LinkedHashMap），所有方法线程安全；
+ * 修改后不立即写存储，而是在后台线程上合并，一个时间窗口内的多次修改只写一次；
+ * 也可以通过stage把修改写入调用方的事务，与其他状态一起提交。
+ * 持久化为一个按顺序以换行分隔的字符串，保留顺序。
+ */
+public class RecentUsersStore {
+    private static final String TAG = "RecentUsersStore";
+    // 默认容量
+    public static final int DEFAULT_CAPACITY = 20;
+    // 修改后延迟写入的时间（毫秒）
+    private static final long WRITE_DELAY_MILLIS = 500;
+    // 在user_info存储中使用的键
+    private static final String KEY_ORDERED = "recent_users_ordered";
+    // 旧版本的无序StringSet键，首次加载时迁移
+    private static final String KEY_LEGACY_SET = "recent_users";
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * 持久化接口，列表均按最近使用在前排列。
+     */
+    interface Storage {
+        List<String> load();
+
+        void save(List<String> users);
+    }
+
+    // 单例实例
+    private static volatile RecentUsersStore instance;
+
+    private final int capacity;
+    private final Storage storage;
+    private final ScheduledExecutorService writer;
+    private final long writeDelayMillis;
+    // 迭代顺序从最久未使用到最近使用
+    private final LinkedHashMap<String, Boolean> users;
+    // 待执行的写任务，没有时为null
+    private ScheduledFuture<?> pendingWrite;
+
+    /**
+     * @param capacity 最多保留的用户数
+     * @param storage 持久化实现
+     * @param writer 执行写入的后台线程
+     * @param writeDelayMillis 修改后延迟写入的时间
+     */
+    RecentUsersStore(int capacity, Storage storage, ScheduledExecutorService writer, long writeDelayMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.storage = storage;
+        this.writer = writer;
+        this.writeDelayMillis = writeDelayMillis;
+        this.users = new LinkedHashMap<String, Boolean>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RecentUsersStore.this.capacity;
+            }
+        };
+        List<String> loaded = storage.load();
+        // 存储中最近使用在前，倒序插入以恢复访问顺序
+        for (int i = loaded.size() - 1; i >= 0; i--) {
+            users.put(loaded.get(i), Boolean.TRUE);
+        }
+        Log.d(TAG, "RecentUsersStore: 加载最近用户，数量=" + users.size());
+    }
+
+    /**
+     * 获取单例实例，保存在user_info存储中，使用默认容量。
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return RecentUsersStore实例
+     */
+    public static RecentUsersStore getInstance(Context context) {
+        if (instance == null) {
+            synchronized (RecentUsersStore.class) {
+                if (instance == null) {
+                    KeyValueStore userInfo = KeyValueStore.getInstance(context);
+                    ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread thread = new Thread(r, "recent-users");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    writer.setRemoveOnCancelPolicy(true);
+                    instance = new RecentUsersStore(DEFAULT_CAPACITY, new UserInfoStorage(userInfo), writer, WRITE_DELAY_MILLIS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 把用户提升为最近使用，不存在时加入，超出容量时淘汰最久未使用的用户。
+     */
+    public void promote(String username) {
+        if (username == null || username.isEmpty() || username.indexOf(SEPARATOR) >= 0) {
+            Log.w(TAG, "promote: 用户名无效，忽略");
+            return;
+        }
+        synchronized (users) {
+            users.put(username, Boolean.TRUE);
+            scheduleWriteLocked();
+        }
+    }
+
+    /**
+     * 把用户提升为最近使用，并把新列表写入调用方的事务，取消等待中的延迟写入。
+     * 调用方应持有lock()直到事务提交，否则提交前落盘的延迟写入会被这里的旧列表覆盖。
+     * @param editor user_info存储的事务，由调用方提交
+     * @param username 用户名
+     */
+    public void stage(KeyValueStore.Editor editor, String username) {
+        if (username == null || username.isEmpty() || username.indexOf(SEPARATOR) >= 0) {
+            Log.w(TAG, "stage: 用户名无效，忽略");
+            return;
+        }
+        synchronized (users) {
+            users.put(username, Boolean.TRUE);
+            if (pendingWrite != null) {
+                pendingWrite.cancel(false);
+                pendingWrite = null;
+            }
+            UserInfoStorage.put(editor, snapshot());
+        }
+    }
+
+    /**
+     * 列表和延迟写入共用的锁，配合stage使用。
+     */
+    Object lock() {
+        return users;
+    }
+
+    /**
+     * 从列表中删除用户。
+     */
+    public void remove(String username) {
+        synchronized (users) {
+            if (users.remove(username) != null) {
+                scheduleWriteLocked();
+            }
+        }
+    }
+
+    /**
+     * 当前列表的副本，最近使用在前。
+     */
+    public ArrayList<String> snapshot() {
+        ArrayList<String> result;
+        synchronized (users) {
+            result = new ArrayList<>(users.keySet());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    public int size() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 取消等待中的延迟写入并立即在调用线程上写入。
+     */
+    public void flush() {
+        synchronized (users) {
+            if (pendingWrite != null) {
+                pendingWrite.cancel(false);
+                pendingWrite = null;
+            }
+        }
+        write();
+    }
+
+    private void scheduleWriteLocked() {
+        if (pendingWrite == null) {
+            pendingWrite = writer.schedule(this::writePending, writeDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writePending() {
+        synchronized (users) {
+            pendingWrite = null;
+        }
+        write();
+    }
+
+    /**
+     * 取快照和保存在同一把锁内；stage的调用方持有同一把锁提交，两者的提交顺序与取快照的顺序一致。
+     */
+    private void write() {
+        synchronized (users) {
+            List<String> current = snapshot();
+            storage.save(current);
+            Log.d(TAG, "write: 最近用户已保存，数量=" + current.size());
+        }
+    }
+
+    /**
+     * 保存在user_info存储中的单个字符串，兼容旧版本的StringSet。
+     */
+    static final class UserInfoStorage implements Storage {
+        private final KeyValueStore store;
+
+        UserInfoStorage(KeyValueStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public List<String> load() {
+            List<String> result = new ArrayList<>();
+            String joined = store.getString(KEY_ORDERED, null);
+            if (joined != null) {
+                int start = 0;
+                while (start < joined.length()) {
+                    int end = joined.indexOf(SEPARATOR, start);
+                    if (end < 0) {
+                        end = joined.length();
+                    }
+                    if (end > start) {
+                        result.add(joined.substring(start, end));
+                    }
+                    start = end + 1;
+                }
+                return result;
+            }
+            // 旧版本没有顺序信息，按原样迁移
+            Set<String> legacy = store.getStringSet(KEY_LEGACY_SET, null);
+            if (legacy != null) {
+                result.addAll(legacy);
+            }
+            return result;
+        }
+
+        @Override
+        public void save(List<String> users) {
+            KeyValueStore.Editor editor = store.edit();
+            put(editor, users);
+            editor.commit();
+        }
+
+        static void put(KeyValueStore.Editor editor, List<String> users) {
+            StringBuilder sb = new StringBuilder();
+            for (String user : users) {
+                if (sb.length() > 0) {
+                    sb.append(SEPARATOR);
+                }
+                sb.append(user);
+            }
+            editor.putString(KEY_ORDERED, sb.toString()).remove(KEY_LEGACY_SET);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.loginandregister.repository;
+
+/**
+ * 注册操作的结果，由UserRepository.registerIfAbsent一次返回。
+ */
+public class RegisterResult {
+    /**
+     * 注册结果状态。
+     */
+    public enum Status {
+        // 注册成功
+        CREATED,
+        // 用户名已存在
+        ALREADY_EXISTS,
+        // 数据库异常
+        ERROR
+    }
+
+    private final Status status;
+    private final long userId;
+    private final Throwable error;
+
+    private RegisterResult(Status status, long userId, Throwable error) {
+        this.status = status;
+        this.userId = userId;
+        this.error = error;
+    }
+
+    public static RegisterResult created(long userId) {
+        return new RegisterResult(Status.CREATED, userId, null);
+    }
+
+    public static RegisterResult alreadyExists() {
+        return new RegisterResult(Status.ALREADY_EXISTS, -1, null);
+    }
+
+    public static RegisterResult error(Throwable error) {
+        return new RegisterResult(Status.ERROR, -1, error);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * 新用户id，仅在CREATED时有效，其余情况为-1。
+     */
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * 失败原因，仅在ERROR时不为null。
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "RegisterResult{" +
+                "status=" + status +
+                ", userId=" + userId +
+                '}';
+    }
+}
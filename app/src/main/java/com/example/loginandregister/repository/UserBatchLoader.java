@@ -0,0 +1,162 @@
+package com.example.loginandregister.repository;
+
+import android.util.Log;
+
+import com.example.loginandregister.model.User;
+import com.example.loginandregister.model.UserDao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按用户名批量加载用户（dataloader模式）。
+ * 同一用户名的并发请求共享同一个未完成的Future；
+ * 一个短时间窗口内到达的不同用户名合并成一条WHERE username IN (...)查询。
+ */
+class UserBatchLoader {
+    private static final String TAG = "UserBatchLoader";
+    // SQLite单条语句的变量上限
+    private static final int SQLITE_MAX_VARIABLES = 999;
+
+    private final UserDao userDao;
+    private final Executor queryExecutor;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    // 只负责在窗口结束时触发批次，查询本身在queryExecutor上执行（与写入合并器共享）
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    // 正在加载中的请求：用户名 -> 共享的Future
+    private final Map<String, CompletableFuture<User>> inFlight = new HashMap<>();
+    // 当前窗口中等待发出的用户名
+    private List<String> pending = new ArrayList<>();
+    // 当前窗口的定时触发任务
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param userDao 用户DAO
+     * @param queryExecutor 执行批量查询的线程池
+     * @param scheduler 用于窗口定时的调度线程
+     * @param windowMillis 合并窗口（毫秒）
+     * @param maxBatchSize 单批最大用户名数，达到后立即发出
+     */
+    UserBatchLoader(UserDao userDao, Executor queryExecutor, ScheduledExecutorService scheduler,
+                    long windowMillis, int maxBatchSize) {
+        this.userDao = userDao;
+        this.queryExecutor = queryExecutor;
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.min(maxBatchSize, SQLITE_MAX_VARIABLES);
+    }
+
+    /**
+     * 加载一个用户名对应的用户。
+     * @return 用户不存在时以null完成的Future
+     */
+    CompletableFuture<User> load(String username) {
+        List<String> batch = null;
+        CompletableFuture<User> future;
+        synchronized (lock) {
+            future = inFlight.get(username);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            inFlight.put(username, future);
+            pending.add(username);
+            if (pending.size() >= maxBatchSize) {
+                batch = takePendingLocked();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+        return future;
+    }
+
+    /**
+     * 窗口结束，发出当前批次。
+     */
+    private void flush() {
+        List<String> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePendingLocked();
+        }
+        dispatch(batch);
+    }
+
+    private List<String> takePendingLocked() {
+        List<String> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<String> batch) {
+        queryExecutor.execute(() -> runBatch(batch));
+    }
+
+    /**
+     * 执行一次批量查询并把结果分发给各个Future。
+     */
+    private void runBatch(List<String> batch) {
+        Map<String, User> found = new HashMap<>();
+        Throwable error = null;
+        try {
+            List<User> users = batch.size() == 1
+                    ? singletonOrEmpty(userDao.getUserByUsername(batch.get(0)))
+                    : userDao.getUsersByUsernames(batch);
+            for (User user : users) {
+                found.put(user.getUsername(), user);
+            }
+            Log.d(TAG, "runBatch: 批量查询完成，请求数=" + batch.size() + ", 命中数=" + found.size());
+        } catch (Throwable t) {
+            Log.e(TAG, "runBatch: 批量查询失败", t);
+            error = t;
+        }
+        for (String username : batch) {
+            CompletableFuture<User> future;
+            synchronized (lock) {
+                future = inFlight.remove(username);
+            }
+            if (future == null) {
+                continue;
+            }
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(found.get(username));
+            }
+        }
+    }
+
+    private static List<User> singletonOrEmpty(User user) {
+        List<User> list = new ArrayList<>(1);
+        if (user != null) {
+            list.add(user);
+        }
+        return list;
+    }
+
+    /**
+     * 未发出的请求立即发出，关闭仓库前调用。
+     */
+    void flushNow() {
+        flush();
+    }
+}
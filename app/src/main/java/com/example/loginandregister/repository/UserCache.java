@@ -0,0 +1,190 @@
+package com.example.loginandregister.repository;
+
+import com.example.loginandregister.model.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 按用户名缓存User行的有界LRU缓存，带过期时间，同时缓存“用户不存在”的结果。
+ * 所有方法线程安全，命中/未命中计数可用于调整容量和过期时间。
+ */
+class UserCache {
+    // 缓存中表示“用户不存在”的占位对象
+    private static final User NOT_FOUND = new User(null, null);
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    // 毫秒时钟，测试中替换为手动推进的时钟
+    private final LongSupplier clock;
+    // accessOrder=true的LinkedHashMap即为LRU
+    private final LinkedHashMap<String, Entry> map;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // 每次失效递增，用于丢弃失效前发起的查询结果
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param maxEntries 最大缓存条数
+     * @param ttlMillis 用户行的过期时间
+     * @param negativeTtlMillis “不存在”结果的过期时间，通常更短
+     */
+    UserCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this(maxEntries, ttlMillis, negativeTtlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock 毫秒时钟
+     */
+    UserCache(int maxEntries, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.map = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > UserCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 查找缓存。
+     * @return 命中时返回Lookup，未命中或已过期返回null
+     */
+    Lookup get(String username) {
+        long now = clock.getAsLong();
+        Entry entry;
+        synchronized (map) {
+            entry = map.get(username);
+            if (entry != null && entry.expiresAt <= now) {
+                map.remove(username);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.user == NOT_FOUND) {
+            negativeHits.incrementAndGet();
+            return Lookup.ABSENT;
+        }
+        hits.incrementAndGet();
+        return new Lookup(entry.user);
+    }
+
+    /**
+     * 当前失效版本号，查库前获取，写回缓存时传给putIfCurrent。
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 缓存查询结果，user为null时缓存为“不存在”。
+     * 如果查询期间发生过失效（版本号变化），结果可能已过时，不写入缓存。
+     * @param generation 查库前通过generation()获取的版本号
+     */
+    void putIfCurrent(String username, User user, long generation) {
+        Entry entry = newEntry(user);
+        synchronized (map) {
+            if (this.generation.get() == generation) {
+                map.put(username, entry);
+            }
+        }
+    }
+
+    /**
+     * 写入成功后直接以最新数据覆盖缓存。
+     */
+    void put(String username, User user) {
+        Entry entry = newEntry(user);
+        synchronized (map) {
+            generation.incrementAndGet();
+            map.put(username, entry);
+        }
+    }
+
+    /**
+     * 使某个用户名的缓存失效，写入或修改该用户后必须调用。
+     */
+    void invalidate(String username) {
+        synchronized (map) {
+            generation.incrementAndGet();
+            map.remove(username);
+        }
+    }
+
+    private Entry newEntry(User user) {
+        long now = clock.getAsLong();
+        return user == null
+                ? new Entry(NOT_FOUND, now + negativeTtlMillis)
+                : new Entry(user, now + ttlMillis);
+    }
+
+    /**
+     * 清空缓存。
+     */
+    void clear() {
+        synchronized (map) {
+            generation.incrementAndGet();
+            map.clear();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getNegativeHits() {
+        return negativeHits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    /**
+     * 缓存命中结果，user为null表示命中了“不存在”。
+     */
+    static class Lookup {
+        static final Lookup ABSENT = new Lookup(null);
+        final User user;
+
+        Lookup(User user) {
+            this.user = user;
+        }
+    }
+
+    private static class Entry {
+        final User user;
+        final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.loginandregister.repository;
+
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.loginandregister.model.User;
+import com.example.loginandregister.model.UserDao;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 用户表流式导出器。
+ * 按主键keyset分页逐页读取并立即写出，内存中同时只有一页数据。
+ * 导出文件是用户清单，只包含id和用户名，不写出密码哈希（其中可能还有未升级的MD5存储串）；
+ * 因此导出文件不能再导入，UserImporter遇到导出格式会明确报错。
+ *
+ * CSV格式：表头“id,username”，之后每行一个用户。
+ * JSON格式：[{"id": 1, "username": "..."}, ...]
+ */
+public class UserExporter {
+    private static final String TAG = "UserExporter";
+
+    private final UserDao userDao;
+    private final int pageSize;
+
+    UserExporter(UserDao userDao, int pageSize) {
+        this.userDao = userDao;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 导出整张用户表，阻塞直到完成，必须在后台线程调用。
+     * @param out 输出流，方法返回前会flush但不会关闭
+     * @param format 文件格式
+     * @return 导出的行数
+     */
+    @WorkerThread
+    public long export(OutputStream out, UserFileFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = format == UserFileFormat.CSV ? exportCsv(writer) : exportJson(writer);
+        writer.flush();
+        Log.d(TAG, "export: 导出完成，格式=" + format + ", 行数=" + count
+                + ", 耗时=" + (System.currentTimeMillis() - start) + "ms");
+        return count;
+    }
+
+    private long exportCsv(Writer writer) throws IOException {
+        writer.write("id,username\n");
+        long count = 0;
+        int lastId = 0;
+        List<User> page;
+        while (!(page = userDao.getUsersAfter(lastId, pageSize)).isEmpty()) {
+            for (User user : page) {
+                writer.write(Integer.toString(user.getId()));
+                writer.write(',');
+                writeCsvField(writer, user.getUsername());
+                writer.write('\n');
+            }
+            count += page.size();
+            lastId = page.get(page.size() - 1).getId();
+        }
+        return count;
+    }
+
+    private long exportJson(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginArray();
+        long count = 0;
+        int lastId = 0;
+        List<User> page;
+        while (!(page = userDao.getUsersAfter(lastId, pageSize)).isEmpty()) {
+            for (User user : page) {
+                json.beginObject();
+                json.name("id").value(user.getId());
+                json.name("username").value(user.getUsername());
+                json.endObject();
+            }
+            count += page.size();
+            lastId = page.get(page.size() - 1).getId();
+        }
+        json.endArray();
+        json.flush();
+        return count;
+    }
+
+    /**
+     * 写出一个CSV字段，包含逗号、引号或换行时用双引号包裹。
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuote = true;
+                break;
+            }
+        }
+        if (!needsQuote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.loginandregister.repository;
+
+/**
+ * 用户批量导入、导出使用的文件格式。
+ * 导入文件带密码；导出文件是不含密码的用户清单，两者的列不同，导出文件不能直接导入。
+ */
+public enum UserFileFormat {
+    // 导入：每行“username,password”，首行可为表头；导出：表头“id,username”
+    CSV,
+    // 导入：[{"username": "...", "password": "..."}, ...]；导出：[{"id": 1, "username": "..."}, ...]
+    JSON
+}
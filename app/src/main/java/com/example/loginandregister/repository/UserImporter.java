@@ -0,0 +1,369 @@
+package com.example.loginandregister.repository;
+
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.loginandregister.model.AppDatabase;
+import com.example.loginandregister.model.User;
+import com.example.loginandregister.model.UserDao;
+import com.example.loginandregister.utils.InstrumentedThreadPoolExecutor;
+import com.example.loginandregister.utils.MD5Utils;
+import com.example.loginandregister.utils.ThreadPoolUtils;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 用户批量导入器，流式读取CSV或JSON文件。
+ * 文件按块读取，每块在批量通道上并行计算密码摘要，再按块在单写线程上事务插入。
+ * 同时在途的块数有上限，堆占用与文件大小无关；批量通道满时先插入已在途的块腾出位置。
+ *
+ * CSV格式：每行“username,password”，可有表头，字段可用双引号包裹（不支持字段内换行）。
+ * 用户名去掉首尾空白，密码原样保留。
+ * UserExporter导出的用户清单（带id列、不含密码）不是导入格式，读到时抛出IOException，不会静默跳过所有行。
+ * JSON格式：[{"username": "...", "password": "..."}, ...]
+ */
+public class UserImporter {
+    private static final String TAG = "UserImporter";
+    // 每块行数，也是每个插入事务的行数
+    private static final int CHUNK_SIZE = 1000;
+    // 导入UserExporter导出文件时的错误信息
+    private static final String EXPORT_FORMAT_MESSAGE = "文件是导出的用户清单（id,username），不含密码，不能导入；导入文件格式为username,password";
+
+    /**
+     * 导入进度回调，在导入线程上调用。
+     */
+    public interface ProgressListener {
+        void onProgress(ImportStats stats);
+    }
+
+    /**
+     * 新用户写入后的通知，用于更新内存索引。
+     */
+    interface InsertListener {
+        void onInserted(List<User> users);
+    }
+
+    private final AppDatabase db;
+    private final UserDao userDao;
+    private final InstrumentedThreadPoolExecutor writeExecutor;
+    private final InsertListener insertListener;
+
+    UserImporter(AppDatabase db, InstrumentedThreadPoolExecutor writeExecutor, InsertListener insertListener) {
+        this.db = db;
+        this.userDao = db.userDao();
+        this.writeExecutor = writeExecutor;
+        this.insertListener = insertListener;
+    }
+
+    /**
+     * 从输入流导入用户，阻塞直到全部完成，必须在后台线程调用。
+     * @param in 输入流，方法返回前不会关闭
+     * @param format 文件格式
+     * @param listener 进度回调，可为null
+     * @return 导入统计
+     */
+    @WorkerThread
+    public ImportStats importUsers(InputStream in, UserFileFormat format, ProgressListener listener)
+            throws IOException {
+        // 同时在途（读取完但未插入）的块数上限
+        int maxInFlight = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ImportStats stats = new ImportStats();
+        ArrayDeque<Future<List<User>>> inFlight = new ArrayDeque<>();
+        long start = System.currentTimeMillis();
+        Log.d(TAG, "importUsers: 开始导入，格式=" + format + ", 在途块数上限=" + maxInFlight);
+        try (Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            RowSource source = format == UserFileFormat.CSV ? new CsvRowSource(reader) : new JsonRowSource(reader);
+            List<String[]> chunk = new ArrayList<>(CHUNK_SIZE);
+            String[] row;
+            while ((row = source.next()) != null) {
+                stats.rowsRead++;
+                if (row[0] == null || row[0].isEmpty() || row[1] == null || row[1].isEmpty()) {
+                    stats.rejectedInvalid++;
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    if (inFlight.size() == maxInFlight) {
+                        insertChunk(inFlight.poll(), stats, listener);
+                    }
+                    inFlight.add(submitHash(chunk, inFlight, stats, listener));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inFlight.add(submitHash(chunk, inFlight, stats, listener));
+            }
+            while (!inFlight.isEmpty()) {
+                insertChunk(inFlight.poll(), stats, listener);
+            }
+        } finally {
+            for (Future<List<User>> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+        Log.d(TAG, "importUsers: 导入完成，" + stats + ", 耗时=" + (System.currentTimeMillis() - start) + "ms");
+        return stats;
+    }
+
+    /**
+     * 把一块提交到批量通道计算摘要。通道满时先插入最早的在途块再重试；
+     * 没有在途块可等时在导入线程上直接计算（导入线程本身是后台线程）。
+     */
+    private Future<List<User>> submitHash(List<String[]> chunk, ArrayDeque<Future<List<User>>> inFlight,
+                                          ImportStats stats, ProgressListener listener) throws IOException {
+        Callable<List<User>> task = hashTask(chunk);
+        while (true) {
+            try {
+                return ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.BULK, "import_hash", task);
+            } catch (RejectedExecutionException e) {
+                if (inFlight.isEmpty()) {
+                    Log.w(TAG, "importUsers: 批量通道繁忙，在导入线程上计算摘要");
+                    FutureTask<List<User>> local = new FutureTask<>(task);
+                    local.run();
+                    return local;
+                }
+                insertChunk(inFlight.poll(), stats, listener);
+            }
+        }
+    }
+
+    /**
+     * 在批量通道上把一块原始行转换成待插入的User。
+     * 批量导入先写入旧版MD5存储串，逐行做慢哈希会让导入时间增加几个数量级；
+     * 导入完成后由UserRepository.migrateLegacyPasswords在后台包装为加盐慢哈希。
+     */
+    private static Callable<List<User>> hashTask(List<String[]> chunk) {
+        return () -> {
+            List<User> users = new ArrayList<>(chunk.size());
+            for (String[] row : chunk) {
+                users.add(new User(row[0], MD5Utils.encrypt(row[1])));
+            }
+            return users;
+        };
+    }
+
+    /**
+     * 等待一块哈希完成，在写线程上以一个事务插入。
+     */
+    private void insertChunk(Future<List<User>> hashed, ImportStats stats, ProgressListener listener)
+            throws IOException {
+        try {
+            List<User> users = hashed.get();
+            long[] ids = writeExecutor.submit("user_import",
+                    () -> db.runInTransaction(() -> userDao.insertAll(users))).get();
+            List<User> inserted = new ArrayList<>(users.size());
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == -1) {
+                    stats.rejectedDuplicates++;
+                } else {
+                    users.get(i).setId((int) ids[i]);
+                    inserted.add(users.get(i));
+                }
+            }
+            stats.inserted += inserted.size();
+            if (insertListener != null && !inserted.isEmpty()) {
+                insertListener.onInserted(inserted);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("导入被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("导入失败", e.getCause());
+        }
+        if (listener != null) {
+            listener.onProgress(stats.copy());
+        }
+    }
+
+    /**
+     * 导入统计。
+     */
+    public static class ImportStats {
+        // 读取的数据行数
+        long rowsRead;
+        // 成功插入的行数
+        long inserted;
+        // 因用户名已存在（库中或文件中重复）被跳过的行数
+        long rejectedDuplicates;
+        // 因用户名或密码为空被跳过的行数
+        long rejectedInvalid;
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getInserted() {
+            return inserted;
+        }
+
+        public long getRejectedDuplicates() {
+            return rejectedDuplicates;
+        }
+
+        public long getRejectedInvalid() {
+            return rejectedInvalid;
+        }
+
+        ImportStats copy() {
+            ImportStats copy = new ImportStats();
+            copy.rowsRead = rowsRead;
+            copy.inserted = inserted;
+            copy.rejectedDuplicates = rejectedDuplicates;
+            copy.rejectedInvalid = rejectedInvalid;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return "ImportStats{" +
+                    "rowsRead=" + rowsRead +
+                    ", inserted=" + inserted +
+                    ", rejectedDuplicates=" + rejectedDuplicates +
+                    ", rejectedInvalid=" + rejectedInvalid +
+                    '}';
+        }
+    }
+
+    /**
+     * 逐行产出[username, password]，读完返回null。
+     */
+    private interface RowSource {
+        String[] next() throws IOException;
+    }
+
+    /**
+     * CSV行读取，第一行若为“username,password”表头则跳过，若为导出文件的“id,username”表头则报错。
+     */
+    private static class CsvRowSource implements RowSource {
+        private final BufferedReader reader;
+        private boolean first = true;
+
+        CsvRowSource(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] row = parseLine(line);
+                if (first) {
+                    first = false;
+                    if ("id".equalsIgnoreCase(row[0]) && row[1] != null && "username".equalsIgnoreCase(row[1].trim())) {
+                        throw new IOException(EXPORT_FORMAT_MESSAGE);
+                    }
+                    if ("username".equalsIgnoreCase(row[0]) && row[1] != null
+                            && "password".equalsIgnoreCase(row[1].trim())) {
+                        continue;
+                    }
+                }
+                return row;
+            }
+            return null;
+        }
+
+        private static String[] parseLine(String line) {
+            String[] row = new String[2];
+            StringBuilder field = new StringBuilder();
+            int column = 0;
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    if (column < 2) {
+                        row[column] = field(field, column);
+                    }
+                    column++;
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (column < 2) {
+                row[column] = field(field, column);
+            }
+            return row;
+        }
+
+        /**
+         * 只去掉用户名的首尾空白，密码中的空格是密码的一部分。
+         */
+        private static String field(StringBuilder field, int column) {
+            return column == 0 ? field.toString().trim() : field.toString();
+        }
+    }
+
+    /**
+     * JSON数组流式读取，每次只解析一个对象。
+     */
+    private static class JsonRowSource implements RowSource {
+        private final JsonReader reader;
+        private boolean started;
+
+        JsonRowSource(Reader reader) {
+            this.reader = new JsonReader(reader);
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            if (!started) {
+                reader.beginArray();
+                started = true;
+            }
+            if (!reader.hasNext()) {
+                reader.endArray();
+                return null;
+            }
+            String[] row = new String[2];
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                } else if ("username".equals(name)) {
+                    row[0] = reader.nextString().trim();
+                } else if ("password".equals(name)) {
+                    row[1] = reader.nextString();
+                } else if ("id".equals(name)) {
+                    throw new IOException(EXPORT_FORMAT_MESSAGE);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return row;
+        }
+    }
+}
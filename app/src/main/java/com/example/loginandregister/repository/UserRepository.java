@@ -1,62 +1,561 @@
 package com.example.loginandregister.repository;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.util.Log;
-import androidx.room.Room;
+
+import androidx.annotation.WorkerThread;
+
 import com.example.loginandregister.model.AppDatabase;
 import com.example.loginandregister.model.User;
 import com.example.loginandregister.model.UserDao;
+import com.example.loginandregister.security.LoginThrottler;
+import com.example.loginandregister.security.PasswordHashing;
+import com.example.loginandregister.utils.BloomFilter;
+import com.example.loginandregister.utils.InstrumentedThreadPoolExecutor;
+import com.example.loginandregister.utils.ThreadPoolUtils;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 用户数据仓库，封装所有与用户相关的数据库操作。
- * 通过异步线程池避免主线程阻塞。
+ * 进程内单例，共享AppDatabase：查询走读线程池可并行执行，写入走单写线程。
  */
 public class UserRepository {
     private static final String TAG = "UserRepository";
+    // 用户名布隆过滤器的目标误判率
+    private static final double USERNAME_FILTER_FPP = 0.01;
+    // 布隆过滤器最小容量，为启动后的新注册预留空间
+    private static final int USERNAME_FILTER_MIN_CAPACITY = 10_000;
+    // 用户缓存容量
+    private static final int USER_CACHE_SIZE = 256;
+    // 用户缓存过期时间（毫秒）
+    private static final long USER_CACHE_TTL = 5 * 60 * 1000;
+    // “用户不存在”缓存过期时间（毫秒）
+    private static final long USER_NEGATIVE_CACHE_TTL = 30 * 1000;
+    // 用户名查询合并窗口（毫秒）
+    private static final long LOOKUP_BATCH_WINDOW = 2;
+    // 单次批量查询的最大用户名数
+    private static final int LOOKUP_MAX_BATCH = 64;
+    // 写入合并窗口（毫秒）
+    private static final long INSERT_BATCH_WINDOW = 5;
+    // 单个写事务最多包含的插入数
+    private static final int INSERT_MAX_BATCH = 100;
+    // 导出时每页读取的行数
+    private static final int EXPORT_PAGE_SIZE = 500;
+    // 后台迁移旧密码时每批处理的行数（每行一次慢哈希，批不宜过大）
+    private static final int PASSWORD_MIGRATION_BATCH = 20;
+    // 每个用户名允许连续尝试登录的次数，之后每12秒恢复一次
+    private static final int LOGIN_USER_BURST = 5;
+    private static final double LOGIN_USER_REFILL_PER_SECOND = 1 / 12.0;
+    // 所有用户名合计的登录尝试突发上限和每秒恢复次数
+    private static final int LOGIN_GLOBAL_BURST = 50;
+    private static final double LOGIN_GLOBAL_REFILL_PER_SECOND = 10;
+
+    // 单例实例
+    private static volatile UserRepository instance;
+
     private final AppDatabase db;
     private final UserDao userDao;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    // 读线程池（WAL下多个查询可并行）
+    private final InstrumentedThreadPoolExecutor readExecutor;
+    // 写线程（单线程串行写入）
+    private final InstrumentedThreadPoolExecutor writeExecutor;
+    // 按用户名缓存查询结果，包括“不存在”
+    private final UserCache userCache = new UserCache(USER_CACHE_SIZE, USER_CACHE_TTL, USER_NEGATIVE_CACHE_TTL);
+    // 批量查询和写入合并共用的定时线程
+    private final ScheduledExecutorService scheduler;
+    // 合并并发的用户名查询
+    private final UserBatchLoader userLoader;
+    // 合并并发的用户写入
+    private final UserWriteBatcher writeBatcher;
+    // 密码哈希，用于后台迁移旧存储串
+    private final PasswordHashing passwordHashing;
+    // 登录校验流水线
+    private final LoginPipeline loginPipeline;
+    // 用户名布隆过滤器，启动时流式扫描users表构建
+    private volatile BloomFilter usernameFilter;
+    // 过滤器是否已完成初始扫描，未完成前所有检查都查库
+    private volatile boolean usernameFilterReady;
+    // 正在扫描构建的新过滤器，扫描期间的新用户名同时写入它和当前过滤器
+    private volatile BloomFilter rebuildingUsernameFilter;
+    // 同一时间只允许一次扫描构建
+    private final Object usernameFilterRebuildLock = new Object();
+    // 过滤器判定“可能存在”的次数
+    private final AtomicLong filterProbableHits = new AtomicLong();
+    // “可能存在”经查库确认实际不存在的次数（误判）
+    private final AtomicLong filterFalsePositives = new AtomicLong();
+    // 过滤器直接判定“不存在”、未访问数据库的次数
+    private final AtomicLong filterNegatives = new AtomicLong();
 
     /**
-     * 构造方法，初始化Room数据库和DAO。
+     * 私有构造方法，使用共享的数据库实例和读写线程。
      * @param context 应用上下文
      */
-    public UserRepository(Context context) {
-        db = Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, "app_db").build();
+    private UserRepository(Context context) {
+        db = AppDatabase.getInstance(context);
         userDao = db.userDao();
+        readExecutor = AppDatabase.getReadExecutor();
+        writeExecutor = AppDatabase.getWriteExecutor();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "user-repo-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        scheduler = timer;
+        userLoader = new UserBatchLoader(userDao, readExecutor.tagged("user_lookup_batch"), scheduler, LOOKUP_BATCH_WINDOW, LOOKUP_MAX_BATCH);
+        writeBatcher = new UserWriteBatcher(db, writeExecutor.tagged("user_write_batch"), scheduler, INSERT_BATCH_WINDOW, INSERT_MAX_BATCH);
+        passwordHashing = PasswordHashing.getInstance(context);
+        LoginThrottler throttler = new LoginThrottler(LOGIN_USER_BURST, LOGIN_USER_REFILL_PER_SECOND,
+                LOGIN_GLOBAL_BURST, LOGIN_GLOBAL_REFILL_PER_SECOND, LoginThrottler.SYSTEM_CLOCK);
+        loginPipeline = new LoginPipeline(this, passwordHashing, throttler, ThreadPoolUtils.getInstance().executor(ThreadPoolUtils.Lane.CRYPTO, "login_pipeline"));
+        readExecutor.execute("username_filter", this::loadUsernameFilter);
+    }
+
+    /**
+     * 获取单例实例
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return UserRepository实例
+     */
+    public static UserRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (UserRepository.class) {
+                if (instance == null) {
+                    instance = new UserRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 释放仓库和底层数据库连接、线程，供测试使用。
+     */
+    public static void release() {
+        synchronized (UserRepository.class) {
+            Log.d(TAG, "release: 释放用户仓库");
+            if (instance != null) {
+                instance.userLoader.flushNow();
+                instance.writeBatcher.flush();
+                instance.scheduler.shutdown();
+            }
+            instance = null;
+            AppDatabase.closeInstance();
+        }
+    }
+
+    /**
+     * 应用退到后台时调用：立即发出合并中的查询和写入，再在写线程上做一次WAL检查点。
+     * 写线程按提交顺序执行，检查点排在这些写入之后。
+     */
+    public void onAppBackground() {
+        userLoader.flushNow();
+        writeBatcher.flush();
+        AppDatabase.checkpointAsync();
+    }
+
+    /**
+     * 调整写入合并的窗口和批大小。
+     * @param windowMillis 合并窗口（毫秒），0表示不等待
+     * @param maxBatchSize 单个事务最多包含的插入数
+     */
+    public void configureWriteBatching(long windowMillis, int maxBatchSize) {
+        writeBatcher.configure(windowMillis, maxBatchSize);
     }
 
     /**
      * 异步注册用户。
+     * 写入经过合并器，与同一窗口内的其他注册放在一个事务中提交。
      * @param user 用户对象
-     * @param callback 注册结果回调，返回新用户id
+     * @param callback 注册结果回调，返回新用户id，失败返回-1
      */
     public void registerUser(User user, Callback<Long> callback) {
         Log.d(TAG, "registerUser: 开始注册用户，用户名=" + user.getUsername());
-        executor.execute(() -> {
-            long id = userDao.insertUser(user);
+        writeBatcher.submit(user, false).whenComplete((id, error) -> {
+            if (error != null) {
+                Log.e(TAG, "registerUser: 用户注册失败", error);
+                userCache.invalidate(user.getUsername());
+                if (callback != null) callback.onResult(-1L);
+                return;
+            }
+            user.setId(id.intValue());
+            onUserInserted(user);
             Log.d(TAG, "registerUser: 用户注册完成，用户ID=" + id);
             if (callback != null) callback.onResult(id);
         });
     }
 
+    /**
+     * 异步注册用户，用户名已存在时不插入。
+     * 检查和插入由username唯一索引在同一条INSERT OR IGNORE中完成，
+     * 并经过写入合并器提交，并发注册同名用户时只有一个会成功。
+     * @param user 用户对象
+     * @param callback 注册结果回调
+     */
+    public void registerIfAbsent(User user, Callback<RegisterResult> callback) {
+        Log.d(TAG, "registerIfAbsent: 开始注册用户，用户名=" + user.getUsername());
+        writeBatcher.submit(user, true).whenComplete((id, error) -> {
+            RegisterResult result;
+            if (error != null) {
+                Log.e(TAG, "registerIfAbsent: 注册用户失败", error);
+                userCache.invalidate(user.getUsername());
+                result = RegisterResult.error(error);
+            } else if (id == -1) {
+                // 用户名已存在，缓存中的“不存在”可能已过时
+                userCache.invalidate(user.getUsername());
+                result = RegisterResult.alreadyExists();
+            } else {
+                user.setId(id.intValue());
+                onUserInserted(user);
+                result = RegisterResult.created(id);
+            }
+            Log.d(TAG, "registerIfAbsent: 注册完成，结果=" + result);
+            if (callback != null) callback.onResult(result);
+        });
+    }
+
+    /**
+     * 异步校验登录，先经过限流，预哈希与用户查询并行执行，结果在CPU线程上完成。
+     * @param username 用户名
+     * @param password 明文密码
+     * @return 登录结果，包含各阶段耗时
+     */
+    public CompletableFuture<LoginPipeline.LoginOutcome> login(String username, String password) {
+        return loginPipeline.login(username, password);
+    }
+
+    /**
+     * 登录流水线，用于读取各阶段的累计耗时。
+     */
+    public LoginPipeline getLoginPipeline() {
+        return loginPipeline;
+    }
+
+    /**
+     * 异步改写用户的密码存储串，用于登录成功后把旧格式升级为当前参数。
+     * 只有库中存储串仍为user.getPassword()时才会改写。
+     * @param user 登录时查到的用户
+     * @param newPassword 新的密码存储串
+     * @param callback 结果回调，true表示已改写，可为null
+     */
+    public void updatePasswordHash(User user, String newPassword, Callback<Boolean> callback) {
+        writeExecutor.execute("password_rehash", () -> {
+            boolean updated = false;
+            try {
+                updated = userDao.replacePassword(user.getId(), user.getPassword(), newPassword) > 0;
+            } catch (Exception e) {
+                Log.e(TAG, "updatePasswordHash: 改写密码存储串失败", e);
+            }
+            userCache.invalidate(user.getUsername());
+            Log.d(TAG, "updatePasswordHash: 用户名=" + user.getUsername() + ", 已改写=" + updated);
+            if (callback != null) callback.onResult(updated);
+        });
+    }
+
+    /**
+     * 把仍为旧版MD5的存储串分批包装为加盐慢哈希，阻塞直到完成，必须在后台线程调用。
+     * 慢哈希在调用线程上计算，每批的改写在写线程上一个事务内提交，不长时间占用写线程。
+     * @return 改写的行数
+     */
+    @WorkerThread
+    public int migrateLegacyPasswords() {
+        long start = System.currentTimeMillis();
+        int lastId = 0;
+        int migrated = 0;
+        while (true) {
+            List<User> page = userDao.getLegacyPasswordUsersAfter(lastId, PASSWORD_MIGRATION_BATCH);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).getId();
+            List<User> legacy = new ArrayList<>(page.size());
+            List<String> wrapped = new ArrayList<>(page.size());
+            for (User user : page) {
+                if (passwordHashing.isLegacy(user.getPassword())) {
+                    legacy.add(user);
+                    wrapped.add(passwordHashing.wrapLegacy(user.getPassword()));
+                }
+            }
+            if (legacy.isEmpty()) {
+                continue;
+            }
+            CompletableFuture<Integer> commit = CompletableFuture.supplyAsync(() -> db.runInTransaction(() -> {
+                int rows = 0;
+                for (int i = 0; i < legacy.size(); i++) {
+                    User user = legacy.get(i);
+                    rows += userDao.replacePassword(user.getId(), user.getPassword(), wrapped.get(i));
+                }
+                return rows;
+            }), writeExecutor.tagged("migrate_passwords"));
+            try {
+                migrated += commit.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                Log.e(TAG, "migrateLegacyPasswords: 提交迁移批次失败", e.getCause());
+                break;
+            }
+            for (User user : legacy) {
+                userCache.invalidate(user.getUsername());
+            }
+        }
+        Log.d(TAG, "migrateLegacyPasswords: 旧密码迁移完成，改写行数=" + migrated
+                + ", 耗时=" + (System.currentTimeMillis() - start) + "ms");
+        return migrated;
+    }
+
+    /**
+     * 异步按keyset分页读取用户列表。
+     * @param lastId 上一页最后一个用户的id，第一页传0
+     * @param pageSize 每页行数
+     * @param callback 结果回调，返回当前页，空列表表示没有更多数据
+     */
+    public void getUsersPage(int lastId, int pageSize, Callback<List<User>> callback) {
+        readExecutor.execute("users_page", () -> {
+            List<User> page = userDao.getUsersAfter(lastId, pageSize);
+            Log.d(TAG, "getUsersPage: 分页读取完成，lastId=" + lastId + ", 行数=" + page.size());
+            if (callback != null) callback.onResult(page);
+        });
+    }
+
+    /**
+     * 把整张用户表流式导出为CSV或JSON，阻塞直到完成，必须在后台线程调用。
+     * @param out 输出流，方法返回前不会关闭
+     * @param format 文件格式
+     * @return 导出的行数
+     */
+    public long exportUsers(OutputStream out, UserFileFormat format) throws IOException {
+        return new UserExporter(userDao, EXPORT_PAGE_SIZE).export(out, format);
+    }
+
+    /**
+     * 从CSV或JSON文件流式批量导入用户，阻塞直到完成，必须在后台线程调用。
+     * @param in 输入流，方法返回前不会关闭
+     * @param format 文件格式
+     * @param listener 进度回调，可为null
+     * @return 导入统计，包括插入数和因重复被拒绝的行数
+     */
+    public UserImporter.ImportStats importUsers(InputStream in, UserFileFormat format,
+                                                UserImporter.ProgressListener listener) throws IOException {
+        UserImporter importer = new UserImporter(db, writeExecutor, this::onUsersImported);
+        UserImporter.ImportStats stats = importer.importUsers(in, format, listener);
+        // 导入量超出过滤器容量时误判率会上升，按新的用户数重建
+        if (getUsernameFilterExpectedFalsePositiveRate() > USERNAME_FILTER_FPP * 2) {
+            readExecutor.execute("username_filter", this::loadUsernameFilter);
+        }
+        // 导入行使用旧版MD5存储串，在后台升级为慢哈希
+        if (stats.getInserted() > 0) {
+            ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.BULK, "migrate_passwords", this::migrateLegacyPasswords,
+                    e -> Log.w(TAG, "importUsers: 批量通道繁忙，旧密码留到下次启动升级", e));
+        }
+        return stats;
+    }
+
     /**
      * 异步根据用户名查询用户。
+     * 命中缓存时在调用线程直接回调，否则在读线程上回调。
      * @param username 用户名
      * @param callback 查询结果回调，返回User对象或null
      */
     public void getUserByUsername(String username, Callback<User> callback) {
-        Log.d(TAG, "getUserByUsername: 开始查询用户，用户名=" + username);
-        executor.execute(() -> {
-            User user = userDao.getUserByUsername(username);
-            Log.d(TAG, "getUserByUsername: 用户查询完成，用户存在=" + (user != null));
-            if (callback != null) callback.onResult(user);
+        getUserByUsernameAsync(username).whenComplete((user, error) -> {
+            if (error != null) {
+                Log.e(TAG, "getUserByUsername: 用户查询失败", error);
+            }
+            if (callback != null) callback.onResult(error == null ? user : null);
+        });
+    }
+
+    /**
+     * 异步根据用户名查询用户，返回可组合的Future。
+     * 先查缓存；未命中时交给批量加载器，同一用户名的并发请求共享一次查询，
+     * 短时间内的不同用户名合并为一条IN查询。
+     * @param username 用户名
+     * @return 以User或null完成的Future
+     */
+    public CompletableFuture<User> getUserByUsernameAsync(String username) {
+        Log.d(TAG, "getUserByUsernameAsync: 开始查询用户，用户名=" + username);
+        UserCache.Lookup cached = userCache.get(username);
+        if (cached != null) {
+            Log.d(TAG, "getUserByUsernameAsync: 命中缓存，用户存在=" + (cached.user != null));
+            return CompletableFuture.completedFuture(cached.user);
+        }
+        long generation = userCache.generation();
+        return userLoader.load(username).thenApply(user -> {
+            userCache.putIfCurrent(username, user, generation);
+            Log.d(TAG, "getUserByUsernameAsync: 用户查询完成，用户存在=" + (user != null));
+            return user;
+        });
+    }
+
+    /**
+     * 同步查询以prefix开头的用户名，走索引范围扫描，必须在后台线程调用。
+     * @param prefix 前缀
+     * @param limit 最多返回条数
+     * @return 按字典序排列的用户名
+     */
+    @WorkerThread
+    public List<String> suggestUsernames(String prefix, int limit) {
+        return userDao.getUsernamesWithPrefix(prefix, prefix + '\uffff', limit);
+    }
+
+    /**
+     * 检查用户名是否可用（未被注册）。
+     * 布隆过滤器判定不存在时直接在调用线程回调，不访问磁盘；
+     * 只有“可能存在”时才到读线程上走索引查询确认。
+     * @param username 用户名
+     * @param callback 结果回调，true表示可用
+     */
+    public void checkUsernameAvailable(String username, Callback<Boolean> callback) {
+        BloomFilter filter = usernameFilter;
+        if (usernameFilterReady && filter != null && !filter.mightContain(username)) {
+            filterNegatives.incrementAndGet();
+            callback.onResult(true);
+            return;
+        }
+        readExecutor.execute("username_check", () -> {
+            boolean exists = userDao.existsByUsername(username);
+            if (usernameFilterReady) {
+                filterProbableHits.incrementAndGet();
+                if (!exists) {
+                    filterFalsePositives.incrementAndGet();
+                }
+            }
+            callback.onResult(!exists);
         });
     }
 
+    /**
+     * 用户缓存命中次数（命中已存在的用户）。
+     */
+    public long getUserCacheHits() {
+        return userCache.getHits();
+    }
+
+    /**
+     * 用户缓存命中“不存在”的次数。
+     */
+    public long getUserCacheNegativeHits() {
+        return userCache.getNegativeHits();
+    }
+
+    /**
+     * 用户缓存未命中次数（需要查库）。
+     */
+    public long getUserCacheMisses() {
+        return userCache.getMisses();
+    }
+
+    /**
+     * 用户缓存因容量不足淘汰的条目数。
+     */
+    public long getUserCacheEvictions() {
+        return userCache.getEvictions();
+    }
+
+    /**
+     * 用户名过滤器的实测误判率：“可能存在”中实际不存在的比例。
+     * @return 误判率，尚无样本时返回0
+     */
+    public double getUsernameFilterFalsePositiveRate() {
+        long hits = filterProbableHits.get();
+        return hits == 0 ? 0 : (double) filterFalsePositives.get() / hits;
+    }
+
+    /**
+     * 用户名过滤器按当前容量估算的理论误判率。
+     */
+    public double getUsernameFilterExpectedFalsePositiveRate() {
+        BloomFilter filter = usernameFilter;
+        return filter == null ? 0 : filter.expectedFalsePositiveRate();
+    }
+
+    /**
+     * 过滤器直接判定可用、省去数据库查询的次数。
+     */
+    public long getUsernameFilterNegatives() {
+        return filterNegatives.get();
+    }
+
+    /**
+     * 流式扫描users表构建用户名布隆过滤器。
+     * 新过滤器扫描完成后才替换当前过滤器，重建期间检查仍使用旧过滤器（或在首次构建完成前查库），不会出现漏判；
+     * 扫描期间的新注册同时写入新旧两个过滤器，避免漏掉。
+     */
+    private void loadUsernameFilter() {
+        synchronized (usernameFilterRebuildLock) {
+            long start = System.currentTimeMillis();
+            int count = userDao.countUsers();
+            BloomFilter filter = new BloomFilter(Math.max(USERNAME_FILTER_MIN_CAPACITY, count * 2), USERNAME_FILTER_FPP);
+            rebuildingUsernameFilter = filter;
+            try (Cursor cursor = userDao.getAllUsernamesCursor()) {
+                while (cursor.moveToNext()) {
+                    String name = cursor.getString(0);
+                    if (name != null) {
+                        filter.add(name);
+                    }
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "loadUsernameFilter: 构建用户名过滤器失败", e);
+                rebuildingUsernameFilter = null;
+                return;
+            }
+            // 先发布新过滤器再清除重建字段，与addToUsernameFilters的读取顺序相反，并发写入至少进入新过滤器
+            usernameFilter = filter;
+            rebuildingUsernameFilter = null;
+            usernameFilterReady = true;
+            Log.d(TAG, "loadUsernameFilter: 用户名过滤器构建完成，用户数=" + count
+                    + ", 耗时=" + (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+
+    /**
+     * 把用户名写入当前过滤器和正在重建的过滤器。
+     */
+    private void addToUsernameFilters(String username) {
+        if (username == null) {
+            return;
+        }
+        BloomFilter rebuilding = rebuildingUsernameFilter;
+        BloomFilter filter = usernameFilter;
+        if (rebuilding != null) {
+            rebuilding.add(username);
+        }
+        if (filter != null) {
+            filter.add(username);
+        }
+    }
+
+    /**
+     * 新用户写入成功后更新缓存和内存中的用户名索引。
+     */
+    private void onUserInserted(User user) {
+        userCache.put(user.getUsername(), user);
+        addToUsernameFilters(user.getUsername());
+    }
+
+    /**
+     * 批量导入的用户写入后更新用户名索引。
+     * 大批量导入不写入LRU缓存，避免把热点用户挤出去；只清除可能存在的“不存在”缓存。
+     */
+    private void onUsersImported(List<User> users) {
+        for (User user : users) {
+            userCache.invalidate(user.getUsername());
+            addToUsernameFilters(user.getUsername());
+        }
+    }
+
     /**
      * 通用回调接口。
      * @param <T> 返回类型
@@ -0,0 +1,179 @@
+package com.example.loginandregister.repository;
+
+import android.util.Log;
+
+import com.example.loginandregister.model.AppDatabase;
+import com.example.loginandregister.model.User;
+import com.example.loginandregister.model.UserDao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户写入合并器（group commit）。
+ * 在一个短时间窗口内或攒够N条时，把待插入的用户放进同一个事务提交，
+ * 多次插入只需要一次事务提交和fsync；每个调用方仍拿到自己的自增id。
+ * 批内所有插入都用INSERT OR IGNORE：Room生成的insertUser在嵌套事务中执行，
+ * 一条语句违反约束会让外层事务整体回滚且不抛出异常，同批其他调用方会拿到并未写入的id。
+ */
+class UserWriteBatcher {
+    private static final String TAG = "UserWriteBatcher";
+
+    private final Transactor transactor;
+    private final UserDao userDao;
+    private final Executor writeExecutor;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private volatile long windowMillis;
+    private volatile int maxBatchSize;
+    // 当前窗口中等待提交的写入
+    private List<PendingInsert> pending = new ArrayList<>();
+    // 当前窗口的定时提交任务
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param db 数据库，用于开启事务
+     * @param writeExecutor 单写线程
+     * @param scheduler 用于窗口定时的调度线程
+     * @param windowMillis 合并窗口（毫秒），0表示不等待，只合并写线程忙时积压的写入
+     * @param maxBatchSize 单个事务最多包含的行数
+     */
+    UserWriteBatcher(AppDatabase db, Executor writeExecutor, ScheduledExecutorService scheduler,
+                     long windowMillis, int maxBatchSize) {
+        this(db.userDao(), db::runInTransaction, writeExecutor, scheduler, windowMillis, maxBatchSize);
+    }
+
+    /**
+     * @param userDao 用户DAO
+     * @param transactor 把一批写入放进一个事务执行
+     */
+    UserWriteBatcher(UserDao userDao, Transactor transactor, Executor writeExecutor,
+                     ScheduledExecutorService scheduler, long windowMillis, int maxBatchSize) {
+        this.transactor = transactor;
+        this.userDao = userDao;
+        this.writeExecutor = writeExecutor;
+        this.scheduler = scheduler;
+        configure(windowMillis, maxBatchSize);
+    }
+
+    /**
+     * 调整合并窗口和批大小，对下一个窗口生效。
+     */
+    void configure(long windowMillis, int maxBatchSize) {
+        if (windowMillis < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("windowMillis must be >= 0 and maxBatchSize >= 1");
+        }
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 提交一条插入。
+     * @param user 用户对象
+     * @param ignoreConflict true时用户名冲突返回-1，false时冲突以IllegalStateException完成
+     * @return 以新用户id完成的Future
+     */
+    CompletableFuture<Long> submit(User user, boolean ignoreConflict) {
+        PendingInsert insert = new PendingInsert(user, ignoreConflict);
+        List<PendingInsert> batch = null;
+        synchronized (lock) {
+            pending.add(insert);
+            if (pending.size() >= maxBatchSize || windowMillis == 0) {
+                batch = takePendingLocked();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+        return insert.result;
+    }
+
+    /**
+     * 立即提交当前窗口中的写入。
+     */
+    void flush() {
+        List<PendingInsert> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePendingLocked();
+        }
+        dispatch(batch);
+    }
+
+    private List<PendingInsert> takePendingLocked() {
+        List<PendingInsert> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<PendingInsert> batch) {
+        writeExecutor.execute(() -> commit(batch));
+    }
+
+    /**
+     * 在写线程上把一批写入放进一个事务提交，事务提交后再通知各调用方。
+     * 冲突的行返回-1，不影响同一事务中的其他写入；其他异常让整批回滚，所有调用方都以该异常完成。
+     */
+    private void commit(List<PendingInsert> batch) {
+        long start = System.nanoTime();
+        try {
+            transactor.runInTransaction(() -> {
+                for (PendingInsert insert : batch) {
+                    insert.id = userDao.insertUserIfAbsent(insert.user);
+                }
+            });
+        } catch (RuntimeException e) {
+            Log.e(TAG, "commit: 批量写入事务失败，批大小=" + batch.size(), e);
+            for (PendingInsert insert : batch) {
+                insert.result.completeExceptionally(e);
+            }
+            return;
+        }
+        Log.d(TAG, "commit: 批量写入完成，批大小=" + batch.size()
+                + ", 耗时=" + (System.nanoTime() - start) / 1000 + "us");
+        for (PendingInsert insert : batch) {
+            if (insert.id == -1 && !insert.ignoreConflict) {
+                insert.result.completeExceptionally(
+                        new IllegalStateException("username already exists: " + insert.user.getUsername()));
+            } else {
+                insert.result.complete(insert.id);
+            }
+        }
+    }
+
+    /**
+     * 在一个事务中执行写入，生产环境为RoomDatabase.runInTransaction。
+     */
+    interface Transactor {
+        void runInTransaction(Runnable body);
+    }
+
+    /**
+     * 一条待提交的插入。
+     */
+    private static class PendingInsert {
+        final User user;
+        final boolean ignoreConflict;
+        final CompletableFuture<Long> result = new CompletableFuture<>();
+        long id;
+
+        PendingInsert(User user, boolean ignoreConflict) {
+            this.user = user;
+            this.ignoreConflict = ignoreConflict;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.loginandregister.security;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 注册时检查密码是否出现在本地泄露密码库中。
+ * 密码库文件放在应用私有目录（filesDir/breached_passwords.bin），第一次检查时打开并映射；
+ * 文件不存在或损坏时不阻止注册，只记录日志。
+ */
+public class BreachedPasswordChecker {
+    private static final String TAG = "BreachedPasswordChecker";
+    // 密码库文件名
+    public static final String CORPUS_FILE_NAME = "breached_passwords.bin";
+
+    // 单例实例
+    private static volatile BreachedPasswordChecker instance;
+
+    private final File corpusFile;
+    // 已打开的密码库，打开失败时为null
+    private volatile BreachedPasswordCorpus corpus;
+    // 是否已尝试打开过
+    private volatile boolean opened;
+
+    private BreachedPasswordChecker(Context context) {
+        corpusFile = new File(context.getFilesDir(), CORPUS_FILE_NAME);
+    }
+
+    /**
+     * 获取单例实例
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return BreachedPasswordChecker实例
+     */
+    public static BreachedPasswordChecker getInstance(Context context) {
+        if (instance == null) {
+            synchronized (BreachedPasswordChecker.class) {
+                if (instance == null) {
+                    instance = new BreachedPasswordChecker(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 密码是否已泄露。第一次调用会打开并映射文件，必须在后台线程调用。
+     * @return 在泄露库中返回true；密码库不可用时返回false
+     */
+    @WorkerThread
+    public boolean isBreached(String password) {
+        BreachedPasswordCorpus current = open();
+        if (current == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean breached = current.contains(password);
+        Log.d(TAG, "isBreached: 查询完成，结果=" + breached + ", 耗时=" + (System.nanoTime() - start) / 1000 + "us");
+        return breached;
+    }
+
+    private BreachedPasswordCorpus open() {
+        if (opened) {
+            return corpus;
+        }
+        synchronized (this) {
+            if (!opened) {
+                if (corpusFile.exists()) {
+                    try {
+                        corpus = BreachedPasswordCorpus.open(corpusFile);
+                        Log.d(TAG, "open: 泄露密码库已映射，记录数=" + corpus.size());
+                    } catch (IOException e) {
+                        Log.e(TAG, "open: 泄露密码库无法打开，跳过检查", e);
+                    }
+                } else {
+                    Log.w(TAG, "open: 未找到泄露密码库，跳过检查");
+                }
+                opened = true;
+            }
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.loginandregister.security;
+
+import com.example.loginandregister.utils.DigestEngine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 泄露密码库的只读查询，文件通过FileChannel内存映射，数据不复制到Java堆。
+ *
+ * 文件格式（大端）：
+ * <pre>
+ * 0   4字节  魔数 "BPWD"
+ * 4   4字节  版本号，当前为1
+ * 8   4字节  每条记录的字节数（SHA-1前缀长度，4-20）
+ * 12  4字节  保留
+ * 16  8字节  记录条数
+ * 24  8字节  保留
+ * 32  (65536 + 1) * 4字节  前缀索引：第p项为SHA-1前两字节 >= p 的第一条记录下标
+ * 之后  记录区：按无符号字节序升序排列、去重的SHA-1前缀
+ * </pre>
+ * 查询先用前两字节定位到桶，再在桶内二分，几百万条记录时桶内只需十次左右比较。
+ * 实例线程安全。
+ */
+public final class BreachedPasswordCorpus implements Closeable {
+    static final int MAGIC = 0x42505744; // "BPWD"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int BUCKETS = 1 << 16;
+    static final int INDEX_SIZE = (BUCKETS + 1) * 4;
+    static final int RECORDS_OFFSET = HEADER_SIZE + INDEX_SIZE;
+    static final int MIN_RECORD_SIZE = 4;
+    static final int MAX_RECORD_SIZE = 20;
+
+    // 每个线程复用的SHA-1输出缓冲区
+    private static final ThreadLocal<byte[]> DIGEST_BUFFER = ThreadLocal.withInitial(() -> new byte[MAX_RECORD_SIZE]);
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int recordSize;
+    private final long recordCount;
+
+    private BreachedPasswordCorpus(RandomAccessFile file, MappedByteBuffer buffer, int recordSize, long recordCount) {
+        this.file = file;
+        this.buffer = buffer;
+        this.recordSize = recordSize;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * 打开并映射密码库文件，校验文件头和长度。
+     * @param corpusFile 由BreachedPasswordCorpusBuilder生成的文件
+     */
+    public static BreachedPasswordCorpus open(File corpusFile) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(corpusFile, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < RECORDS_OFFSET) {
+                throw new IOException("corpus file too small: " + size);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("corpus file larger than 2GB is not supported: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("bad corpus magic");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("unsupported corpus version: " + buffer.getInt(4));
+            }
+            int recordSize = buffer.getInt(8);
+            if (recordSize < MIN_RECORD_SIZE || recordSize > MAX_RECORD_SIZE) {
+                throw new IOException("bad record size: " + recordSize);
+            }
+            long count = buffer.getLong(16);
+            if (RECORDS_OFFSET + count * recordSize != size
+                    || buffer.getInt(HEADER_SIZE + BUCKETS * 4) != count) {
+                throw new IOException("corpus file truncated or corrupt");
+            }
+            return new BreachedPasswordCorpus(raf, buffer, recordSize, count);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 记录条数。
+     */
+    public long size() {
+        return recordCount;
+    }
+
+    /**
+     * 每条记录的SHA-1前缀字节数，小于20时存在极小的误判概率。
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * 明文密码是否出现在泄露库中。
+     */
+    public boolean contains(CharSequence password) {
+        byte[] sha1 = DIGEST_BUFFER.get();
+        DigestEngine.digest(DigestEngine.Algorithm.SHA1, password, sha1);
+        return containsHash(sha1);
+    }
+
+    /**
+     * SHA-1摘要是否出现在泄露库中。
+     * @param sha1 摘要，至少包含recordSize个字节
+     */
+    public boolean containsHash(byte[] sha1) {
+        int bucket = ((sha1[0] & 0xff) << 8) | (sha1[1] & 0xff);
+        // 索引项是int，读取时按无符号处理
+        long low = buffer.getInt(HEADER_SIZE + bucket * 4) & 0xffffffffL;
+        long high = (buffer.getInt(HEADER_SIZE + (bucket + 1) * 4) & 0xffffffffL) - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int cmp = compareRecord(mid, sha1);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按无符号字节序比较第index条记录与key。
+     */
+    private int compareRecord(long index, byte[] key) {
+        int base = (int) (RECORDS_OFFSET + index * recordSize);
+        // 桶内记录前两字节都相同，从第三个字节开始比较
+        for (int i = 2; i < recordSize; i++) {
+            int a = buffer.get(base + i) & 0xff;
+            int b = key[i] & 0xff;
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // MappedByteBuffer由GC回收后才会解除映射，这里只关闭文件句柄
+        file.close();
+    }
+}
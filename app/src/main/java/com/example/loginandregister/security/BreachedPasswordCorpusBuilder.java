@@ -0,0 +1,244 @@
+package com.example.loginandregister.security;
+
+import com.example.loginandregister.utils.DigestEngine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 生成BreachedPasswordCorpus文件的离线工具，不依赖Android，可以在开发机上直接运行：
+ * <pre>
+ * java -cp ... com.example.loginandregister.security.BreachedPasswordCorpusBuilder 输入文件 输出文件 [前缀字节数]
+ * </pre>
+ * 输入每行一条，可以是明文密码，也可以是HIBP格式的“40位SHA-1十六进制[:次数]”。
+ * 输入可能远大于内存：先按块排序写出临时有序段，再多路归并、去重并统计前缀索引。
+ */
+public final class BreachedPasswordCorpusBuilder {
+    // 默认每块在内存中排序的记录数（约20MB）
+    static final int DEFAULT_CHUNK_RECORDS = 1_000_000;
+
+    private final int recordSize;
+    private final int chunkRecords;
+
+    /**
+     * @param recordSize 每条记录保存的SHA-1前缀字节数（4-20），越短文件越小、误判越多
+     * @param chunkRecords 每个内存排序块的记录数
+     */
+    public BreachedPasswordCorpusBuilder(int recordSize, int chunkRecords) {
+        if (recordSize < BreachedPasswordCorpus.MIN_RECORD_SIZE || recordSize > BreachedPasswordCorpus.MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("recordSize must be in [4, 20]");
+        }
+        this.recordSize = recordSize;
+        this.chunkRecords = Math.max(1, chunkRecords);
+    }
+
+    /**
+     * 从文本文件生成密码库。
+     * @param input 输入文本（UTF-8）
+     * @param output 输出文件，已存在时覆盖
+     * @return 写入的记录条数（去重后）
+     */
+    public long build(File input, File output) throws IOException {
+        File tempDir = output.getAbsoluteFile().getParentFile();
+        List<File> runs = new ArrayList<>();
+        try {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8))) {
+                byte[][] chunk = new byte[chunkRecords][];
+                byte[] sha1 = new byte[BreachedPasswordCorpus.MAX_RECORD_SIZE];
+                int n = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!toSha1(line, sha1)) {
+                        continue;
+                    }
+                    chunk[n++] = Arrays.copyOf(sha1, recordSize);
+                    if (n == chunkRecords) {
+                        runs.add(writeRun(chunk, n, tempDir));
+                        n = 0;
+                    }
+                }
+                if (n > 0) {
+                    runs.add(writeRun(chunk, n, tempDir));
+                }
+            }
+            return merge(runs, output);
+        } finally {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * 解析一行输入：40位十六进制（可带“:次数”）按摘要处理，否则视为明文密码。
+     * @return 空行返回false
+     */
+    static boolean toSha1(String line, byte[] out) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        int colon = line.indexOf(':');
+        int hexEnd = colon < 0 ? line.length() : colon;
+        if (hexEnd == 40 && isHex(line, 40)) {
+            for (int i = 0; i < 20; i++) {
+                out[i] = (byte) ((Character.digit(line.charAt(i * 2), 16) << 4) | Character.digit(line.charAt(i * 2 + 1), 16));
+            }
+            return true;
+        }
+        DigestEngine.digest(DigestEngine.Algorithm.SHA1, line, out);
+        return true;
+    }
+
+    private static boolean isHex(String s, int length) {
+        for (int i = 0; i < length; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 排序一块记录并写成临时有序段。
+     */
+    private File writeRun(byte[][] chunk, int n, File dir) throws IOException {
+        Arrays.sort(chunk, 0, n, Arrays::compareUnsigned);
+        File run = File.createTempFile("breach-run", ".tmp", dir);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(run), 1 << 16)) {
+            for (int i = 0; i < n; i++) {
+                out.write(chunk[i]);
+                chunk[i] = null;
+            }
+        }
+        return run;
+    }
+
+    /**
+     * 多路归并有序段，去重后写入记录区，同时统计每个两字节前缀的记录数，最后回填文件头和索引。
+     */
+    private long merge(List<File> runs, File output) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                Comparator.comparing((RunReader r) -> r.current, Arrays::compareUnsigned));
+        long[] bucketCounts = new long[BreachedPasswordCorpus.BUCKETS];
+        long count = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(output, "rw")) {
+            raf.setLength(0);
+            for (File run : runs) {
+                RunReader reader = new RunReader(run, recordSize);
+                if (reader.advance()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            FileChannel channel = raf.getChannel();
+            channel.position(BreachedPasswordCorpus.RECORDS_OFFSET);
+            try (OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+                byte[] previous = null;
+                while (!queue.isEmpty()) {
+                    RunReader reader = queue.poll();
+                    byte[] record = reader.current;
+                    if (previous == null || !Arrays.equals(previous, record)) {
+                        out.write(record);
+                        bucketCounts[((record[0] & 0xff) << 8) | (record[1] & 0xff)]++;
+                        count++;
+                        previous = record;
+                    }
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+                out.flush();
+
+                ByteBuffer head = ByteBuffer.allocate(BreachedPasswordCorpus.RECORDS_OFFSET).order(ByteOrder.BIG_ENDIAN);
+                head.putInt(BreachedPasswordCorpus.MAGIC);
+                head.putInt(BreachedPasswordCorpus.VERSION);
+                head.putInt(recordSize);
+                head.putInt(0);
+                head.putLong(count);
+                head.putLong(0);
+                long start = 0;
+                for (int i = 0; i < BreachedPasswordCorpus.BUCKETS; i++) {
+                    head.putInt((int) start);
+                    start += bucketCounts[i];
+                }
+                head.putInt((int) start);
+                head.flip();
+                long position = 0;
+                while (head.hasRemaining()) {
+                    position += channel.write(head, position);
+                }
+            }
+        } finally {
+            for (RunReader reader : queue) {
+                reader.close();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 顺序读取一个有序段。
+     */
+    private static final class RunReader {
+        final DataInputStream in;
+        final int recordSize;
+        byte[] current;
+
+        RunReader(File file, int recordSize) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            this.recordSize = recordSize;
+        }
+
+        boolean advance() throws IOException {
+            byte[] record = new byte[recordSize];
+            try {
+                in.readFully(record);
+            } catch (EOFException e) {
+                return false;
+            }
+            current = record;
+            return true;
+        }
+
+        void close() throws IOException {
+            in.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BreachedPasswordCorpusBuilder <input.txt> <output.bin> [recordSize=20]");
+            System.exit(1);
+        }
+        int recordSize = args.length > 2 ? Integer.parseInt(args[2]) : BreachedPasswordCorpus.MAX_RECORD_SIZE;
+        long start = System.currentTimeMillis();
+        long count = new BreachedPasswordCorpusBuilder(recordSize, DEFAULT_CHUNK_RECORDS)
+                .build(new File(args[0]), new File(args[1]));
+        System.out.println("wrote " + count + " records to " + args[1]
+                + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.loginandregister.security;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.loginandregister.repository.KeyValueStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * “记住密码”的凭据保险箱，替代原来在SharedPreferences中保存“密码_时间戳”字符串的方式。
+ * 所有条目编码为一个紧凑的二进制值保存在user_info存储中，进程内只解码一次，之后读操作只访问内存，不解析字符串；
+ * 修改通过stage写入调用方的事务，与登录成功时的其他状态一起提交。
+ * 另维护按过期时间排序的索引，后台线程在最早的条目过期时一次性清理所有过期条目并提交一次。
+ */
+public class CredentialVault {
+    private static final String TAG = "CredentialVault";
+    // 在user_info存储中使用的键
+    private static final String KEY_VAULT = "credential_vault";
+    // 编码格式的魔数和版本
+    private static final int MAGIC = 0x43564c54; // "CVLT"
+    private static final int VERSION = 1;
+    // 凭据有效期：24小时（毫秒）
+    public static final long VALID_DURATION = 24 * 60 * 60 * 1000;
+    // 剩余时间少于此值时视为即将过期：1小时（毫秒）
+    public static final long EXPIRING_SOON = 60 * 60 * 1000;
+    // 旧版本SharedPreferences中的键后缀
+    private static final String LEGACY_PREFS = "user_info";
+    private static final String LEGACY_SUFFIX = "_password_plain";
+
+    // 单例实例
+    private static volatile CredentialVault instance;
+
+    private final KeyValueStore store;
+    // 用户名 -> 条目
+    private final Map<String, Entry> entries = new HashMap<>();
+    // 按过期时间排序的索引，与entries保持一致
+    private final TreeSet<Entry> expiryIndex = new TreeSet<>((a, b) -> {
+        int cmp = Long.compare(a.expiresAt, b.expiresAt);
+        return cmp != 0 ? cmp : a.username.compareTo(b.username);
+    });
+    // 过期清理使用的后台线程
+    private final ScheduledExecutorService sweeper;
+    // 下一次过期清理任务
+    private ScheduledFuture<?> sweepTask;
+    private long sweepAt = Long.MAX_VALUE;
+
+    /**
+     * @param store 保存编码后条目的存储
+     * @param sweeper 执行过期清理的后台线程
+     */
+    public CredentialVault(KeyValueStore store, ScheduledExecutorService sweeper) {
+        this.store = store;
+        this.sweeper = sweeper;
+        synchronized (this) {
+            byte[] encoded = store.getBytes(KEY_VAULT, null);
+            if (encoded != null) {
+                decode(encoded);
+            }
+            scheduleSweepLocked();
+        }
+    }
+
+    /**
+     * 获取单例实例，第一次调用时解码条目并迁移旧版本数据，建议在后台线程提前调用。
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return CredentialVault实例
+     */
+    public static CredentialVault getInstance(Context context) {
+        if (instance == null) {
+            synchronized (CredentialVault.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    ScheduledThreadPoolExecutor sweeper = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread thread = new Thread(r, "credential-vault");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    sweeper.setRemoveOnCancelPolicy(true);
+                    CredentialVault vault = new CredentialVault(KeyValueStore.getInstance(appContext), sweeper);
+                    vault.migrateLegacy(appContext);
+                    instance = vault;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 读取用户保存的凭据，只访问内存。
+     * @return 未过期的条目，不存在或已过期时返回null
+     */
+    public synchronized Entry get(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 在内存中保存或删除用户的密码，并把编码后的全部条目写入调用方的事务，随事务一起提交。
+     * 调用方应在synchronized (vault)内调用并提交事务，否则提交前完成的过期清理会被这里的旧快照覆盖。
+     * @param editor user_info存储的事务
+     * @param username 用户名
+     * @param password 要保存的密码，有效期从现在开始计算；为null时删除该用户保存的密码
+     */
+    public synchronized void stage(KeyValueStore.Editor editor, String username, String password) {
+        boolean changed = removeLocked(username);
+        if (password != null && !password.isEmpty()) {
+            long now = System.currentTimeMillis();
+            Entry entry = new Entry(username, password, now, now + VALID_DURATION);
+            entries.put(username, entry);
+            expiryIndex.add(entry);
+            changed = true;
+        }
+        if (changed) {
+            editor.putBytes(KEY_VAULT, encodeLocked());
+            scheduleSweepLocked();
+        }
+    }
+
+    /**
+     * 当前保存的条目数（包括尚未清理的过期条目）。
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean removeLocked(String username) {
+        Entry old = entries.remove(username);
+        if (old != null) {
+            expiryIndex.remove(old);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 按过期索引从最早的条目开始删除所有已过期条目。
+     * @return 删除的条目数
+     */
+    private int sweepExpiredLocked(long now) {
+        int removed = 0;
+        while (!expiryIndex.isEmpty() && expiryIndex.first().isExpired(now)) {
+            Entry entry = expiryIndex.pollFirst();
+            entries.remove(entry.username);
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * 在最早的条目过期时安排一次清理，已有同一时间的清理任务时不重复安排。
+     */
+    private void scheduleSweepLocked() {
+        long next = expiryIndex.isEmpty() ? Long.MAX_VALUE : expiryIndex.first().expiresAt;
+        if (next == sweepAt) {
+            return;
+        }
+        if (sweepTask != null) {
+            sweepTask.cancel(false);
+            sweepTask = null;
+        }
+        sweepAt = next;
+        if (next == Long.MAX_VALUE) {
+            return;
+        }
+        long delay = Math.max(0, next - System.currentTimeMillis());
+        sweepTask = sweeper.schedule(this::sweep, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 删除所有过期条目并提交一次。提交在锁内进行，避免旧快照覆盖之后stage的修改。
+     */
+    private synchronized void sweep() {
+        sweepTask = null;
+        sweepAt = Long.MAX_VALUE;
+        int removed = sweepExpiredLocked(System.currentTimeMillis());
+        Log.d(TAG, "sweep: 清理过期凭据，数量=" + removed);
+        if (removed > 0) {
+            store.edit().putBytes(KEY_VAULT, encodeLocked()).commit();
+        }
+        scheduleSweepLocked();
+    }
+
+    private byte[] encodeLocked() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                out.writeUTF(entry.username);
+                out.writeUTF(entry.password);
+                out.writeLong(entry.savedAt);
+                out.writeLong(entry.expiresAt);
+            }
+        } catch (IOException e) {
+            // 写入内存不会失败
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                Log.w(TAG, "decode: 凭据格式不匹配，忽略");
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(in.readUTF(), in.readUTF(), in.readLong(), in.readLong());
+                // 同一用户名已有条目时先从过期索引中移除，否则清理时会按旧条目删除新的凭据
+                removeLocked(entry.username);
+                entries.put(entry.username, entry);
+                expiryIndex.add(entry);
+            }
+            Log.d(TAG, "decode: 已加载凭据，条目数=" + count);
+        } catch (IOException e) {
+            Log.e(TAG, "decode: 凭据数据损坏，忽略", e);
+            entries.clear();
+            expiryIndex.clear();
+        }
+    }
+
+    /**
+     * 迁移旧版本数据后提交一次：旧版本在SharedPreferences中保存“密码_时间戳”，
+     * 时间戳在最后一个下划线之后，密码本身可以包含下划线。
+     */
+    private synchronized void migrateLegacy(Context context) {
+        int migrated = 0;
+        SharedPreferences prefs = context.getSharedPreferences(LEGACY_PREFS, Context.MODE_PRIVATE);
+        SharedPreferences.Editor cleanup = prefs.edit();
+        boolean hasLegacyPrefs = false;
+        for (Map.Entry<String, ?> pref : prefs.getAll().entrySet()) {
+            String key = pref.getKey();
+            if (!key.endsWith(LEGACY_SUFFIX)) {
+                continue;
+            }
+            cleanup.remove(key);
+            hasLegacyPrefs = true;
+            Object value = pref.getValue();
+            if (!(value instanceof String)) {
+                continue;
+            }
+            String raw = (String) value;
+            int separator = raw.lastIndexOf('_');
+            if (separator <= 0) {
+                continue;
+            }
+            long savedAt;
+            try {
+                savedAt = Long.parseLong(raw.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            String username = key.substring(0, key.length() - LEGACY_SUFFIX.length());
+            removeLocked(username);
+            Entry entry = new Entry(username, raw.substring(0, separator), savedAt, savedAt + VALID_DURATION);
+            entries.put(username, entry);
+            expiryIndex.add(entry);
+            migrated++;
+        }
+        if (!hasLegacyPrefs) {
+            return;
+        }
+        sweepExpiredLocked(System.currentTimeMillis());
+        if (store.edit().putBytes(KEY_VAULT, encodeLocked()).commit()) {
+            cleanup.apply();
+        }
+        scheduleSweepLocked();
+        Log.d(TAG, "migrateLegacy: 迁移旧版本保存的密码，数量=" + migrated);
+    }
+
+    /**
+     * 不可变的凭据条目。
+     */
+    public static final class Entry {
+        private final String username;
+        private final String password;
+        private final long savedAt;
+        private final long expiresAt;
+
+        Entry(String username, String password, long savedAt, long expiresAt) {
+            this.username = username;
+            this.password = password;
+            this.savedAt = savedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public long getSavedAt() {
+            return savedAt;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        /**
+         * 剩余有效时间（分钟），已过期返回0。
+         */
+        public long getRemainingMinutes(long now) {
+            return Math.max(0, (expiresAt - now) / (60 * 1000));
+        }
+
+        /**
+         * 是否将在一小时内过期。
+         */
+        public boolean isExpiringSoon(long now) {
+            return !isExpired(now) && expiresAt - now <= EXPIRING_SOON;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.loginandregister.security;
+
+import com.example.loginandregister.utils.MD5Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 旧版无盐MD5哈希（32位十六进制），只用于校验和迁移旧数据，不再用于生成新哈希。
+ */
+public class LegacyMd5PasswordHasher implements PasswordHasher {
+
+    @Override
+    public boolean supports(String stored) {
+        if (stored == null || stored.length() != 32) {
+            return false;
+        }
+        for (int i = 0; i < 32; i++) {
+            char c = stored.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String hash(String password) {
+        return MD5Utils.encrypt(password);
+    }
+
+    @Override
+    public boolean verify(String password, String stored) {
+        return verifyMd5(MD5Utils.encrypt(password), stored);
+    }
+
+    /**
+     * 用预先算好的MD5十六进制串校验。
+     */
+    boolean verifyMd5(String md5Hex, String stored) {
+        // 常量时间比较，避免通过耗时推断匹配长度
+        return MessageDigest.isEqual(
+                md5Hex.getBytes(StandardCharsets.US_ASCII),
+                stored.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public boolean needsRehash(String stored) {
+        return true;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.loginandregister.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录限流：每个用户名一个令牌桶，外加一个全局令牌桶。
+ * 每个桶的状态（令牌数和上次补充时间）打包在一个AtomicLong中，用CAS更新，不加锁；
+ * 桶存放在ConcurrentHashMap中，长时间没有访问且已经补满的桶会被顺带清理。
+ * 被拒绝时返回需要等待的毫秒数，调用方不应再执行查询和哈希。
+ */
+public class LoginThrottler {
+    // 令牌数以千分之一为单位存储，支持小数补充速率
+    private static final long SCALE = 1000;
+    // 低位存时间（毫秒，相对于构造时刻），高位存令牌数
+    private static final int TIME_BITS = 42;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    // 每处理多少次请求尝试清理一次空闲桶
+    private static final int SWEEP_INTERVAL = 1024;
+
+    /**
+     * 时间来源，测试中可以替换为手动推进的时钟。
+     */
+    public interface Clock {
+        /**
+         * 单调递增的毫秒数。
+         */
+        long millis();
+    }
+
+    /**
+     * 基于System.nanoTime的单调时钟。
+     */
+    public static final Clock SYSTEM_CLOCK = () -> System.nanoTime() / 1_000_000;
+
+    private final Clock clock;
+    private final long epoch;
+    private final long userCapacity;
+    private final double userRefillPerMilli;
+    private final long idleMillis;
+    private final Bucket globalBucket;
+    private final ConcurrentHashMap<String, Bucket> userBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * @param userCapacity 每个用户名允许的连续尝试次数
+     * @param userRefillPerSecond 每个用户名每秒恢复的尝试次数
+     * @param globalCapacity 全局允许的突发尝试次数
+     * @param globalRefillPerSecond 全局每秒恢复的尝试次数
+     * @param clock 时间来源
+     */
+    public LoginThrottler(int userCapacity, double userRefillPerSecond,
+                          int globalCapacity, double globalRefillPerSecond, Clock clock) {
+        if (userCapacity <= 0 || globalCapacity <= 0 || userRefillPerSecond <= 0 || globalRefillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refill rate must be positive");
+        }
+        if (Math.max(userCapacity, globalCapacity) * SCALE >= 1L << (Long.SIZE - TIME_BITS)) {
+            throw new IllegalArgumentException("capacity too large");
+        }
+        this.clock = clock;
+        this.epoch = clock.millis();
+        this.userCapacity = userCapacity * SCALE;
+        this.userRefillPerMilli = userRefillPerSecond * SCALE / 1000;
+        // 空闲超过补满所需时间后，桶与新建的桶等价，可以安全删除
+        this.idleMillis = (long) Math.ceil(this.userCapacity / userRefillPerMilli);
+        this.globalBucket = new Bucket(globalCapacity * SCALE, globalRefillPerSecond * SCALE / 1000, 0);
+    }
+
+    /**
+     * 尝试为一次登录消耗令牌。
+     * @param username 用户名
+     * @return 0表示允许；大于0表示被限流，为建议的等待毫秒数
+     */
+    public long tryAcquire(String username) {
+        long now = clock.millis() - epoch;
+        maybeSweep(now);
+
+        Bucket bucket = userBuckets.get(username);
+        if (bucket == null) {
+            Bucket created = new Bucket(userCapacity, userRefillPerMilli, now);
+            bucket = userBuckets.putIfAbsent(username, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            return wait;
+        }
+        wait = globalBucket.tryAcquire(now);
+        if (wait > 0) {
+            // 全局桶拒绝时把用户桶的令牌还回去，这次尝试不计入该用户
+            bucket.refund();
+            return wait;
+        }
+        return 0;
+    }
+
+    /**
+     * 当前跟踪的用户名数量。
+     */
+    public int trackedUsers() {
+        return userBuckets.size();
+    }
+
+    /**
+     * 每处理一定次数请求，由恰好触发的那个线程清理空闲桶，其他线程不等待。
+     */
+    private void maybeSweep(long now) {
+        if (requestCount.incrementAndGet() % SWEEP_INTERVAL != 0 || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sweepIdle(now);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * 删除空闲时间超过idleMillis的桶。
+     */
+    void sweepIdle(long now) {
+        Iterator<Map.Entry<String, Bucket>> it = userBuckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Bucket> entry = it.next();
+            if (now - entry.getValue().lastUpdate() >= idleMillis) {
+                userBuckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 立即按当前时间清理空闲桶。
+     */
+    public void sweepIdleNow() {
+        sweepIdle(clock.millis() - epoch);
+    }
+
+    /**
+     * 令牌桶，状态打包为：高位令牌数（千分之一个），低42位上次补充时间。
+     */
+    private static final class Bucket {
+        private final long capacity;
+        private final double refillPerMilli;
+        private final AtomicLong state;
+
+        Bucket(long capacity, double refillPerMilli, long now) {
+            this.capacity = capacity;
+            this.refillPerMilli = refillPerMilli;
+            this.state = new AtomicLong(pack(capacity, now));
+        }
+
+        /**
+         * @return 0表示取得一个令牌，否则为还需等待的毫秒数
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = state.get();
+                long tokens = tokens(current);
+                long last = time(current);
+                long elapsed = Math.max(0, now - last);
+                long refilled = Math.min(capacity, tokens + (long) (elapsed * refillPerMilli));
+                if (refilled < SCALE) {
+                    return Math.max(1, (long) Math.ceil((SCALE - refilled) / refillPerMilli));
+                }
+                // 补充后的令牌按整毫秒计入，未用满的小数部分通过不推进时间保留
+                long newTime = refilled == capacity ? Math.max(now, last) : last + (long) ((refilled - tokens) / refillPerMilli);
+                if (state.compareAndSet(current, pack(refilled - SCALE, newTime))) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * 退还一个令牌，不超过容量。
+         */
+        void refund() {
+            while (true) {
+                long current = state.get();
+                long tokens = Math.min(capacity, tokens(current) + SCALE);
+                if (state.compareAndSet(current, pack(tokens, time(current)))) {
+                    return;
+                }
+            }
+        }
+
+        long lastUpdate() {
+            return time(state.get());
+        }
+
+        private static long pack(long tokens, long time) {
+            return (tokens << TIME_BITS) | (time & TIME_MASK);
+        }
+
+        private static long tokens(long packed) {
+            return packed >>> TIME_BITS;
+        }
+
+        private static long time(long packed) {
+            return packed & TIME_MASK;
+        }
+    }
+}
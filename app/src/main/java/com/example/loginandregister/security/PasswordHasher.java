@@ -0,0 +1,31 @@
+package com.example.loginandregister.security;
+
+/**
+ * 密码哈希算法。
+ * 存储串自描述算法和参数，同一数据库中可以同时存在多种算法生成的哈希。
+ */
+public interface PasswordHasher {
+    /**
+     * 判断存储串是否由本算法生成。
+     */
+    boolean supports(String stored);
+
+    /**
+     * 计算密码的存储串。
+     * @param password 明文密码
+     * @return 包含算法、参数和摘要的存储串
+     */
+    String hash(String password);
+
+    /**
+     * 校验明文密码与存储串是否匹配。
+     * @param password 明文密码
+     * @param stored 数据库中的存储串，必须满足supports(stored)
+     */
+    boolean verify(String password, String stored);
+
+    /**
+     * 存储串是否需要用当前参数重新计算（算法过时或成本偏低）。
+     */
+    boolean needsRehash(String stored);
+}
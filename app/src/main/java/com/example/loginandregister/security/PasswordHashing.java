@@ -0,0 +1,231 @@
+package com.example.loginandregister.security;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.loginandregister.utils.MD5Utils;
+
+/**
+ * 密码哈希入口，按存储串自动选择算法。
+ * 新密码一律使用PBKDF2，迭代次数由calibrate按本机速度校准并持久化；
+ * 旧版MD5存储串仍可校验，校验通过后needsRehash返回true，由调用方改写为新格式。
+ */
+public class PasswordHashing {
+    private static final String TAG = "PasswordHashing";
+    // 校准结果保存的SharedPreferences文件名
+    private static final String PREFS_NAME = "password_hashing";
+    private static final String KEY_ITERATIONS = "pbkdf2_iterations";
+    // 未校准时使用的迭代次数
+    static final int DEFAULT_ITERATIONS = 100_000;
+    // 迭代次数下限，校准结果再小也不低于此值
+    static final int MIN_ITERATIONS = 50_000;
+    // 迭代次数上限，避免慢设备以外的异常测量导致登录过慢
+    static final int MAX_ITERATIONS = 1_000_000;
+    // 校准目标：单次校验耗时（毫秒）
+    public static final long TARGET_VERIFY_MILLIS = 200;
+    // 校准时每轮测量使用的迭代次数
+    private static final int PROBE_ITERATIONS = 20_000;
+    // 校准测量轮数，取最快的一轮，排除JIT预热和调度抖动
+    private static final int PROBE_ROUNDS = 3;
+
+    // 单例实例
+    private static volatile PasswordHashing instance;
+
+    private final SharedPreferences prefs;
+    private final LegacyMd5PasswordHasher legacyHasher = new LegacyMd5PasswordHasher();
+    // 当前用于生成新哈希的PBKDF2参数，第一次使用时读取校准结果，校准后整体替换
+    private volatile Pbkdf2PasswordHasher currentHasher;
+
+    private PasswordHashing(Context context) {
+        // 实例在主线程上随UserRepository创建，这里只打开文件，迭代次数在第一次哈希时（后台线程）读取
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * 当前PBKDF2参数，第一次调用时从存储读取。
+     */
+    private Pbkdf2PasswordHasher currentHasher() {
+        Pbkdf2PasswordHasher hasher = currentHasher;
+        if (hasher != null) {
+            return hasher;
+        }
+        synchronized (this) {
+            if (currentHasher == null) {
+                int iterations = prefs.getInt(KEY_ITERATIONS, DEFAULT_ITERATIONS);
+                currentHasher = new Pbkdf2PasswordHasher(iterations);
+                Log.d(TAG, "PasswordHashing: 当前PBKDF2迭代次数=" + iterations);
+            }
+            return currentHasher;
+        }
+    }
+
+    /**
+     * 获取单例实例
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return PasswordHashing实例
+     */
+    public static PasswordHashing getInstance(Context context) {
+        if (instance == null) {
+            synchronized (PasswordHashing.class) {
+                if (instance == null) {
+                    instance = new PasswordHashing(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 用当前参数计算新密码的存储串，耗时约为校准目标，不能在主线程调用。
+     */
+    @WorkerThread
+    public String hash(String password) {
+        return currentHasher().hash(password);
+    }
+
+    /**
+     * 校验明文密码，存储串格式无法识别时返回false。
+     */
+    @WorkerThread
+    public boolean verify(String password, String stored) {
+        PasswordHasher hasher = hasherFor(stored);
+        if (hasher == null) {
+            Log.w(TAG, "verify: 无法识别的密码存储格式");
+            return false;
+        }
+        return hasher.verify(password, stored);
+    }
+
+    /**
+     * 计算与存储串无关、可以在查库的同时完成的部分：旧版MD5及包装格式都需要的MD5十六进制串。
+     * PBKDF2需要存储串中的盐，只能在查到用户之后计算。
+     */
+    public Prehash prehash(String password) {
+        return new Prehash(password, MD5Utils.encrypt(password));
+    }
+
+    /**
+     * 用预计算结果校验，旧版MD5存储串无需再做任何哈希。
+     */
+    @WorkerThread
+    public boolean verify(Prehash prehash, String stored) {
+        PasswordHasher hasher = hasherFor(stored);
+        if (hasher == null) {
+            Log.w(TAG, "verify: 无法识别的密码存储格式");
+            return false;
+        }
+        if (hasher == legacyHasher) {
+            return legacyHasher.verifyMd5(prehash.md5Hex, stored);
+        }
+        Pbkdf2PasswordHasher pbkdf2 = (Pbkdf2PasswordHasher) hasher;
+        return pbkdf2.verifyInput(pbkdf2.isWrappedLegacy(stored) ? prehash.md5Hex : prehash.password, stored);
+    }
+
+    /**
+     * 用户不存在时调用：用当前迭代次数对固定的假存储串做一次完整校验，总是返回false。
+     * 这样“用户不存在”和“密码错误”的耗时相同，无法通过响应时间判断用户名是否已注册。
+     */
+    @WorkerThread
+    public boolean verifyAbsent(Prehash prehash) {
+        Pbkdf2PasswordHasher hasher = currentHasher();
+        hasher.verifyInput(prehash.password, hasher.dummyStored());
+        return false;
+    }
+
+    /**
+     * 存储串是否需要在下次拿到明文时改写（旧MD5、包装格式或迭代次数低于当前值）。
+     */
+    public boolean needsRehash(String stored) {
+        PasswordHasher hasher = hasherFor(stored);
+        return hasher == null || hasher.needsRehash(stored);
+    }
+
+    /**
+     * 是否为旧版MD5存储串。
+     */
+    public boolean isLegacy(String stored) {
+        return legacyHasher.supports(stored);
+    }
+
+    /**
+     * 把旧版MD5存储串包装为加盐慢哈希，用于后台迁移没有登录的用户。
+     */
+    @WorkerThread
+    public String wrapLegacy(String legacyStored) {
+        return currentHasher().wrapLegacy(legacyStored);
+    }
+
+    /**
+     * 当前生成新哈希使用的迭代次数。
+     */
+    public int getIterations() {
+        return currentHasher().getIterations();
+    }
+
+    /**
+     * 尚未校准过时执行一次校准。
+     */
+    @WorkerThread
+    public void calibrateIfNeeded() {
+        if (!prefs.contains(KEY_ITERATIONS)) {
+            calibrate(TARGET_VERIFY_MILLIS);
+        }
+    }
+
+    /**
+     * 测量本机PBKDF2速度，选出使单次校验耗时接近targetMillis的迭代次数并持久化。
+     * 已有的存储串不受影响，迭代次数低于新值的会在下次登录时改写。
+     * @param targetMillis 目标耗时（毫秒）
+     * @return 新的迭代次数
+     */
+    @WorkerThread
+    public int calibrate(long targetMillis) {
+        byte[] salt = new byte[16];
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            Pbkdf2PasswordHasher.derive("calibration", salt, PROBE_ITERATIONS, 256);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long target = targetMillis * 1_000_000L;
+        long scaled = PROBE_ITERATIONS * target / Math.max(1, best);
+        // 取整到千，便于在日志和存储串中辨认
+        int iterations = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, scaled / 1000 * 1000));
+        synchronized (this) {
+            prefs.edit().putInt(KEY_ITERATIONS, iterations).apply();
+            currentHasher = new Pbkdf2PasswordHasher(iterations);
+        }
+        Log.d(TAG, "calibrate: 校准完成，" + PROBE_ITERATIONS + "次迭代耗时=" + best / 1000 + "us, 新迭代次数=" + iterations);
+        return iterations;
+    }
+
+    /**
+     * 登录前的预计算结果。
+     */
+    public static final class Prehash {
+        final String password;
+        final String md5Hex;
+
+        Prehash(String password, String md5Hex) {
+            this.password = password;
+            this.md5Hex = md5Hex;
+        }
+    }
+
+    private PasswordHasher hasherFor(String stored) {
+        if (stored == null) {
+            return null;
+        }
+        Pbkdf2PasswordHasher pbkdf2 = currentHasher();
+        if (pbkdf2.supports(stored)) {
+            return pbkdf2;
+        }
+        if (legacyHasher.supports(stored)) {
+            return legacyHasher;
+        }
+        return null;
+    }
+}
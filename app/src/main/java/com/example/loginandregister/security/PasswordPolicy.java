@@ -0,0 +1,392 @@
+package com.example.loginandregister.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * 编译后的密码规则：长度、字符类别、连续重复和禁用子串。
+ * 所有规则在一次charAt遍历中完成，禁用子串编译为Aho-Corasick自动机（DFA），
+ * evaluate不分配任何对象，可以在每次按键时调用。实例不可变，线程安全。
+ */
+public final class PasswordPolicy {
+    // 违规标志位
+    public static final int TOO_SHORT = 1;
+    public static final int TOO_LONG = 1 << 1;
+    public static final int MISSING_LETTER = 1 << 2;
+    public static final int MISSING_DIGIT = 1 << 3;
+    public static final int MISSING_UPPER = 1 << 4;
+    public static final int MISSING_LOWER = 1 << 5;
+    public static final int MISSING_SYMBOL = 1 << 6;
+    public static final int TOO_MANY_REPEATS = 1 << 7;
+    public static final int BLACKLISTED = 1 << 8;
+
+    /**
+     * 兼容旧版本的规则：至少8位且包含字母和数字。登录时使用，避免已有账号因规则变严而无法登录。
+     */
+    public static final PasswordPolicy LEGACY = new Builder()
+            .minLength(8)
+            .requireLetter()
+            .requireDigit()
+            .build();
+
+    /**
+     * 注册时使用的规则。
+     */
+    public static final PasswordPolicy REGISTER = new Builder()
+            .minLength(8)
+            .maxLength(64)
+            .requireLetter()
+            .requireDigit()
+            .maxRepeat(3)
+            .blacklist("password", "passw0rd", "qwerty", "asdfgh", "zxcvbn", "123456", "654321",
+                    "abc123", "111111", "000000", "admin", "iloveyou", "letmein", "welcome", "monkey")
+            .build();
+
+    private final int minLength;
+    private final int maxLength;
+    private final boolean requireLetter;
+    private final boolean requireDigit;
+    private final boolean requireUpper;
+    private final boolean requireLower;
+    private final boolean requireSymbol;
+    // 允许的最长连续相同字符数，0表示不限制
+    private final int maxRepeat;
+    // 禁用子串自动机的字母表（已排序、小写），不在字母表中的字符转移到初始状态
+    private final char[] alphabet;
+    // DFA转移表：next[state * alphabet.length + 字符下标]
+    private final int[] next;
+    // 到达该状态即表示匹配到某个禁用子串
+    private final boolean[] accepting;
+
+    private PasswordPolicy(Builder builder, char[] alphabet, int[] next, boolean[] accepting) {
+        this.minLength = builder.minLength;
+        this.maxLength = builder.maxLength;
+        this.requireLetter = builder.requireLetter;
+        this.requireDigit = builder.requireDigit;
+        this.requireUpper = builder.requireUpper;
+        this.requireLower = builder.requireLower;
+        this.requireSymbol = builder.requireSymbol;
+        this.maxRepeat = builder.maxRepeat;
+        this.alphabet = alphabet;
+        this.next = next;
+        this.accepting = accepting;
+    }
+
+    /**
+     * 检查密码是否满足全部规则。
+     */
+    public boolean isValid(CharSequence password) {
+        return evaluate(password, null) == 0;
+    }
+
+    /**
+     * 一次遍历检查全部规则。
+     * @param password 密码
+     * @param out 可选，写入强度评分和统计；传null只返回违规标志
+     * @return 违规标志位的组合，0表示通过
+     */
+    public int evaluate(CharSequence password, Result out) {
+        int length = password == null ? 0 : password.length();
+        boolean hasLetter = false;
+        boolean hasDigit = false;
+        boolean hasUpper = false;
+        boolean hasLower = false;
+        boolean hasSymbol = false;
+        boolean blacklisted = false;
+        int longestRun = length == 0 ? 0 : 1;
+        int run = 0;
+        char previous = 0;
+        int state = 0;
+        int alphabetSize = alphabet.length;
+
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (Character.isLetter(c)) {
+                hasLetter = true;
+                if (Character.isUpperCase(c)) {
+                    hasUpper = true;
+                } else if (Character.isLowerCase(c)) {
+                    hasLower = true;
+                }
+            } else if (Character.isDigit(c)) {
+                hasDigit = true;
+            } else if (!Character.isWhitespace(c)) {
+                hasSymbol = true;
+            }
+
+            run = (i > 0 && c == previous) ? run + 1 : 1;
+            if (run > longestRun) {
+                longestRun = run;
+            }
+            previous = c;
+
+            if (alphabetSize > 0 && !blacklisted) {
+                int index = Arrays.binarySearch(alphabet, Character.toLowerCase(c));
+                state = index < 0 ? 0 : next[state * alphabetSize + index];
+                blacklisted = accepting[state];
+            }
+        }
+
+        int violations = 0;
+        if (length < minLength) violations |= TOO_SHORT;
+        if (maxLength > 0 && length > maxLength) violations |= TOO_LONG;
+        if (requireLetter && !hasLetter) violations |= MISSING_LETTER;
+        if (requireDigit && !hasDigit) violations |= MISSING_DIGIT;
+        if (requireUpper && !hasUpper) violations |= MISSING_UPPER;
+        if (requireLower && !hasLower) violations |= MISSING_LOWER;
+        if (requireSymbol && !hasSymbol) violations |= MISSING_SYMBOL;
+        if (maxRepeat > 0 && longestRun > maxRepeat) violations |= TOO_MANY_REPEATS;
+        if (blacklisted) violations |= BLACKLISTED;
+
+        if (out != null) {
+            int classes = (hasUpper ? 1 : 0) + (hasLower ? 1 : 0) + (hasDigit ? 1 : 0) + (hasSymbol ? 1 : 0)
+                    + (hasLetter && !hasUpper && !hasLower ? 1 : 0);
+            out.violations = violations;
+            out.length = length;
+            out.characterClasses = classes;
+            out.longestRun = longestRun;
+            out.score = score(length, classes, longestRun, violations);
+        }
+        return violations;
+    }
+
+    /**
+     * 违规标志对应的提示文字，多个违规时返回最先需要处理的一条。
+     * @return 提示文字，没有违规时返回null
+     */
+    public String describe(int violations) {
+        if ((violations & TOO_SHORT) != 0) return "密码至少" + minLength + "位";
+        if ((violations & TOO_LONG) != 0) return "密码不能超过" + maxLength + "位";
+        if ((violations & (MISSING_LETTER | MISSING_DIGIT)) != 0) return "密码必须包含数字和字母";
+        if ((violations & MISSING_UPPER) != 0) return "密码必须包含大写字母";
+        if ((violations & MISSING_LOWER) != 0) return "密码必须包含小写字母";
+        if ((violations & MISSING_SYMBOL) != 0) return "密码必须包含符号";
+        if ((violations & TOO_MANY_REPEATS) != 0) return "同一字符不能连续出现超过" + maxRepeat + "次";
+        if ((violations & BLACKLISTED) != 0) return "密码包含常见弱密码，请更换";
+        return null;
+    }
+
+    /**
+     * 0-100的强度评分：长度和字符类别加分，连续重复扣分，任何违规时不超过39（弱）。
+     */
+    private static int score(int length, int classes, int longestRun, int violations) {
+        if ((violations & BLACKLISTED) != 0) {
+            return 0;
+        }
+        int score = Math.min(length, 16) * 4 + Math.min(classes, 4) * 9;
+        if (longestRun > 2) {
+            score -= (longestRun - 2) * 8;
+        }
+        score = Math.max(0, Math.min(100, score));
+        return violations != 0 ? Math.min(score, Strength.FAIR.minScore - 1) : score;
+    }
+
+    /**
+     * 强度等级。
+     */
+    public enum Strength {
+        WEAK(0, "弱"),
+        FAIR(40, "中"),
+        STRONG(70, "强");
+
+        final int minScore;
+        private final String label;
+
+        Strength(int minScore, String label) {
+            this.minScore = minScore;
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        static Strength of(int score) {
+            if (score >= STRONG.minScore) return STRONG;
+            if (score >= FAIR.minScore) return FAIR;
+            return WEAK;
+        }
+    }
+
+    /**
+     * 可复用的评估结果，由调用方持有，避免每次按键都分配对象。非线程安全。
+     */
+    public static final class Result {
+        int violations;
+        int length;
+        int characterClasses;
+        int longestRun;
+        int score;
+
+        public int getViolations() {
+            return violations;
+        }
+
+        public boolean isValid() {
+            return violations == 0;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public Strength getStrength() {
+            return Strength.of(score);
+        }
+
+        public int getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * 规则构建器，build时编译禁用子串自动机。
+     */
+    public static final class Builder {
+        private int minLength;
+        private int maxLength;
+        private boolean requireLetter;
+        private boolean requireDigit;
+        private boolean requireUpper;
+        private boolean requireLower;
+        private boolean requireSymbol;
+        private int maxRepeat;
+        private final List<String> blacklist = new ArrayList<>();
+
+        public Builder minLength(int minLength) {
+            this.minLength = minLength;
+            return this;
+        }
+
+        /**
+         * @param maxLength 最大长度，0表示不限制
+         */
+        public Builder maxLength(int maxLength) {
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        public Builder requireLetter() {
+            this.requireLetter = true;
+            return this;
+        }
+
+        public Builder requireDigit() {
+            this.requireDigit = true;
+            return this;
+        }
+
+        public Builder requireUpper() {
+            this.requireUpper = true;
+            return this;
+        }
+
+        public Builder requireLower() {
+            this.requireLower = true;
+            return this;
+        }
+
+        public Builder requireSymbol() {
+            this.requireSymbol = true;
+            return this;
+        }
+
+        /**
+         * @param maxRepeat 允许的最长连续相同字符数，0表示不限制
+         */
+        public Builder maxRepeat(int maxRepeat) {
+            this.maxRepeat = maxRepeat;
+            return this;
+        }
+
+        /**
+         * 添加禁用子串，匹配时不区分大小写。
+         */
+        public Builder blacklist(String... words) {
+            for (String word : words) {
+                if (word != null && !word.isEmpty()) {
+                    blacklist.add(word.toLowerCase(Locale.ROOT));
+                }
+            }
+            return this;
+        }
+
+        public PasswordPolicy build() {
+            // 字母表：禁用子串中出现的所有字符
+            TreeSet<Character> chars = new TreeSet<>();
+            for (String word : blacklist) {
+                for (int i = 0; i < word.length(); i++) {
+                    chars.add(word.charAt(i));
+                }
+            }
+            char[] alphabet = new char[chars.size()];
+            int k = 0;
+            for (char c : chars) {
+                alphabet[k++] = c;
+            }
+            int size = alphabet.length;
+
+            // 先构建trie，-1表示没有边
+            List<int[]> trie = new ArrayList<>();
+            List<Boolean> terminal = new ArrayList<>();
+            trie.add(newRow(size));
+            terminal.add(false);
+            for (String word : blacklist) {
+                int state = 0;
+                for (int i = 0; i < word.length(); i++) {
+                    int c = Arrays.binarySearch(alphabet, word.charAt(i));
+                    if (trie.get(state)[c] < 0) {
+                        trie.get(state)[c] = trie.size();
+                        trie.add(newRow(size));
+                        terminal.add(false);
+                    }
+                    state = trie.get(state)[c];
+                }
+                terminal.set(state, true);
+            }
+
+            // BFS计算失败链接，同时把缺失的边补全为DFA转移
+            int states = trie.size();
+            int[] next = new int[states * size];
+            boolean[] accepting = new boolean[states];
+            int[] fail = new int[states];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c < size; c++) {
+                int child = trie.get(0)[c];
+                if (child < 0) {
+                    next[c] = 0;
+                } else {
+                    next[c] = child;
+                    fail[child] = 0;
+                    queue.add(child);
+                }
+            }
+            accepting[0] = terminal.get(0);
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                accepting[state] = terminal.get(state) || accepting[fail[state]];
+                for (int c = 0; c < size; c++) {
+                    int child = trie.get(state)[c];
+                    if (child < 0) {
+                        next[state * size + c] = next[fail[state] * size + c];
+                    } else {
+                        next[state * size + c] = child;
+                        fail[child] = next[fail[state] * size + c];
+                        queue.add(child);
+                    }
+                }
+            }
+            return new PasswordPolicy(this, alphabet, next, accepting);
+        }
+
+        private static int[] newRow(int size) {
+            int[] row = new int[size];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
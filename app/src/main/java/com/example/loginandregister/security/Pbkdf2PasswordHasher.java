@@ -0,0 +1,148 @@
+package com.example.loginandregister.security;
+
+import android.util.Base64;
+
+import com.example.loginandregister.utils.MD5Utils;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * 带盐的PBKDF2-HMAC-SHA256哈希。
+ * 存储格式：pbkdf2_sha256$迭代次数$盐(Base64)$摘要(Base64)。
+ *
+ * 另有一种包装格式pbkdf2_sha256_md5$...，输入是旧版MD5十六进制串而不是明文，
+ * 用于在没有明文的情况下把旧MD5数据升级为加盐的慢哈希，用户下次登录时再改写为标准格式。
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    static final String PREFIX = "pbkdf2_sha256$";
+    static final String WRAPPED_MD5_PREFIX = "pbkdf2_sha256_md5$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    private static final int BASE64_FLAGS = Base64.NO_WRAP | Base64.NO_PADDING;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    /**
+     * @param iterations 生成新哈希时使用的迭代次数
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public boolean supports(String stored) {
+        return stored != null && (stored.startsWith(PREFIX) || stored.startsWith(WRAPPED_MD5_PREFIX));
+    }
+
+    @Override
+    public String hash(String password) {
+        return encode(PREFIX, password);
+    }
+
+    /**
+     * 把旧版MD5十六进制串包装成加盐的慢哈希。
+     * @param legacyMd5Hex 数据库中已有的MD5十六进制串
+     */
+    public String wrapLegacy(String legacyMd5Hex) {
+        return encode(WRAPPED_MD5_PREFIX, legacyMd5Hex);
+    }
+
+    @Override
+    public boolean verify(String password, String stored) {
+        return verifyInput(isWrappedLegacy(stored) ? MD5Utils.encrypt(password) : password, stored);
+    }
+
+    /**
+     * 是否为包装格式，包装格式的KDF输入是密码的MD5十六进制串。
+     */
+    boolean isWrappedLegacy(String stored) {
+        return stored.startsWith(WRAPPED_MD5_PREFIX);
+    }
+
+    /**
+     * 用已确定的KDF输入校验存储串。
+     * @param input 标准格式传明文，包装格式传明文的MD5十六进制串
+     */
+    boolean verifyInput(String input, String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        int storedIterations;
+        byte[] salt;
+        byte[] expected;
+        try {
+            storedIterations = Integer.parseInt(parts[1]);
+            salt = Base64.decode(parts[2], BASE64_FLAGS);
+            expected = Base64.decode(parts[3], BASE64_FLAGS);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] actual = derive(input, salt, storedIterations, expected.length * 8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * 用当前迭代次数构造的固定存储串，盐和摘要全为0，任何输入都不会校验通过。
+     * 用于用户不存在时做一次与真实校验耗时相同的计算。
+     */
+    String dummyStored() {
+        String zeros = Base64.encodeToString(new byte[SALT_BYTES], BASE64_FLAGS);
+        return PREFIX + iterations + '$' + zeros + '$' + Base64.encodeToString(new byte[KEY_BITS / 8], BASE64_FLAGS);
+    }
+
+    @Override
+    public boolean needsRehash(String stored) {
+        if (!stored.startsWith(PREFIX)) {
+            // 包装格式在拿到明文后应改写为标准格式
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        if (end < 0) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private String encode(String prefix, String input) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] key = derive(input, salt, iterations, KEY_BITS);
+        return prefix + iterations
+                + '$' + Base64.encodeToString(salt, BASE64_FLAGS)
+                + '$' + Base64.encodeToString(key, BASE64_FLAGS);
+    }
+
+    /**
+     * 计算PBKDF2摘要。
+     */
+    static byte[] derive(String input, byte[] salt, int iterations, int keyBits) {
+        char[] chars = input.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, keyBits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 unavailable", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.loginandregister.security;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+import android.util.Log;
+
+import java.security.SecureRandom;
+
+/**
+ * 登录会话管理。登录成功后生成不透明的随机令牌并设置过期时间，持久化到SharedPreferences；
+ * 进程内只在第一次查询会话时读取一次，之后的有效性判断都基于内存中的副本，不再访问存储。
+ * 构造时只打开SharedPreferences，系统在后台线程加载文件；Application.onCreate中提前创建实例，
+ * 文件加载与启动的其余工作重叠，启动路由第一次查询时通常已经加载完成，不在主线程上等待磁盘。
+ */
+public class SessionManager {
+    private static final String TAG = "SessionManager";
+    // 会话保存的SharedPreferences文件名
+    private static final String PREFS_NAME = "session";
+    private static final String KEY_TOKEN = "token";
+    private static final String KEY_USERNAME = "username";
+    private static final String KEY_CREATED_AT = "created_at";
+    private static final String KEY_EXPIRES_AT = "expires_at";
+    // 会话有效期：7天（毫秒）
+    public static final long SESSION_TTL = 7L * 24 * 60 * 60 * 1000;
+    // 令牌随机字节数
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // 单例实例
+    private static volatile SessionManager instance;
+
+    private final SharedPreferences prefs;
+    // 内存中的当前会话，没有会话时为null；loaded为false时尚未从存储读取
+    private volatile Session current;
+    private volatile boolean loaded;
+
+    private SessionManager(Context context) {
+        // 只打开文件，不读取值，避免在主线程上等待磁盘
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * 获取单例实例，第一次调用时开始在后台加载会话文件，应在Application.onCreate中尽早调用。
+     * @param context 任意上下文，内部使用ApplicationContext
+     * @return SessionManager实例
+     */
+    public static SessionManager getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SessionManager.class) {
+                if (instance == null) {
+                    instance = new SessionManager(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 当前有效的会话，没有会话或已过期时返回null。
+     */
+    public Session getValidSession() {
+        ensureLoaded();
+        Session session = current;
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(System.currentTimeMillis())) {
+            Log.d(TAG, "getValidSession: 会话已过期，用户名=" + session.getUsername());
+            endSession();
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * 是否存在有效会话。
+     */
+    public boolean hasValidSession() {
+        return getValidSession() != null;
+    }
+
+    /**
+     * 登录成功后开始新会话，替换已有会话。
+     * @param username 登录的用户名
+     * @return 新会话
+     */
+    public Session startSession(String username) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.encodeToString(bytes, Base64.NO_WRAP | Base64.NO_PADDING | Base64.URL_SAFE);
+        long now = System.currentTimeMillis();
+        Session session = new Session(token, username, now, now + SESSION_TTL);
+        synchronized (this) {
+            current = session;
+            loaded = true;
+        }
+        prefs.edit()
+                .putString(KEY_TOKEN, token)
+                .putString(KEY_USERNAME, username)
+                .putLong(KEY_CREATED_AT, now)
+                .putLong(KEY_EXPIRES_AT, session.getExpiresAt())
+                .apply();
+        Log.d(TAG, "startSession: 会话已创建，用户名=" + username);
+        return session;
+    }
+
+    /**
+     * 结束当前会话（退出登录或过期）。
+     */
+    public void endSession() {
+        synchronized (this) {
+            current = null;
+            loaded = true;
+        }
+        prefs.edit()
+                .remove(KEY_TOKEN)
+                .remove(KEY_USERNAME)
+                .remove(KEY_CREATED_AT)
+                .remove(KEY_EXPIRES_AT)
+                .apply();
+        Log.d(TAG, "endSession: 会话已结束");
+    }
+
+    /**
+     * 第一次使用时读取存储中的会话；系统仍在加载文件时在这里等待。
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                current = load();
+                loaded = true;
+            }
+        }
+    }
+
+    private Session load() {
+        String token = prefs.getString(KEY_TOKEN, null);
+        String username = prefs.getString(KEY_USERNAME, null);
+        long expiresAt = prefs.getLong(KEY_EXPIRES_AT, 0);
+        if (token == null || username == null || expiresAt <= System.currentTimeMillis()) {
+            Log.d(TAG, "load: 没有有效会话");
+            return null;
+        }
+        Log.d(TAG, "load: 已加载会话，用户名=" + username);
+        return new Session(token, username, prefs.getLong(KEY_CREATED_AT, 0), expiresAt);
+    }
+
+    /**
+     * 不可变的会话信息。
+     */
+    public static final class Session {
+        private final String token;
+        private final String username;
+        private final long createdAt;
+        private final long expiresAt;
+
+        Session(String token, String username, long createdAt, long expiresAt) {
+            this.token = token;
+            this.username = username;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -8,8 +8,10 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import com.example.loginandregister.R;
+import com.example.loginandregister.utils.StartupTimer;
 import com.example.loginandregister.viewmodel.HomeViewModel;
 import com.example.loginandregister.model.Person;
+import com.example.loginandregister.ui.admin.UserListActivity;
 import com.example.loginandregister.ui.movie.MovieListActivity;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputLayout;
@@ -32,6 +34,8 @@ public class HomeActivity extends AppCompatActivity {
     private MaterialButton btnNote;
     // 环形进度条演示按钮
     private MaterialButton btnCircleProgress;
+    // 用户管理按钮
+    private MaterialButton btnUserList;
     // 主页面ViewModel（合并后的）
     private HomeViewModel homeViewModel;
 
@@ -45,6 +49,8 @@ public class HomeActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        // 窗口挂载后的第一个消息中记录，近似首帧时间
+        getWindow().getDecorView().post(() -> StartupTimer.mark("home_first_frame"));
 
         // 绑定布局控件
         tvUsername = findViewById(R.id.tvUsername);
@@ -53,6 +59,7 @@ public class HomeActivity extends AppCompatActivity {
         btnMovieList = findViewById(R.id.btnMovieList);
         btnNote = findViewById(R.id.btnNote);
         btnCircleProgress = findViewById(R.id.btnCircleProgress);
+        btnUserList = findViewById(R.id.btnUserList);
         tusName = findViewById(R.id.tusName);
         tusAge = findViewById(R.id.tusAge);
         // 初始化合并后的HomeViewModel
@@ -127,5 +134,11 @@ public class HomeActivity extends AppCompatActivity {
             Intent intent = new Intent(HomeActivity.this, CircleProgressDemoActivity.class);
             startActivity(intent);
         });
+
+        // 用户管理按钮点击事件
+        btnUserList.setOnClickListener(v -> {
+            Intent intent = new Intent(HomeActivity.this, UserListActivity.class);
+            startActivity(intent);
+        });
     }
 }
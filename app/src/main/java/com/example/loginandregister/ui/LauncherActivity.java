@@ -0,0 +1,29 @@
+package com.example.loginandregister.ui;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+
+import com.example.loginandregister.security.SessionManager;
+import com.example.loginandregister.utils.StartupTimer;
+
+/**
+ * 启动路由Activity，不加载任何布局。
+ * 根据内存中的会话直接跳转：会话有效时进入主页面，完全跳过登录页面的布局加载，否则进入登录页面。
+ */
+public class LauncherActivity extends Activity {
+    private static final String TAG = "LauncherActivity";
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        boolean loggedIn = SessionManager.getInstance(this).hasValidSession();
+        StartupTimer.mark("route");
+        Log.d(TAG, "onCreate: 会话有效=" + loggedIn);
+        Intent intent = new Intent(this, loggedIn ? HomeActivity.class : LoginActivity.class);
+        startActivity(intent);
+        // Theme.NoDisplay要求在onResume之前finish
+        finish();
+    }
+}
@@ -3,18 +3,19 @@ package com.example.loginandregister.ui;
 import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
-import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import com.example.loginandregister.R;
+import com.example.loginandregister.utils.StartupTimer;
+import com.example.loginandregister.adapter.UsernameSuggestionAdapter;
+import com.example.loginandregister.repository.UserRepository;
 import com.example.loginandregister.viewmodel.LoginViewModel;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.checkbox.MaterialCheckBox;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import java.util.ArrayList;
 
 /**
  * 登录页面Activity，负责用户登录界面的UI展示和交互。
@@ -36,6 +37,8 @@ public class LoginActivity extends AppCompatActivity {
     private MaterialCheckBox cbRemember;
     // 登录业务ViewModel
     private LoginViewModel loginViewModel;
+    // 用户名自动补全适配器
+    private UsernameSuggestionAdapter suggestionAdapter;
 
     /**
      * Activity生命周期-创建，初始化UI和ViewModel，设置事件监听。
@@ -44,6 +47,8 @@ public class LoginActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
+        // 窗口挂载后的第一个消息中记录，近似首帧时间
+        getWindow().getDecorView().post(() -> StartupTimer.mark("login_first_frame"));
 
         // 绑定布局控件
         tilUsername = findViewById(R.id.tilUsername);
@@ -68,12 +73,11 @@ public class LoginActivity extends AppCompatActivity {
                 finish();
             }
         });
-        loginViewModel.getRecentUsers().observe(this, users -> {
-            if (users != null) {
-                ArrayAdapter<String> adapter = new ArrayAdapter<>(this, android.R.layout.simple_dropdown_item_1line, users);
-                etUsername.setAdapter(adapter);
-            }
-        });
+        // 自动补全适配器只创建一次，最近用户变化时只更新其排序来源
+        suggestionAdapter = new UsernameSuggestionAdapter(this, UserRepository.getInstance(this));
+        etUsername.setThreshold(1);
+        etUsername.setAdapter(suggestionAdapter);
+        loginViewModel.getRecentUsers().observe(this, users -> suggestionAdapter.setRecentUsers(users));
         loginViewModel.getAutoFillPassword().observe(this, pwd -> {
             if (pwd != null) etPassword.setText(pwd);
         });
@@ -1,6 +1,8 @@
 package com.example.loginandregister.ui;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
@@ -57,6 +59,10 @@ public class RegisterActivity extends AppCompatActivity {
         // 观察ViewModel的LiveData，自动响应UI变化
         registerViewModel.getUsernameError().observe(this, error -> tilUsername.setError(error));
         registerViewModel.getPasswordError().observe(this, error -> tilPassword.setError(error));
+        // 密码强度显示在密码框的辅助文字中，清空输入时恢复默认提示
+        CharSequence passwordHelper = tilPassword.getHelperText();
+        registerViewModel.getPasswordStrength().observe(this, strength ->
+                tilPassword.setHelperText(strength == null ? passwordHelper : "密码强度：" + strength.getLabel()));
         registerViewModel.getConfirmPasswordError().observe(this, error -> tilConfirmPassword.setError(error));
         registerViewModel.getToastMessage().observe(this, msg -> {
             if (msg != null) Toast.makeText(this, msg, Toast.LENGTH_SHORT).show();
@@ -67,6 +73,38 @@ public class RegisterActivity extends AppCompatActivity {
             }
         });
 
+        // 用户名输入变化时实时检查是否已被注册
+        etUsername.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                registerViewModel.onUsernameChanged(s.toString().trim());
+            }
+        });
+
+        // 密码输入变化时实时评估强度
+        etPassword.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                registerViewModel.onPasswordChanged(s);
+            }
+        });
+
         // 注册按钮点击事件，调用ViewModel注册方法
         btnRegister.setOnClickListener(v -> {
             String username = etUsername.getText().toString().trim();
@@ -0,0 +1,104 @@
+package com.example.loginandregister.ui.admin;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.ProgressBar;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.loginandregister.R;
+import com.example.loginandregister.adapter.UserListAdapter;
+import com.example.loginandregister.repository.UserFileFormat;
+import com.example.loginandregister.viewmodel.admin.UserListViewModel;
+
+/**
+ * 用户管理Activity，滚动到接近底部时按keyset分页加载下一页，支持导出用户表。
+ */
+public class UserListActivity extends AppCompatActivity {
+    private static final String TAG = "UserListActivity";
+    // 距离底部还有多少项时开始预加载下一页
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private RecyclerView recyclerView;
+    private ProgressBar progressBar;
+    private UserListAdapter userListAdapter;
+    private UserListViewModel userListViewModel;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_user_list);
+
+        Log.d(TAG, "onCreate: 用户管理页面创建");
+
+        userListViewModel = new ViewModelProvider(this).get(UserListViewModel.class);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setTitle("用户管理");
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        recyclerView = findViewById(R.id.recyclerView);
+        progressBar = findViewById(R.id.progressBar);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        userListAdapter = new UserListAdapter();
+        recyclerView.setAdapter(userListAdapter);
+
+        // 接近底部时加载下一页
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (dy > 0 && lastVisible >= userListAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    userListViewModel.loadNextPage();
+                }
+            }
+        });
+
+        userListViewModel.getUsers().observe(this, users -> userListAdapter.submitUsers(users));
+        userListViewModel.getLoading().observe(this, isLoading ->
+                progressBar.setVisibility(isLoading != null && isLoading ? ProgressBar.VISIBLE : ProgressBar.GONE));
+        userListViewModel.getToastMessage().observe(this, message -> {
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+            }
+        });
+
+        // 首次进入加载第一页；屏幕旋转后沿用ViewModel中已加载的数据
+        userListViewModel.loadFirstPageIfNeeded();
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_user_list, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int itemId = item.getItemId();
+        if (itemId == android.R.id.home) {
+            finish();
+            return true;
+        } else if (itemId == R.id.action_export_csv) {
+            userListViewModel.exportUsers(UserFileFormat.CSV);
+            return true;
+        } else if (itemId == R.id.action_export_json) {
+            userListViewModel.exportUsers(UserFileFormat.JSON);
+            return true;
+        } else {
+            return super.onOptionsItemSelected(item);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -23,7 +22,6 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.loginandregister.R;
 import com.example.loginandregister.viewmodel.note.NoteViewModel;
-import com.example.loginandregister.utils.MarkdownUtils;
 import com.google.android.material.tabs.TabLayout;
 
 /**
@@ -124,7 +122,13 @@ public class NoteActivity extends AppCompatActivity {
             if (content != null) {
                 etNoteContent.setText(content);
                 etNoteContent.setSelection(content.length()); // 将光标移到末尾
-                updatePreview(content); // 更新预览
+            }
+        });
+
+        // 预览内容在后台渲染，输入停止后才刷新
+        noteViewModel.getPreview().observe(this, formattedText -> {
+            if (formattedText != null) {
+                tvPreviewContent.setText(formattedText);
             }
         });
         
@@ -174,8 +178,6 @@ public class NoteActivity extends AppCompatActivity {
                         editView.setVisibility(View.GONE);
                         previewView.setVisibility(View.VISIBLE);
                         isPreviewMode = true;
-                        // 更新预览内容
-                        updatePreview(etNoteContent.getText().toString());
                         break;
                 }
             }
@@ -200,36 +202,17 @@ public class NoteActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                // 实时更新预览（仅在预览模式下）
-                if (isPreviewMode) {
-                    updatePreview(s.toString());
-                }
+                // 不需要处理
             }
 
             @Override
             public void afterTextChanged(Editable s) {
-                // 不需要处理
+                // 交给ViewModel防抖后渲染预览，不在每次按键时转换Markdown
+                noteViewModel.onDraftChanged(s.toString());
             }
         });
     }
     
-    /**
-     * 更新预览内容
-     * @param markdown Markdown文本
-     */
-    private void updatePreview(String markdown) {
-        if (markdown == null) return;
-        
-        try {
-            // 使用MarkdownUtils转换为格式化文本
-            CharSequence formattedText = MarkdownUtils.markdownToFormattedText(markdown);
-            tvPreviewContent.setText(formattedText);
-        } catch (Exception e) {
-            Log.e(TAG, "updatePreview: 更新预览失败", e);
-            tvPreviewContent.setText(markdown);
-        }
-    }
-
     /**
      * 创建菜单选项
      */
@@ -0,0 +1,130 @@
+package com.example.loginandregister.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 字符串布隆过滤器，用于在不访问磁盘的情况下快速判断“一定不存在”。
+ * mightContain返回false时元素一定不存在，返回true时可能存在（有误判）。
+ * 位数组使用AtomicLongArray，支持多线程并发add和mightContain。
+ */
+public class BloomFilter {
+    // 位数组
+    private final AtomicLongArray bits;
+    // 位数组总位数
+    private final long bitCount;
+    // 哈希函数个数
+    private final int hashCount;
+    // 已插入元素个数（近似值，重复插入也会计数）
+    private final AtomicInteger insertions = new AtomicInteger();
+
+    /**
+     * 按预期元素个数和目标误判率创建过滤器。
+     * @param expectedInsertions 预期元素个数
+     * @param falsePositiveRate 目标误判率，取值(0, 1)
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            expectedInsertions = 1;
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        // m = -n * ln(p) / (ln2)^2, k = m / n * ln2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, (m + 63) / 64 * 64);
+        bitCount = m;
+        hashCount = Math.max(1, (int) Math.round((double) m / expectedInsertions * Math.log(2)));
+        bits = new AtomicLongArray((int) (m / 64));
+    }
+
+    /**
+     * 添加一个元素。
+     */
+    public void add(CharSequence value) {
+        long hash = hash64(value);
+        long h1 = (int) hash;
+        long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1 + i * h2));
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * 判断元素是否可能存在。
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = hash64(value);
+        long h1 = (int) hash;
+        long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            if (!getBit(index(h1 + i * h2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 根据当前插入量估算的理论误判率：(1 - e^(-kn/m))^k。
+     */
+    public double expectedFalsePositiveRate() {
+        double exponent = -(double) hashCount * insertions.get() / bitCount;
+        return Math.pow(1 - Math.exp(exponent), hashCount);
+    }
+
+    /**
+     * 已插入元素个数。
+     */
+    public int getInsertions() {
+        return insertions.get();
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private long index(long combinedHash) {
+        // 取非负值后对位数取模
+        return (combinedHash & Long.MAX_VALUE) % bitCount;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long old;
+        do {
+            old = bits.get(word);
+            if ((old & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, old, old | mask));
+    }
+
+    private boolean getBit(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    /**
+     * 直接按char计算64位哈希（FNV-1a后接murmur3的fmix64），不需要先转成byte[]。
+     */
+    private static long hash64(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
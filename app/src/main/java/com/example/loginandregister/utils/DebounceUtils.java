@@ -4,118 +4,266 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
-import java.util.HashMap;
-import java.util.Map;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 防抖工具类，用于防止用户快速重复点击按钮。
- * 支持多个按钮的独立防抖控制。
+ * 每个按钮用一个小整数id标识，状态是保存在AtomicLongArray中的单调时钟截止时间，
+ * 到期不需要再投递Runnable恢复状态，任意线程都可以检查和清除，不加锁；canClick不分配对象。
+ * 支持三种模式：LEADING（窗口内的点击被忽略并顺延窗口）、THROTTLE（每个窗口最多放行一次）、
+ * 以及trailing（连续点击停止一段时间后执行一次），并可以绑定到生命周期，销毁时自动清除。
+ * 时间来自可替换的Clock，测试中可以手动推进，不需要真实等待。
  */
 public class DebounceUtils {
     private static final String TAG = "DebounceUtils";
     // 默认防抖延迟时间（毫秒）
     private static final long DEFAULT_DEBOUNCE_DELAY = 3000;
-    
-    // Handler用于延迟执行
-    private static final Handler handler = new Handler(Looper.getMainLooper());
-    
-    // 存储每个按钮的防抖状态
-    private static final Map<String, Boolean> debounceMap = new HashMap<>();
-    
-    // 存储每个按钮的Runnable，用于正确清除
-    private static final Map<String, Runnable> runnableMap = new HashMap<>();
-    
+    // 支持的id范围为[0, MAX_IDS)
+    public static final int MAX_IDS = 64;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
     /**
-     * 检查按钮是否可以点击（防抖检查）
-     * @param buttonId 按钮唯一标识
-     * @return true表示可以点击，false表示正在防抖中
+     * 防抖模式。
      */
-    public static boolean canClick(String buttonId) {
-        boolean canClick = !debounceMap.getOrDefault(buttonId, false);
-        Log.d(TAG, "canClick: 按钮ID=" + buttonId + ", 可以点击=" + canClick);
-        return canClick;
+    public enum Mode {
+        // 第一次放行，窗口内的后续点击被忽略，并且每次忽略都把窗口顺延
+        LEADING,
+        // 第一次放行，窗口内的后续点击被忽略，窗口不顺延
+        THROTTLE
     }
-    
+
     /**
-     * 设置按钮防抖状态
-     * @param buttonId 按钮唯一标识
-     * @param delay 防抖延迟时间（毫秒）
-     * @param callback 防抖结束后执行的回调
+     * 单调时钟。
      */
-    public static void setDebounce(String buttonId, long delay, Runnable callback) {
-        Log.d(TAG, "setDebounce: 设置防抖，按钮ID=" + buttonId + ", 延迟=" + delay + "ms");
-        // 如果已经在防抖中，直接返回
-        if (isDebouncing(buttonId)) {
-            Log.w(TAG, "setDebounce: 按钮已在防抖中，忽略重复设置，按钮ID=" + buttonId);
-            return;
+    public interface Clock {
+        /**
+         * 单调递增的纳秒数。
+         */
+        long nanos();
+    }
+
+    private static final Clock SYSTEM_CLOCK = System::nanoTime;
+    private static volatile Clock clock = SYSTEM_CLOCK;
+    // 时间原点，保证now()始终大于0，0表示没有防抖
+    private static volatile long origin = SYSTEM_CLOCK.nanos();
+    // 每个id的截止时间（相对ORIGIN的纳秒），0表示可以点击
+    private static final AtomicLongArray deadlines = new AtomicLongArray(MAX_IDS);
+    // trailing模式：每个id最后一次点击后的执行时间、待执行的操作和是否已投递检查
+    private static final AtomicLongArray trailingDeadlines = new AtomicLongArray(MAX_IDS);
+    private static final AtomicReferenceArray<Runnable> trailingActions = new AtomicReferenceArray<>(MAX_IDS);
+    private static final AtomicIntegerArray trailingScheduled = new AtomicIntegerArray(MAX_IDS);
+    // 每个id一个检查任务，按需创建后复用
+    private static final AtomicReferenceArray<TrailingCheck> trailingChecks = new AtomicReferenceArray<>(MAX_IDS);
+    private static volatile Handler handler;
+
+    private static long now() {
+        return clock.nanos() - origin + 1;
+    }
+
+    /**
+     * 替换时钟并清除所有状态，已有的截止时间属于旧时钟，不能继续比较。
+     * @param newClock 新时钟，传null恢复系统时钟
+     */
+    @VisibleForTesting
+    static void setClock(Clock newClock) {
+        Clock c = newClock == null ? SYSTEM_CLOCK : newClock;
+        origin = c.nanos();
+        clock = c;
+        clearAllDebounce();
+    }
+
+    private static void checkId(int id) {
+        if (id < 0 || id >= MAX_IDS) {
+            throw new IllegalArgumentException("debounce id out of range: " + id);
         }
-        
-        // 设置防抖状态为true
-        debounceMap.put(buttonId, true);
-        Log.d(TAG, "setDebounce: 防抖状态已设置为true，按钮ID=" + buttonId);
-        
-        // 创建Runnable用于延迟执行
-        Runnable runnable = new Runnable() {
-            @Override
-            public void run() {
-                Log.d(TAG, "setDebounce: 防抖结束，恢复可点击状态，按钮ID=" + buttonId);
-                debounceMap.put(buttonId, false);
-                runnableMap.remove(buttonId);
-                if (callback != null) {
-                    callback.run();
+    }
+
+    /**
+     * 检查按钮是否可以点击，只读取截止时间，不修改状态。
+     * @param id 按钮id
+     * @return true表示可以点击，false表示正在防抖中
+     */
+    public static boolean canClick(int id) {
+        checkId(id);
+        long deadline = deadlines.get(id);
+        return deadline == 0 || now() - deadline >= 0;
+    }
+
+    /**
+     * 检查并占用：可以点击时原子地开始新的防抖窗口并返回true，多个线程同时调用只有一个成功。
+     * @param id 按钮id
+     * @param windowMillis 防抖窗口（毫秒）
+     * @param mode 防抖模式
+     * @return true表示本次点击被放行
+     */
+    public static boolean tryClick(int id, long windowMillis, Mode mode) {
+        checkId(id);
+        long window = windowMillis * NANOS_PER_MILLI;
+        while (true) {
+            long now = now();
+            long deadline = deadlines.get(id);
+            if (deadline != 0 && now - deadline < 0) {
+                if (mode == Mode.LEADING && now + window - deadline > 0) {
+                    // 失败也没关系，说明其他线程刚刚更新过
+                    deadlines.compareAndSet(id, deadline, now + window);
                 }
+                return false;
             }
-        };
-        
-        // 保存Runnable引用
-        runnableMap.put(buttonId, runnable);
-        
-        // 延迟后恢复可点击状态
-        handler.postDelayed(runnable, delay);
-    }
-    
+            if (deadlines.compareAndSet(id, deadline, now + window)) {
+                return true;
+            }
+        }
+    }
+
     /**
-     * 使用默认延迟时间设置防抖
-     * @param buttonId 按钮唯一标识
-     * @param callback 防抖结束后执行的回调
+     * 使用默认窗口的THROTTLE模式检查并占用。
      */
-    public static void setDebounce(String buttonId, Runnable callback) {
-        setDebounce(buttonId, DEFAULT_DEBOUNCE_DELAY, callback);
+    public static boolean tryClick(int id) {
+        return tryClick(id, DEFAULT_DEBOUNCE_DELAY, Mode.THROTTLE);
     }
-    
+
     /**
-     * 清除指定按钮的防抖状态
-     * @param buttonId 按钮唯一标识
+     * 设置按钮防抖状态，已经在防抖中时忽略。
+     * @param id 按钮id
+     * @param delay 防抖延迟时间（毫秒）
      */
-    public static void clearDebounce(String buttonId) {
-        Log.d(TAG, "clearDebounce: 清除防抖状态，按钮ID=" + buttonId);
-        debounceMap.remove(buttonId);
-        Runnable runnable = runnableMap.remove(buttonId);
-        if (runnable != null) {
-            handler.removeCallbacks(runnable);
-        }
+    public static void setDebounce(int id, long delay) {
+        tryClick(id, delay, Mode.THROTTLE);
+    }
+
+    /**
+     * 使用默认延迟时间设置防抖。
+     * @param id 按钮id
+     */
+    public static void setDebounce(int id) {
+        setDebounce(id, DEFAULT_DEBOUNCE_DELAY);
+    }
+
+    /**
+     * 清除指定按钮的防抖状态和尚未执行的trailing操作，可以在任意线程调用。
+     * @param id 按钮id
+     */
+    public static void clearDebounce(int id) {
+        checkId(id);
+        deadlines.set(id, 0);
+        trailingActions.set(id, null);
     }
-    
+
     /**
-     * 清除所有防抖状态
+     * 清除所有防抖状态。
      */
     public static void clearAllDebounce() {
         Log.d(TAG, "clearAllDebounce: 清除所有防抖状态");
-        debounceMap.clear();
-        for (Runnable runnable : runnableMap.values()) {
-            handler.removeCallbacks(runnable);
+        for (int i = 0; i < MAX_IDS; i++) {
+            clearDebounce(i);
         }
-        runnableMap.clear();
     }
-    
+
     /**
-     * 获取按钮的防抖状态
-     * @param buttonId 按钮唯一标识
+     * 获取按钮的防抖状态。
+     * @param id 按钮id
      * @return true表示正在防抖中，false表示可以点击
      */
-    public static boolean isDebouncing(String buttonId) {
-        boolean isDebouncing = debounceMap.getOrDefault(buttonId, false);
-        Log.d(TAG, "isDebouncing: 按钮ID=" + buttonId + ", 正在防抖中=" + isDebouncing);
-        return isDebouncing;
+    public static boolean isDebouncing(int id) {
+        return !canClick(id);
+    }
+
+    /**
+     * trailing模式：每次调用都把执行时间推迟到windowMillis之后，连续调用停止后在主线程执行最后一次提交的操作。
+     * 一段连续调用只投递一次检查任务，到期时如果又被推迟则按剩余时间重新投递。
+     * @param id 按钮id
+     * @param windowMillis 安静时间（毫秒）
+     * @param action 要执行的操作
+     */
+    public static void trailing(int id, long windowMillis, Runnable action) {
+        checkId(id);
+        trailingActions.set(id, action);
+        trailingDeadlines.set(id, now() + windowMillis * NANOS_PER_MILLI);
+        if (trailingScheduled.compareAndSet(id, 0, 1)) {
+            mainHandler().postDelayed(trailingCheck(id), windowMillis);
+        }
+    }
+
+    /**
+     * 把一组id绑定到生命周期，ON_DESTROY时清除这些id的状态和待执行的trailing操作。
+     * @param owner 生命周期所有者
+     * @param ids 按钮id
+     */
+    public static void bind(LifecycleOwner owner, int... ids) {
+        for (int id : ids) {
+            checkId(id);
+        }
+        int[] bound = ids.clone();
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                for (int id : bound) {
+                    clearDebounce(id);
+                }
+                source.getLifecycle().removeObserver(this);
+            }
+        });
+    }
+
+    private static Handler mainHandler() {
+        Handler h = handler;
+        if (h == null) {
+            synchronized (DebounceUtils.class) {
+                if (handler == null) {
+                    handler = new Handler(Looper.getMainLooper());
+                }
+                h = handler;
+            }
+        }
+        return h;
+    }
+
+    private static TrailingCheck trailingCheck(int id) {
+        TrailingCheck check = trailingChecks.get(id);
+        if (check == null) {
+            trailingChecks.compareAndSet(id, null, new TrailingCheck(id));
+            check = trailingChecks.get(id);
+        }
+        return check;
+    }
+
+    /**
+     * 在主线程检查trailing是否到期，到期执行，未到期按剩余时间重新投递。
+     */
+    private static final class TrailingCheck implements Runnable {
+        private final int id;
+
+        TrailingCheck(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            long remaining = trailingDeadlines.get(id) - now();
+            if (remaining > 0) {
+                mainHandler().postDelayed(this, (remaining + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+                return;
+            }
+            trailingScheduled.set(id, 0);
+            // 清除标记前又有新的调用推迟了执行时间，由本任务重新投递
+            remaining = trailingDeadlines.get(id) - now();
+            if (remaining > 0) {
+                if (trailingScheduled.compareAndSet(id, 0, 1)) {
+                    mainHandler().postDelayed(this, (remaining + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+                }
+                return;
+            }
+            Runnable action = trailingActions.getAndSet(id, null);
+            if (action != null) {
+                action.run();
+            }
+        }
     }
 }
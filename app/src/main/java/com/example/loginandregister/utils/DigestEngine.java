@@ -0,0 +1,261 @@
+package com.example.loginandregister.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 摘要计算工具，替代每次调用都新建MessageDigest和格式化字符串的写法。
+ * 每个线程复用自己的MessageDigest、UTF-8编码缓冲区和十六进制字符缓冲区，
+ * 对短字符串计算摘要时只分配最终返回的String。
+ */
+public final class DigestEngine {
+    // 十六进制查表
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // UTF-8编码缓冲区大小，超出时分段提交给MessageDigest
+    private static final int ENCODE_BUFFER_SIZE = 512;
+
+    /**
+     * 支持的摘要算法。
+     */
+    public enum Algorithm {
+        MD5("MD5", 16),
+        SHA1("SHA-1", 20),
+        SHA256("SHA-256", 32);
+
+        final String jcaName;
+        final int length;
+
+        Algorithm(String jcaName, int length) {
+            this.jcaName = jcaName;
+            this.length = length;
+        }
+
+        /**
+         * 摘要字节数。
+         */
+        public int length() {
+            return length;
+        }
+    }
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private DigestEngine() {
+    }
+
+    /**
+     * 计算字符串UTF-8编码的MD5，返回32位小写十六进制。
+     */
+    public static String md5Hex(CharSequence input) {
+        return hex(Algorithm.MD5, input);
+    }
+
+    /**
+     * 计算字符串UTF-8编码的SHA-1，返回40位小写十六进制。
+     */
+    public static String sha1Hex(CharSequence input) {
+        return hex(Algorithm.SHA1, input);
+    }
+
+    /**
+     * 计算字符串UTF-8编码的摘要，返回小写十六进制。
+     */
+    public static String hex(Algorithm algorithm, CharSequence input) {
+        State state = STATE.get();
+        MessageDigest md = state.digest(algorithm);
+        updateUtf8(md, state.encodeBuffer, input);
+        int len = state.finish(md, algorithm);
+        return state.toHex(len);
+    }
+
+    /**
+     * 计算字符串UTF-8编码的摘要，写入out。
+     * @param out 输出数组，长度至少为algorithm.length()
+     */
+    public static void digest(Algorithm algorithm, CharSequence input, byte[] out) {
+        State state = STATE.get();
+        MessageDigest md = state.digest(algorithm);
+        updateUtf8(md, state.encodeBuffer, input);
+        try {
+            md.digest(out, 0, algorithm.length);
+        } catch (DigestException e) {
+            throw new IllegalArgumentException("output buffer too small", e);
+        }
+    }
+
+    /**
+     * 把字节数组的一段编码为小写十六进制。
+     */
+    public static String toHex(byte[] bytes, int offset, int length) {
+        char[] chars = new char[length * 2];
+        encodeHex(bytes, offset, length, chars);
+        return new String(chars);
+    }
+
+    /**
+     * 创建流式摘要，用于分段输入或大文件。
+     * 返回的对象持有独立的MessageDigest，不与线程缓存共享，可以跨线程传递（但不能并发使用）。
+     */
+    public static Streaming newStreaming(Algorithm algorithm) {
+        return new Streaming(algorithm);
+    }
+
+    /**
+     * 流式摘要，多次update后调用hex或digest得到结果，之后可以继续复用。
+     */
+    public static final class Streaming {
+        private final Algorithm algorithm;
+        private final MessageDigest md;
+        private final byte[] buffer = new byte[ENCODE_BUFFER_SIZE];
+
+        private Streaming(Algorithm algorithm) {
+            this.algorithm = algorithm;
+            this.md = newDigest(algorithm);
+        }
+
+        public Streaming update(byte[] bytes, int offset, int length) {
+            md.update(bytes, offset, length);
+            return this;
+        }
+
+        public Streaming update(byte[] bytes) {
+            md.update(bytes);
+            return this;
+        }
+
+        /**
+         * 追加字符串的UTF-8编码，不分配中间byte[]。
+         */
+        public Streaming update(CharSequence chars) {
+            updateUtf8(md, buffer, chars);
+            return this;
+        }
+
+        /**
+         * 读完输入流并追加全部内容，不关闭输入流。
+         */
+        public Streaming update(InputStream in) throws IOException {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                md.update(buffer, 0, n);
+            }
+            return this;
+        }
+
+        /**
+         * 结束本次计算，结果写入out，并重置为初始状态。
+         */
+        public void digest(byte[] out) {
+            try {
+                md.digest(out, 0, algorithm.length);
+            } catch (DigestException e) {
+                throw new IllegalArgumentException("output buffer too small", e);
+            }
+        }
+
+        /**
+         * 结束本次计算，返回小写十六进制，并重置为初始状态。
+         */
+        public String hex() {
+            byte[] out = new byte[algorithm.length];
+            digest(out);
+            return toHex(out, 0, out.length);
+        }
+    }
+
+    /**
+     * 把字符逐个编码为UTF-8写入缓冲区，缓冲区满时提交给MessageDigest。
+     * 与String.getBytes(UTF_8)结果一致，孤立的代理字符编码为'?'。
+     */
+    private static void updateUtf8(MessageDigest md, byte[] buf, CharSequence s) {
+        int pos = 0;
+        int limit = buf.length - 4;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (pos > limit) {
+                md.update(buf, 0, pos);
+                pos = 0;
+            }
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xc0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                int cp = -1;
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    cp = Character.toCodePoint(c, s.charAt(++i));
+                }
+                if (cp < 0) {
+                    buf[pos++] = '?';
+                } else {
+                    buf[pos++] = (byte) (0xf0 | (cp >> 18));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+                }
+            } else {
+                buf[pos++] = (byte) (0xe0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        if (pos > 0) {
+            md.update(buf, 0, pos);
+        }
+    }
+
+    private static void encodeHex(byte[] bytes, int offset, int length, char[] out) {
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i] & 0xff;
+            out[i * 2] = HEX[b >>> 4];
+            out[i * 2 + 1] = HEX[b & 0x0f];
+        }
+    }
+
+    private static MessageDigest newDigest(Algorithm algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm.jcaName);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm.jcaName + " unavailable", e);
+        }
+    }
+
+    /**
+     * 每个线程独享的摘要对象和缓冲区。
+     */
+    private static final class State {
+        final MessageDigest[] digests = new MessageDigest[Algorithm.values().length];
+        final byte[] encodeBuffer = new byte[ENCODE_BUFFER_SIZE];
+        final byte[] digestBuffer = new byte[32];
+        final char[] hexBuffer = new char[64];
+
+        MessageDigest digest(Algorithm algorithm) {
+            MessageDigest md = digests[algorithm.ordinal()];
+            if (md == null) {
+                md = newDigest(algorithm);
+                digests[algorithm.ordinal()] = md;
+            } else {
+                // 上次计算中途抛异常时可能残留输入
+                md.reset();
+            }
+            return md;
+        }
+
+        int finish(MessageDigest md, Algorithm algorithm) {
+            try {
+                return md.digest(digestBuffer, 0, algorithm.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        String toHex(int length) {
+            encodeHex(digestBuffer, 0, length, hexBuffer);
+            return new String(hexBuffer, 0, length * 2);
+        }
+    }
+}
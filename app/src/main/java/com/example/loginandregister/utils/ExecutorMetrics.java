@@ -0,0 +1,274 @@
+package com.example.loginandregister.utils;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 线程池运行指标：每个线程池一份，按名称注册在进程内。
+ * 每种任务（按提交时的名称区分）记录两个延迟直方图：排队时间（提交到开始）和执行时间（开始到结束），
+ * 另外记录被拒绝次数、正在执行的任务数、排队任务数以及它们的峰值。
+ * 数据由InstrumentedThreadPoolExecutor写入，可以随时取快照输出到logcat或文件。
+ */
+public final class ExecutorMetrics {
+    private static final String TAG = "ExecutorMetrics";
+    // 按线程池名称注册的指标
+    private static final ConcurrentMap<String, ExecutorMetrics> registry = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final ConcurrentMap<String, TaskMetrics> tasks = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+
+    private ExecutorMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 获取指定线程池的指标，不存在时创建。同名线程池重建后继续累计。
+     * @param name 线程池名称
+     */
+    public static ExecutorMetrics forExecutor(String name) {
+        ExecutorMetrics metrics = registry.get(name);
+        if (metrics == null) {
+            metrics = registry.computeIfAbsent(name, ExecutorMetrics::new);
+        }
+        return metrics;
+    }
+
+    /**
+     * 所有线程池的快照，按名称排序。
+     */
+    public static List<Snapshot> snapshotAll() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (ExecutorMetrics metrics : new TreeMap<>(registry).values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 把所有线程池的快照逐行写入logcat（TAG“ExecutorMetrics”）。
+     */
+    public static void logSnapshot() {
+        for (Snapshot snapshot : snapshotAll()) {
+            for (String line : snapshot.format()) {
+                Log.i(TAG, line);
+            }
+        }
+    }
+
+    /**
+     * 把所有线程池的快照写入文件，覆盖原有内容。
+     * @param file 目标文件
+     * @throws IOException 写入失败
+     */
+    public static void writeSnapshot(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            for (Snapshot snapshot : snapshotAll()) {
+                for (String line : snapshot.format()) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        }
+        Log.d(TAG, "writeSnapshot: 已写入" + file.getAbsolutePath());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取某种任务的指标，不存在时创建。
+     * @param tag 任务名称
+     */
+    TaskMetrics task(String tag) {
+        TaskMetrics metrics = tasks.get(tag);
+        if (metrics == null) {
+            metrics = tasks.computeIfAbsent(tag, t -> new TaskMetrics());
+        }
+        return metrics;
+    }
+
+    void onQueued() {
+        updatePeak(peakQueued, queued.incrementAndGet());
+    }
+
+    /**
+     * 任务离开队列：开始执行或提交失败。
+     */
+    void onDequeued() {
+        queued.decrementAndGet();
+    }
+
+    void onStarted() {
+        updatePeak(peakActive, active.incrementAndGet());
+    }
+
+    void onFinished() {
+        active.decrementAndGet();
+    }
+
+    void onRejected() {
+        rejected.incrementAndGet();
+    }
+
+    private static void updatePeak(AtomicInteger peak, int value) {
+        int current = peak.get();
+        while (value > current && !peak.compareAndSet(current, value)) {
+            current = peak.get();
+        }
+    }
+
+    /**
+     * 当前指标的快照。
+     */
+    public Snapshot snapshot() {
+        Map<String, TaskSnapshot> taskSnapshots = new TreeMap<>();
+        for (Map.Entry<String, TaskMetrics> entry : tasks.entrySet()) {
+            TaskMetrics metrics = entry.getValue();
+            taskSnapshots.put(entry.getKey(),
+                    new TaskSnapshot(entry.getKey(), metrics.queueWait.snapshot(), metrics.runTime.snapshot()));
+        }
+        return new Snapshot(name, active.get(), peakActive.get(), queued.get(), peakQueued.get(), rejected.get(),
+                Collections.unmodifiableMap(taskSnapshots));
+    }
+
+    /**
+     * 一种任务的排队时间和执行时间直方图。
+     */
+    static final class TaskMetrics {
+        final LatencyHistogram queueWait = new LatencyHistogram();
+        final LatencyHistogram runTime = new LatencyHistogram();
+    }
+
+    /**
+     * 一个线程池的指标快照。
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final int active;
+        private final int peakActive;
+        private final int queued;
+        private final int peakQueued;
+        private final long rejected;
+        private final Map<String, TaskSnapshot> tasks;
+
+        Snapshot(String name, int active, int peakActive, int queued, int peakQueued, long rejected,
+                 Map<String, TaskSnapshot> tasks) {
+            this.name = name;
+            this.active = active;
+            this.peakActive = peakActive;
+            this.queued = queued;
+            this.peakQueued = peakQueued;
+            this.rejected = rejected;
+            this.tasks = tasks;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getPeakActive() {
+            return peakActive;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public int getPeakQueued() {
+            return peakQueued;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * 按任务名称排序的任务快照。
+         */
+        public Map<String, TaskSnapshot> getTasks() {
+            return tasks;
+        }
+
+        /**
+         * 格式化为若干行文本：第一行是线程池计数，之后每种任务一行。
+         */
+        public List<String> format() {
+            List<String> lines = new ArrayList<>(tasks.size() + 1);
+            lines.add(String.format(Locale.US, "%s active=%d peakActive=%d queued=%d peakQueued=%d rejected=%d",
+                    name, active, peakActive, queued, peakQueued, rejected));
+            for (TaskSnapshot task : tasks.values()) {
+                lines.add(String.format(Locale.US, "  %s n=%d wait[%s] run[%s]", task.getTag(),
+                        task.getRunTime().getCount(), formatHistogram(task.getQueueWait()),
+                        formatHistogram(task.getRunTime())));
+            }
+            return lines;
+        }
+
+        private static String formatHistogram(LatencyHistogram.Snapshot histogram) {
+            return String.format(Locale.US, "p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxMicros() / 1000.0);
+        }
+    }
+
+    /**
+     * 一种任务的直方图快照。
+     */
+    public static final class TaskSnapshot {
+        private final String tag;
+        private final LatencyHistogram.Snapshot queueWait;
+        private final LatencyHistogram.Snapshot runTime;
+
+        TaskSnapshot(String tag, LatencyHistogram.Snapshot queueWait, LatencyHistogram.Snapshot runTime) {
+            this.tag = tag;
+            this.queueWait = queueWait;
+            this.runTime = runTime;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * 提交到开始执行的时间。
+         */
+        public LatencyHistogram.Snapshot getQueueWait() {
+            return queueWait;
+        }
+
+        /**
+         * 开始执行到结束的时间。
+         */
+        public LatencyHistogram.Snapshot getRunTime() {
+            return runTime;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.loginandregister.utils;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带运行指标的ThreadPoolExecutor：每个任务提交时包一层计时，
+ * 开始执行时记录排队时间，结束时记录执行时间，按提交时给的任务名称归类到ExecutorMetrics。
+ * 每个任务只多分配一个包装对象。
+ * 一个任务只会出现两种结局之一：被执行、被拒绝（提交抛出异常），排队计数各减一次。
+ * 直接调用execute(Runnable)（例如Room内部提交）的任务归入DEFAULT_TAG。
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+    // 没有指定名称的任务
+    public static final String DEFAULT_TAG = "untagged";
+
+    private final ExecutorMetrics metrics;
+
+    public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+                                          TimeUnit unit, BlockingQueue<Runnable> workQueue,
+                                          ThreadFactory threadFactory) {
+        this(name, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, new AbortPolicy());
+    }
+
+    public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+                                          TimeUnit unit, BlockingQueue<Runnable> workQueue,
+                                          ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory,
+                new CountingRejectionHandler(ExecutorMetrics.forExecutor(name), handler));
+        this.metrics = ExecutorMetrics.forExecutor(name);
+    }
+
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(DEFAULT_TAG, command);
+    }
+
+    /**
+     * 按任务名称提交任务。
+     * @param tag 任务名称，用于归类指标，应取自固定的几个常量
+     * @param command 要执行的任务
+     */
+    public void execute(String tag, Runnable command) {
+        TimedTask task = new TimedTask(metrics, metrics.task(tag), command);
+        metrics.onQueued();
+        try {
+            super.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 没有进入队列，不会再执行
+            metrics.onDequeued();
+            throw e;
+        }
+    }
+
+    /**
+     * 按任务名称提交任务。
+     * @return 可用于取消的Future
+     */
+    public Future<?> submit(String tag, Runnable task) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        execute(tag, future);
+        return future;
+    }
+
+    /**
+     * 按任务名称提交有返回值的任务。
+     * @return 任务结果的Future
+     */
+    public <T> Future<T> submit(String tag, Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(tag, future);
+        return future;
+    }
+
+    /**
+     * 获取按固定任务名称提交的Executor视图，供只接受Executor的组件使用。
+     * @param tag 任务名称
+     */
+    public Executor tagged(String tag) {
+        return command -> execute(tag, command);
+    }
+
+    /**
+     * 记录排队和执行时间的包装任务。
+     */
+    private static final class TimedTask implements Runnable {
+        private final ExecutorMetrics executorMetrics;
+        private final ExecutorMetrics.TaskMetrics taskMetrics;
+        private final Runnable task;
+        private final long enqueuedAt = System.nanoTime();
+
+        TimedTask(ExecutorMetrics executorMetrics, ExecutorMetrics.TaskMetrics taskMetrics, Runnable task) {
+            this.executorMetrics = executorMetrics;
+            this.taskMetrics = taskMetrics;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            executorMetrics.onDequeued();
+            taskMetrics.queueWait.recordNanos(start - enqueuedAt);
+            executorMetrics.onStarted();
+            try {
+                task.run();
+            } finally {
+                // 先记录再减少活动计数，活动数归零时直方图已经完整
+                taskMetrics.runTime.recordNanos(System.nanoTime() - start);
+                executorMetrics.onFinished();
+            }
+        }
+    }
+
+    /**
+     * 交给原来的拒绝策略，只有它最终抛出（任务确实被拒绝）时才计数；
+     * 通道的策略常常等待片刻后把任务放进队列，这种情况不算拒绝。
+     */
+    private static final class CountingRejectionHandler implements RejectedExecutionHandler {
+        private final ExecutorMetrics metrics;
+        private final RejectedExecutionHandler delegate;
+
+        CountingRejectionHandler(ExecutorMetrics metrics, RejectedExecutionHandler delegate) {
+            this.metrics = metrics;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            try {
+                delegate.rejectedExecution(r, executor);
+            } catch (RejectedExecutionException e) {
+                metrics.onRejected();
+                throw e;
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * JSON工具类，用于读取和解析assets目录下的JSON文件
@@ -90,12 +91,13 @@ public class JsonUtils {
      *
      * @param context  应用上下文
      * @param callback 加载结果回调
+     * @return 可用于取消的Future
      */
-    public static void loadMoviesFromAssetsAsync(Context context, LoadMoviesCallback callback) {
+    public static Future<?> loadMoviesFromAssetsAsync(Context context, LoadMoviesCallback callback) {
         Log.d(TAG, "loadMoviesFromAssetsAsync: 开始异步加载电影数据");
         
-        // 使用线程池执行异步任务
-        ThreadPoolUtils.getInstance().execute(() -> {
+        // 页面在等待结果，使用交互通道
+        return ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.INTERACTIVE, "movie_load", () -> {
             try {
                 // 从assets目录读取movies.json文件
                 InputStream is = context.getAssets().open("movies.json");
@@ -127,6 +129,14 @@ public class JsonUtils {
                     }
                 });
             }
+        }, ex -> {
+            Log.w(TAG, "loadMoviesFromAssetsAsync: 线程池繁忙，无法加载电影数据", ex);
+            // 与其他结果一样在主线程回调，调用方可能正在主线程上持有加载状态
+            new Handler(Looper.getMainLooper()).post(() -> {
+                if (callback != null) {
+                    callback.onError(ex);
+                }
+            });
         });
     }
 
@@ -0,0 +1,132 @@
+package com.example.loginandregister.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HDR风格的延迟直方图，以微秒为单位。小于16µs的值各占一格，之后每个2的幂区间线性分成16格，
+ * 任何值落入的格子宽度不超过该值的1/16，即分位数的相对误差约6%。
+ * 格子数固定（608个，约5KB），记录只做几次原子操作，不加锁、不分配对象，可以在线程池的每个任务上调用。
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 最高的2的幂，2^40µs约12.7天，更大的值记在最后一格
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * 记录一次耗时。
+     * @param nanos 耗时（纳秒），负数按0记录
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1000);
+    }
+
+    /**
+     * 记录一次耗时。
+     * @param micros 耗时（微秒），负数按0记录
+     */
+    public void recordMicros(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(value));
+        totalMicros.addAndGet(value);
+        long max = maxMicros.get();
+        while (value > max && !maxMicros.compareAndSet(max, value)) {
+            max = maxMicros.get();
+        }
+    }
+
+    /**
+     * 复制当前计数。并发记录时各字段可能相差正在进行的几次记录，分位数只由计数数组决定。
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, totalMicros.get(), maxMicros.get());
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * 格子能表示的最大值（包含），分位数按它报告，保证不低估。
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + sub) << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * 直方图的不可变副本。
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+
+        Snapshot(long[] counts, long totalMicros, long maxMicros) {
+            this.counts = counts;
+            long sum = 0;
+            for (long c : counts) {
+                sum += c;
+            }
+            this.count = sum;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public long getMeanMicros() {
+            return count == 0 ? 0 : totalMicros / count;
+        }
+
+        /**
+         * 获取分位数。
+         * @param percentile 0到100
+         * @return 不小于该比例样本的最小格子上界（微秒），不超过记录到的最大值；没有样本时返回0
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
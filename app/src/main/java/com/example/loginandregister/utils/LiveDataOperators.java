@@ -0,0 +1,251 @@
+package com.example.loginandregister.utils;
+
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 面向高频变化数据的LiveData操作符：debounce、throttleLatest、distinctUntilChanged和在后台线程执行的switchMap。
+ * 定时统一通过Scheduler完成（默认共享主线程调度器）。每个操作符只创建一次观察者和定时任务，
+ * 之后每次发射只更新字段，不分配对象；定时任务在一段连续发射中最多投递一次，到期时如被顺延再按剩余时间重投。
+ * 没有观察者时已投递的定时任务照常到期，值保存在LiveData中，重新有观察者时再分发，不会丢失最后一个值。
+ * 所有方法都要在主线程调用。
+ */
+public final class LiveDataOperators {
+    private static final String TAG = "LiveDataOperators";
+
+    private LiveDataOperators() {
+    }
+
+    /**
+     * 源数据停止变化windowMillis毫秒后才发射最后一个值。
+     */
+    @MainThread
+    public static <T> LiveData<T> debounce(LiveData<T> source, long windowMillis, Scheduler scheduler) {
+        return new DebounceLiveData<>(source, windowMillis, scheduler);
+    }
+
+    /**
+     * 第一个值立即发射，之后每windowMillis毫秒最多发射一次，窗口结束时发射窗口内的最新值。
+     */
+    @MainThread
+    public static <T> LiveData<T> throttleLatest(LiveData<T> source, long windowMillis, Scheduler scheduler) {
+        return new ThrottleLatestLiveData<>(source, windowMillis, scheduler);
+    }
+
+    /**
+     * 只在值与上一次发射的值不相等（Objects.equals）时发射。
+     */
+    @MainThread
+    public static <T> LiveData<T> distinctUntilChanged(LiveData<T> source) {
+        return new DistinctLiveData<>(source);
+    }
+
+    /**
+     * 在后台线程上把源数据映射为结果，只保留最新输入的结果：
+     * 计算期间又有新输入时，旧结果被丢弃，后台只排队一次计算最新的输入。
+     * 线程池拒绝提交时不抛出异常，稍后在主线程上重新提交最新的输入。
+     * @param mapper 在后台线程执行的映射
+     * @param background 执行映射的线程池
+     * @param scheduler 把结果切回主线程的调度器
+     */
+    @MainThread
+    public static <X, Y> LiveData<Y> switchMapBackground(LiveData<X> source, Function<? super X, ? extends Y> mapper,
+                                                         Executor background, Scheduler scheduler) {
+        return new BackgroundMapLiveData<>(source, mapper, background, scheduler);
+    }
+
+    private static final class DebounceLiveData<T> extends MediatorLiveData<T> implements Runnable {
+        private final long windowMillis;
+        private final Scheduler scheduler;
+        private T pending;
+        private boolean hasPending;
+        private long deadline;
+        private boolean scheduled;
+
+        DebounceLiveData(LiveData<T> source, long windowMillis, Scheduler scheduler) {
+            this.windowMillis = windowMillis;
+            this.scheduler = scheduler;
+            addSource(source, this::onSource);
+        }
+
+        private void onSource(T value) {
+            pending = value;
+            hasPending = true;
+            deadline = scheduler.now() + windowMillis;
+            if (!scheduled) {
+                scheduled = true;
+                scheduler.postDelayed(this, windowMillis);
+            }
+        }
+
+        @Override
+        public void run() {
+            long remaining = deadline - scheduler.now();
+            if (remaining > 0) {
+                scheduler.postDelayed(this, remaining);
+                return;
+            }
+            scheduled = false;
+            if (hasPending) {
+                T value = pending;
+                pending = null;
+                hasPending = false;
+                setValue(value);
+            }
+        }
+    }
+
+    private static final class ThrottleLatestLiveData<T> extends MediatorLiveData<T> implements Runnable {
+        private final long windowMillis;
+        private final Scheduler scheduler;
+        private T pending;
+        private boolean hasPending;
+        // 当前是否在节流窗口内
+        private boolean throttling;
+
+        ThrottleLatestLiveData(LiveData<T> source, long windowMillis, Scheduler scheduler) {
+            this.windowMillis = windowMillis;
+            this.scheduler = scheduler;
+            addSource(source, this::onSource);
+        }
+
+        private void onSource(T value) {
+            if (!throttling) {
+                throttling = true;
+                setValue(value);
+                scheduler.postDelayed(this, windowMillis);
+            } else {
+                pending = value;
+                hasPending = true;
+            }
+        }
+
+        @Override
+        public void run() {
+            if (hasPending) {
+                T value = pending;
+                pending = null;
+                hasPending = false;
+                setValue(value);
+                // 发射后开始新的窗口
+                scheduler.postDelayed(this, windowMillis);
+            } else {
+                throttling = false;
+            }
+        }
+    }
+
+    private static final class DistinctLiveData<T> extends MediatorLiveData<T> {
+        private boolean first = true;
+
+        DistinctLiveData(LiveData<T> source) {
+            addSource(source, this::onSource);
+        }
+
+        private void onSource(T value) {
+            if (first || !Objects.equals(getValue(), value)) {
+                first = false;
+                setValue(value);
+            }
+        }
+    }
+
+    private static final class BackgroundMapLiveData<X, Y> extends MediatorLiveData<Y> {
+        // 线程池拒绝后重新提交的间隔（毫秒）
+        private static final long RETRY_DELAY_MILLIS = 100;
+        private final Function<? super X, ? extends Y> mapper;
+        private final Executor background;
+        private final Scheduler scheduler;
+        // 每次输入递增，结果只在版本仍是最新时发射
+        private final AtomicLong generation = new AtomicLong();
+        // 后台是否已有计算任务在排队或执行
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile X input;
+        private volatile Y result;
+        private volatile long resultGeneration;
+        private final Runnable worker = this::compute;
+        private final Runnable deliver = this::deliver;
+        private final Runnable retry = this::retry;
+        // 是否已投递重新提交的任务，只在主线程读写
+        private boolean retryScheduled;
+
+        BackgroundMapLiveData(LiveData<X> source, Function<? super X, ? extends Y> mapper,
+                              Executor background, Scheduler scheduler) {
+            this.mapper = mapper;
+            this.background = background;
+            this.scheduler = scheduler;
+            addSource(source, this::onSource);
+        }
+
+        private void onSource(X value) {
+            // 先写输入再递增版本，后台读到某个版本时，输入至少与该版本一样新
+            input = value;
+            generation.incrementAndGet();
+            submit();
+        }
+
+        private void submit() {
+            if (running.compareAndSet(false, true)) {
+                try {
+                    background.execute(worker);
+                } catch (RejectedExecutionException e) {
+                    // 线程池拒绝时释放标记并稍后重试，否则最新输入永远得不到结果
+                    running.set(false);
+                    if (!retryScheduled) {
+                        retryScheduled = true;
+                        scheduler.postDelayed(retry, RETRY_DELAY_MILLIS);
+                    }
+                }
+            }
+        }
+
+        private void retry() {
+            retryScheduled = false;
+            // 期间已经有后续提交算出了最新结果就不必再算
+            if (resultGeneration != generation.get()) {
+                submit();
+            }
+        }
+
+        /**
+         * 后台线程：计算最新输入，算完后如果期间又有新输入就继续计算，直到结果是最新的。
+         */
+        private void compute() {
+            while (true) {
+                long current = generation.get();
+                try {
+                    Y mapped = mapper.apply(input);
+                    if (generation.get() == current) {
+                        result = mapped;
+                        resultGeneration = current;
+                        scheduler.post(deliver);
+                    }
+                } catch (RuntimeException e) {
+                    // 跳过这个输入，保留上一个结果；标记照常释放，后续输入仍会计算
+                    Log.e(TAG, "switchMapBackground: 计算失败，跳过该输入", e);
+                }
+                running.set(false);
+                // 释放标记后再检查一次，避免与onSource的竞争漏掉最后一个输入
+                if (generation.get() == current || !running.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        private void deliver() {
+            if (resultGeneration == generation.get()) {
+                setValue(result);
+            }
+        }
+    }
+}
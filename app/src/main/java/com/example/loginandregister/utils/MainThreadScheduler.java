@@ -0,0 +1,32 @@
+package com.example.loginandregister.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * 基于主线程Handler和SystemClock.uptimeMillis的调度器，全进程共享一个Handler。
+ */
+final class MainThreadScheduler implements Scheduler {
+    static final MainThreadScheduler INSTANCE = new MainThreadScheduler();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private MainThreadScheduler() {
+    }
+
+    @Override
+    public long now() {
+        return SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMillis) {
+        handler.postDelayed(task, delayMillis);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        handler.removeCallbacks(task);
+    }
+}
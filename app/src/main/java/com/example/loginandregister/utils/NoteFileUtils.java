@@ -22,6 +22,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -63,10 +64,11 @@ public class NoteFileUtils {
     /**
      * 异步加载笔记内容
      * @param context 上下文
-     * @param callback 加载回调
+     * @param callback 加载回调，通道繁忙拒绝提交时在调用线程上回调onError
+     * @return 可用于取消的Future
      */
-    public static void loadNoteAsync(Context context, NoteLoadCallback callback) {
-        ThreadPoolUtils.getInstance().execute(() -> {
+    public static Future<?> loadNoteAsync(Context context, NoteLoadCallback callback) {
+        return ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.INTERACTIVE, "note_load", () -> {
             try {
                 String content = loadNote(context);
                 callback.onSuccess(content);
@@ -74,17 +76,18 @@ public class NoteFileUtils {
                 Log.e(TAG, "loadNoteAsync: 加载笔记失败", e);
                 callback.onError(e);
             }
-        });
+        }, callback::onError);
     }
 
     /**
      * 异步保存笔记内容
      * @param context 上下文
      * @param content 笔记内容
-     * @param callback 保存回调
+     * @param callback 保存回调，通道繁忙拒绝提交时在调用线程上回调onError
+     * @return 可用于取消的Future
      */
-    public static void saveNoteAsync(Context context, String content, NoteSaveCallback callback) {
-        ThreadPoolUtils.getInstance().execute(() -> {
+    public static Future<?> saveNoteAsync(Context context, String content, NoteSaveCallback callback) {
+        return ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.IO, "note_save", () -> {
             try {
                 saveNote(context, content);
                 callback.onSuccess();
@@ -92,17 +95,18 @@ public class NoteFileUtils {
                 Log.e(TAG, "saveNoteAsync: 保存笔记失败", e);
                 callback.onError(e);
             }
-        });
+        }, callback::onError);
     }
 
     /**
      * 异步导出笔记内容为文本
      * @param context 上下文
      * @param content 笔记内容
-     * @param callback 导出回调
+     * @param callback 导出回调，通道繁忙拒绝提交时在调用线程上回调onError
+     * @return 可用于取消的Future
      */
-    public static void exportNoteAsync(Context context, String content, NoteExportCallback callback) {
-        ThreadPoolUtils.getInstance().execute(() -> {
+    public static Future<?> exportNoteAsync(Context context, String content, NoteExportCallback callback) {
+        return ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.IO, "note_export", () -> {
             try {
                 exportNote(context, content);
                 callback.onSuccess();
@@ -110,17 +114,18 @@ public class NoteFileUtils {
                 Log.e(TAG, "exportNoteAsync: 导出笔记失败", e);
                 callback.onError(e);
             }
-        });
+        }, callback::onError);
     }
     
     /**
      * 异步导出笔记内容为PDF
      * @param context 上下文
      * @param content 笔记内容
-     * @param callback 导出回调
+     * @param callback 导出回调，通道繁忙拒绝提交时在调用线程上回调onError
+     * @return 可用于取消的Future
      */
-    public static void exportNoteAsPdfAsync(Context context, String content, NoteExportCallback callback) {
-        ThreadPoolUtils.getInstance().execute(() -> {
+    public static Future<?> exportNoteAsPdfAsync(Context context, String content, NoteExportCallback callback) {
+        return ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.BULK, "note_export_pdf", () -> {
             try {
                 exportNoteAsPdf(context, content);
                 callback.onSuccess();
@@ -128,7 +133,7 @@ public class NoteFileUtils {
                 Log.e(TAG, "exportNoteAsPdfAsync: 导出PDF笔记失败", e);
                 callback.onError(e);
             }
-        });
+        }, callback::onError);
     }
 
     /**
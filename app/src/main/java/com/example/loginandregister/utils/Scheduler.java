@@ -0,0 +1,36 @@
+package com.example.loginandregister.utils;
+
+/**
+ * 主线程定时调度的抽象，LiveData操作符通过它取时间和投递延迟任务，测试中可以替换为虚拟时钟。
+ * 所有任务都在同一个线程（通常是主线程）上执行。
+ */
+public interface Scheduler {
+    /**
+     * 单调递增的毫秒数。
+     */
+    long now();
+
+    /**
+     * 延迟执行任务，同一个任务对象可以重复投递。
+     */
+    void postDelayed(Runnable task, long delayMillis);
+
+    /**
+     * 取消该任务所有尚未执行的投递。
+     */
+    void cancel(Runnable task);
+
+    /**
+     * 立即投递到调度线程。
+     */
+    default void post(Runnable task) {
+        postDelayed(task, 0);
+    }
+
+    /**
+     * 进程共享的主线程调度器。
+     */
+    static Scheduler main() {
+        return MainThreadScheduler.INSTANCE;
+    }
+}
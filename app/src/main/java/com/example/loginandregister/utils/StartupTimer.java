@@ -0,0 +1,34 @@
+package com.example.loginandregister.utils;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 冷启动计时工具，记录从进程启动到各个关键节点的耗时，每个节点每个进程只记录一次。
+ * 通过logcat过滤TAG“StartupTimer”即可对比不同启动路径的耗时。
+ */
+public class StartupTimer {
+    private static final String TAG = "StartupTimer";
+    // 已记录过的节点
+    private static final Set<String> marked = new HashSet<>();
+
+    /**
+     * 记录一个启动节点，距离进程启动的毫秒数写入日志。
+     * @param stage 节点名称
+     * @return 距离进程启动的毫秒数，该节点已记录过时返回-1
+     */
+    public static long mark(String stage) {
+        synchronized (marked) {
+            if (!marked.add(stage)) {
+                return -1;
+            }
+        }
+        long elapsed = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        Log.i(TAG, "mark: " + stage + " = " + elapsed + "ms");
+        return elapsed;
+    }
+}
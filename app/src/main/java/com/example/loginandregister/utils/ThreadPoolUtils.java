@@ -1,49 +1,93 @@
 package com.example.loginandregister.utils;
 
+import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
- * 线程池管理工具类，用于统一管理应用中的所有子线程任务
+ * 线程池管理工具类，用于统一管理应用中的所有子线程任务。
+ * 任务按类型分到四条通道，每条通道有独立的线程、有界队列、线程优先级和队列满时的最长等待时间，
+ * 长时间的导出不会占满交互任务的线程。提交返回Future，调用方可以取消尚未开始的任务。
+ * 队列满时后台线程上的提交方最多等待该通道的时间，仍然放不进去就抛出RejectedExecutionException，由调用方走失败路径；
+ * 主线程上的提交不等待，队列满时立即拒绝，不会因为通道繁忙卡住界面。
+ * 已接受的任务不会被丢弃，也不会在提交线程（可能是主线程）上执行，依赖任务完成的回调和Future总会得到结果。
+ * 提交时给出任务名称，每条通道的排队时间、执行时间和拒绝次数按名称记录在ExecutorMetrics中。
  */
 public class ThreadPoolUtils {
     private static final String TAG = "ThreadPoolUtils";
-    
+
+    /**
+     * 任务通道。
+     */
+    public enum Lane {
+        // 用户正在等待结果的短任务：页面数据加载、预览渲染
+        INTERACTIVE,
+        // 密码哈希和校验：每次约为校准目标（200ms）、占满一个核心，与页面加载分开，不互相排队
+        CRYPTO,
+        // 文件读写：笔记保存、导出、存储维护
+        IO,
+        // 后台批量计算：旧密码升级等
+        BULK
+    }
+
+    // 交互通道：只短暂等待，超时后由调用方提示用户
+    private static final int INTERACTIVE_QUEUE = 64;
+    private static final long INTERACTIVE_AWAIT_MILLIS = 100;
+    // 密码通道：满了立即拒绝，由调用方提示稍后再试
+    private static final int CRYPTO_THREADS = 2;
+    private static final int CRYPTO_QUEUE = 16;
+    private static final long CRYPTO_AWAIT_MILLIS = 0;
+    // IO通道：保存不能丢，后台线程上的提交方最多等待这么久（毫秒）
+    private static final int IO_THREADS = 2;
+    private static final int IO_QUEUE = 128;
+    private static final long IO_AWAIT_MILLIS = 500;
+    // 批量通道：任务耗时长，满了立即拒绝，不让主线程等待
+    private static final int BULK_QUEUE = 32;
+    private static final long BULK_AWAIT_MILLIS = 0;
+    // 空闲线程存活时间（秒）
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
     // 单例实例
     private static volatile ThreadPoolUtils instance;
-    
-    // 线程池
-    private ExecutorService executorService;
-    
+
+    // 按Lane.ordinal()索引的线程池
+    private final InstrumentedThreadPoolExecutor[] lanes = new InstrumentedThreadPoolExecutor[Lane.values().length];
+
     // 私有构造函数
     private ThreadPoolUtils() {
         // 获取CPU核心数
         int cpuCount = Runtime.getRuntime().availableProcessors();
-        // 核心线程数
-        int corePoolSize = cpuCount + 1;
-        // 最大线程数
-        int maximumPoolSize = cpuCount * 2 + 1;
-        // 线程空闲时间
-        long keepAliveTime = 30L;
-        
-        Log.d(TAG, "ThreadPoolUtils: 初始化线程池，核心线程数=" + corePoolSize + 
-              ", 最大线程数=" + maximumPoolSize);
-        
-        // 创建线程池
-        executorService = new ThreadPoolExecutor(
-                corePoolSize,
-                maximumPoolSize,
-                keepAliveTime,
-                TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(128) // 设置队列大小
-        );
+        int interactiveThreads = Math.max(2, cpuCount);
+        int bulkThreads = Math.max(1, cpuCount / 2);
+
+        Log.d(TAG, "ThreadPoolUtils: 初始化线程池，交互线程数=" + interactiveThreads
+                + ", 密码线程数=" + CRYPTO_THREADS + ", IO线程数=" + IO_THREADS + ", 批量线程数=" + bulkThreads);
+
+        lanes[Lane.INTERACTIVE.ordinal()] = newLaneExecutor("lane-interactive", interactiveThreads,
+                INTERACTIVE_QUEUE, Process.THREAD_PRIORITY_DEFAULT, INTERACTIVE_AWAIT_MILLIS);
+        lanes[Lane.CRYPTO.ordinal()] = newLaneExecutor("lane-crypto", CRYPTO_THREADS, CRYPTO_QUEUE,
+                Process.THREAD_PRIORITY_DEFAULT, CRYPTO_AWAIT_MILLIS);
+        lanes[Lane.IO.ordinal()] = newLaneExecutor("lane-io", IO_THREADS, IO_QUEUE,
+                Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE, IO_AWAIT_MILLIS);
+        lanes[Lane.BULK.ordinal()] = newLaneExecutor("lane-bulk", bulkThreads, BULK_QUEUE,
+                Process.THREAD_PRIORITY_BACKGROUND, BULK_AWAIT_MILLIS);
     }
-    
+
     /**
      * 获取单例实例
      *
@@ -59,47 +103,190 @@ public class ThreadPoolUtils {
         }
         return instance;
     }
-    
+
+    /**
+     * 创建一条通道的线程池：线程数固定、空闲超时回收、有界队列。
+     * @param name 线程名前缀，同时是指标中的线程池名称
+     * @param threads 线程数
+     * @param queueCapacity 队列容量
+     * @param priority 线程优先级（android.os.Process的nice值）
+     * @param awaitMillis 队列满时后台线程上的提交方的最长等待时间（毫秒），0表示立即拒绝
+     */
+    static InstrumentedThreadPoolExecutor newLaneExecutor(String name, int threads, int queueCapacity, int priority,
+                                                          long awaitMillis) {
+        return newLaneExecutor(name, threads, queueCapacity, priority, awaitMillis, ThreadPoolUtils::isMainThread);
+    }
+
     /**
-     * 执行任务
+     * @param onMainThread 判断提交方是否在主线程，在主线程时不等待
+     */
+    static InstrumentedThreadPoolExecutor newLaneExecutor(String name, int threads, int queueCapacity, int priority,
+                                                          long awaitMillis, BooleanSupplier onMainThread) {
+        InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(
+                name,
+                threads,
+                threads,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new LaneThreadFactory(name, priority),
+                new LaneRejectionHandler(name, awaitMillis, onMainThread));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 提交任务到指定通道
+     *
+     * @param lane 通道
+     * @param name 任务名称，用于归类指标
+     * @param runnable 要执行的任务
+     * @return 可用于取消的Future
+     * @throws RejectedExecutionException 通道已关闭，或队列满且等待超时（主线程上不等待）
+     */
+    public Future<?> submit(Lane lane, String name, Runnable runnable) {
+        return lanes[lane.ordinal()].submit(name, runnable);
+    }
+
+    /**
+     * 提交任务到指定通道，通道拒绝时不抛出异常，而是在提交线程上调用onRejected
      *
+     * @param lane 通道
+     * @param name 任务名称，用于归类指标
      * @param runnable 要执行的任务
+     * @param onRejected 通道拒绝时的失败回调，应让等待结果的界面结束加载状态
+     * @return 可用于取消的Future；被拒绝时返回以该异常失败的Future
      */
-    public void execute(Runnable runnable) {
-        if (executorService != null && !executorService.isShutdown()) {
-            Log.d(TAG, "execute: 提交任务到线程池");
-            executorService.execute(runnable);
-        } else {
-            Log.w(TAG, "execute: 线程池不可用，任务未执行");
+    public Future<?> submit(Lane lane, String name, Runnable runnable,
+                            Consumer<? super RejectedExecutionException> onRejected) {
+        try {
+            return submit(lane, name, runnable);
+        } catch (RejectedExecutionException e) {
+            onRejected.accept(e);
+            return CompletableFuture.failedFuture(e);
         }
     }
-    
+
+    /**
+     * 提交有返回值的任务到指定通道
+     *
+     * @param lane 通道
+     * @param name 任务名称，用于归类指标
+     * @param callable 要执行的任务
+     * @return 任务结果的Future
+     * @throws RejectedExecutionException 通道已关闭，或队列满且等待超时（主线程上不等待）
+     */
+    public <T> Future<T> submit(Lane lane, String name, Callable<T> callable) {
+        return lanes[lane.ordinal()].submit(name, callable);
+    }
+
     /**
-     * 关闭线程池
+     * 获取指定通道的Executor视图，适用于只需要execute的组件
+     *
+     * @param lane 通道
+     * @param name 经由该视图提交的任务名称
+     * @return 提交到该通道的Executor
+     */
+    public Executor executor(Lane lane, String name) {
+        return lanes[lane.ordinal()].tagged(name);
+    }
+
+    /**
+     * 关闭线程池，已提交的任务会执行完
      */
     public void shutdown() {
-        if (executorService != null && !executorService.isShutdown()) {
-            Log.d(TAG, "shutdown: 关闭线程池");
-            executorService.shutdown();
+        Log.d(TAG, "shutdown: 关闭线程池");
+        for (ThreadPoolExecutor executor : lanes) {
+            executor.shutdown();
         }
     }
-    
+
     /**
-     * 立即关闭线程池
+     * 立即关闭线程池，中断正在执行的任务并丢弃队列
      */
     public void shutdownNow() {
-        if (executorService != null && !executorService.isShutdown()) {
-            Log.d(TAG, "shutdownNow: 立即关闭线程池");
-            executorService.shutdownNow();
+        Log.d(TAG, "shutdownNow: 立即关闭线程池");
+        for (ThreadPoolExecutor executor : lanes) {
+            executor.shutdownNow();
         }
     }
-    
+
     /**
      * 检查线程池是否已关闭
      *
      * @return true表示已关闭，false表示未关闭
      */
     public boolean isShutdown() {
-        return executorService != null && executorService.isShutdown();
+        for (ThreadPoolExecutor executor : lanes) {
+            if (!executor.isShutdown()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isMainThread() {
+        Looper main = Looper.getMainLooper();
+        return main != null && main.isCurrentThread();
+    }
+
+    /**
+     * 按通道命名线程，并在线程内设置Linux nice优先级（Thread.setPriority在Android上影响很小）。
+     */
+    private static class LaneThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final int priority;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        LaneThreadFactory(String prefix, int priority) {
+            this.prefix = prefix;
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(priority);
+                r.run();
+            }, prefix + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * 队列满（且线程都在忙）时让后台线程上的提交方最多等待awaitMillis，仍然放不进队列就拒绝；
+     * 主线程上的提交方只再尝试一次非阻塞入队。不丢弃已排队的任务，也不在提交线程上执行任务。
+     */
+    private static class LaneRejectionHandler implements RejectedExecutionHandler {
+        private final String name;
+        private final long awaitMillis;
+        private final BooleanSupplier onMainThread;
+
+        LaneRejectionHandler(String name, long awaitMillis, BooleanSupplier onMainThread) {
+            this.name = name;
+            this.awaitMillis = awaitMillis;
+            this.onMainThread = onMainThread;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException(name + " is shut down");
+            }
+            awaitQueue(r, executor.getQueue(), onMainThread.getAsBoolean() ? 0 : awaitMillis);
+        }
+
+        private void awaitQueue(Runnable r, BlockingQueue<Runnable> queue, long waitMillis) {
+            try {
+                if (!queue.offer(r, waitMillis, TimeUnit.MILLISECONDS)) {
+                    Log.w(TAG, "rejectedExecution: " + name + "等待" + waitMillis + "ms后队列仍满，拒绝任务");
+                    throw new RejectedExecutionException(name + " queue full after " + waitMillis + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(name + " interrupted while waiting for queue", e);
+            }
+        }
     }
 }
@@ -1,14 +1,15 @@
 package com.example.loginandregister.viewmodel;
 
 import android.app.Application;
-import android.content.Context;
-import android.content.SharedPreferences;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.example.loginandregister.model.Person;
+import com.example.loginandregister.repository.KeyValueStore;
+import com.example.loginandregister.repository.LoginCommit;
+import com.example.loginandregister.security.SessionManager;
 import com.example.loginandregister.utils.DebounceUtils;
 
 /**
@@ -65,8 +66,14 @@ public class HomeViewModel extends AndroidViewModel {
      */
     public void loadCurrentUser() {
         Log.d(TAG, "loadCurrentUser: 开始加载当前用户");
-        SharedPreferences sp = getApplication().getSharedPreferences("user_info", Context.MODE_PRIVATE);
-        String user = sp.getString("current_user", "");
+        // 优先使用内存中的会话，没有会话时兼容旧版本保存的current_user
+        SessionManager.Session session = SessionManager.getInstance(getApplication()).getValidSession();
+        String user;
+        if (session != null) {
+            user = session.getUsername();
+        } else {
+            user = KeyValueStore.getInstance(getApplication()).getString(LoginCommit.KEY_CURRENT_USER, "");
+        }
         Log.d(TAG, "loadCurrentUser: 当前用户=" + user);
         currentUsername.setValue(user);
         Log.d(TAG, "loadCurrentUser: 当前用户加载完成");
@@ -77,25 +84,18 @@ public class HomeViewModel extends AndroidViewModel {
      */
     public void logout() {
         Log.d(TAG, "logout: 开始退出登录流程");
-        // 防抖检查
-        if (!DebounceUtils.canClick(String.valueOf(LOGOUT_BUTTON_ID))) {
+        // 防抖检查，通过时同时设置防抖状态
+        if (!DebounceUtils.tryClick(LOGOUT_BUTTON_ID)) {
             Log.w(TAG, "logout: 防抖检查失败，阻止重复点击");
             return;
         }
         
-        Log.d(TAG, "logout: 防抖检查通过，开始设置防抖");
-        // 设置防抖状态
-        DebounceUtils.setDebounce(String.valueOf(LOGOUT_BUTTON_ID), () -> {
-            // 防抖结束后的回调
-            Log.d(TAG, "logout: 防抖结束回调");
-        });
-        
         Log.d(TAG, "logout: 清除当前用户信息");
-        SharedPreferences sp = getApplication().getSharedPreferences("user_info", Context.MODE_PRIVATE);
-        sp.edit().remove("current_user").apply();
+        KeyValueStore.getInstance(getApplication()).edit().remove(LoginCommit.KEY_CURRENT_USER).commit();
+        SessionManager.getInstance(getApplication()).endSession();
         logoutEvent.setValue(true);
         // 清除防抖状态
-        DebounceUtils.clearDebounce(String.valueOf(LOGOUT_BUTTON_ID));
+        DebounceUtils.clearDebounce(LOGOUT_BUTTON_ID);
         Log.d(TAG, "logout: 退出登录流程完成");
     }
 
@@ -122,22 +122,23 @@ public class HomeViewModel extends AndroidViewModel {
             return;
         }
         
-        // 防抖检查
-        if (!DebounceUtils.canClick(String.valueOf(DETAIL_BUTTON_ID))) {
+        // 防抖检查，通过时同时设置防抖状态
+        if (!DebounceUtils.tryClick(DETAIL_BUTTON_ID)) {
             Log.w(TAG, "setJumpPerson: 防抖检查失败，阻止重复点击");
             return;
         }
         
-        Log.d(TAG, "setJumpPerson: 防抖检查通过，开始设置防抖");
-        // 设置防抖状态
-        DebounceUtils.setDebounce(String.valueOf(DETAIL_BUTTON_ID), () -> {
-            // 防抖结束后的回调
-            Log.d(TAG, "setJumpPerson: 防抖结束回调");
-        });
-        
         jumpPersonLiveData.setValue(person);
         // 清除防抖状态
-        DebounceUtils.clearDebounce(String.valueOf(DETAIL_BUTTON_ID));
+        DebounceUtils.clearDebounce(DETAIL_BUTTON_ID);
         Log.d(TAG, "setJumpPerson: 跳转Person对象设置完成");
     }
+
+    @Override
+    protected void onCleared() {
+        // 防抖状态跟随ViewModel的生命周期
+        DebounceUtils.clearDebounce(LOGOUT_BUTTON_ID);
+        DebounceUtils.clearDebounce(DETAIL_BUTTON_ID);
+        super.onCleared();
+    }
 }
@@ -1,8 +1,6 @@
 package com.example.loginandregister.viewmodel;
 
 import android.app.Application;
-import android.content.Context;
-import android.content.SharedPreferences;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -12,25 +10,35 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.loginandregister.model.User;
+import com.example.loginandregister.repository.KeyValueStore;
+import com.example.loginandregister.repository.LoginCommit;
+import com.example.loginandregister.repository.RecentUsersStore;
 import com.example.loginandregister.repository.UserRepository;
+import com.example.loginandregister.security.CredentialVault;
+import com.example.loginandregister.security.PasswordPolicy;
+import com.example.loginandregister.security.SessionManager;
 import com.example.loginandregister.utils.DebounceUtils;
-import com.example.loginandregister.utils.MD5Utils;
-import com.example.loginandregister.utils.PasswordTimeUtils;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * 登录页面的ViewModel，负责登录业务逻辑、输入校验和与数据库的交互。
  * 通过LiveData将状态和错误信息通知UI。
- * 支持MD5密码加密和带时效性的自动填充功能。
+ * 密码按存储串中的算法校验，旧格式在登录成功后自动升级，支持带时效性的自动填充功能。
  */
 public class LoginViewModel extends AndroidViewModel {
     private static final String TAG = "LoginViewModel";
     private static final int LOGIN_BUTTON_ID = 4;
     // 用户数据仓库
     private final UserRepository userRepository;
+    // user_info存储
+    private final KeyValueStore userInfo;
+    // 记住密码的凭据保险箱
+    private final CredentialVault credentialVault;
+    // 最近登录用户，按最近使用排序
+    private final RecentUsersStore recentUsersStore;
+    // 登录成功后的状态提交
+    private final LoginCommit loginCommit;
     // 登录结果，true表示登录成功
     private final MutableLiveData<Boolean> loginResult = new MutableLiveData<>();
     // 用户名输入错误提示
@@ -43,15 +51,17 @@ public class LoginViewModel extends AndroidViewModel {
     private final MutableLiveData<ArrayList<String>> recentUsers = new MutableLiveData<>();
     // 自动填充密码
     private final MutableLiveData<String> autoFillPassword = new MutableLiveData<>();
-    // 最近用户最大数量
-    private final int MAX_RECENT_USERS = 5;
 
     /**
-     * 构造方法，初始化UserRepository。
+     * 构造方法，获取共享的UserRepository。
      */
     public LoginViewModel(@NonNull Application application) {
         super(application);
-        userRepository = new UserRepository(application);
+        userRepository = UserRepository.getInstance(application);
+        userInfo = KeyValueStore.getInstance(application);
+        credentialVault = CredentialVault.getInstance(application);
+        recentUsersStore = RecentUsersStore.getInstance(application);
+        loginCommit = new LoginCommit(userInfo, recentUsersStore, credentialVault);
         loadRecentUsers();
     }
 
@@ -67,10 +77,9 @@ public class LoginViewModel extends AndroidViewModel {
      */
     public void loadRecentUsers() {
         Log.d(TAG, "loadRecentUsers: 开始加载最近用户列表");
-        SharedPreferences sp = getApplication().getSharedPreferences("user_info", Context.MODE_PRIVATE);
-        Set<String> recent = sp.getStringSet("recent_users", new HashSet<>());
+        ArrayList<String> recent = recentUsersStore.snapshot();
         Log.d(TAG, "loadRecentUsers: 加载到 " + recent.size() + " 个用户");
-        recentUsers.setValue(new ArrayList<>(recent));
+        recentUsers.setValue(recent);
         Log.d(TAG, "loadRecentUsers: 最近用户列表加载完成");
     }
 
@@ -79,18 +88,18 @@ public class LoginViewModel extends AndroidViewModel {
      */
     public void onUsernameSelected(String username) {
         Log.d(TAG, "onUsernameSelected: 用户选择用户名 " + username);
-        SharedPreferences sp = getApplication().getSharedPreferences("user_info", Context.MODE_PRIVATE);
-        boolean isRemembered = sp.getBoolean("remember_password", false);
+        boolean isRemembered = userInfo.getBoolean(LoginCommit.KEY_REMEMBER_PASSWORD, false);
         Log.d(TAG, "onUsernameSelected: 记住密码状态 " + isRemembered);
         if (isRemembered) {
-            // 获取带时效性检查的密码
-            String validPassword = PasswordTimeUtils.getValidPassword(sp, username);
-            Log.d(TAG, "onUsernameSelected: 获取到有效密码 " + (validPassword != null && !validPassword.isEmpty()));
-            autoFillPassword.setValue(validPassword);
-            
+            // 一次内存查询得到密码和过期时间，不解析字符串
+            CredentialVault.Entry entry = credentialVault.get(username);
+            Log.d(TAG, "onUsernameSelected: 获取到有效密码 " + (entry != null));
+            autoFillPassword.setValue(entry != null ? entry.getPassword() : null);
+
             // 检查是否即将过期，给出提示
-            if (PasswordTimeUtils.isPasswordExpiringSoon(sp, username)) {
-                long remainingMinutes = PasswordTimeUtils.getRemainingTime(sp, username);
+            long now = System.currentTimeMillis();
+            if (entry != null && entry.isExpiringSoon(now)) {
+                long remainingMinutes = entry.getRemainingMinutes(now);
                 Log.d(TAG, "onUsernameSelected: 密码即将过期，剩余时间 " + remainingMinutes + " 分钟");
                 toastMessage.setValue("密码自动填充将在" + remainingMinutes + "分钟后过期");
             }
@@ -99,20 +108,13 @@ public class LoginViewModel extends AndroidViewModel {
 
     /**
      * 登录方法，包含输入校验和异步数据库校验。
-     * 支持MD5密码加密和带时效性的自动填充。
+     * 哈希、查询和校验都在后台流水线中完成，旧格式的存储串校验通过后改写为当前参数。
      * @param username 用户名
      * @param password 密码
      * @param rememberPassword 是否记住密码
      */
     public void login(String username, String password, boolean rememberPassword) {
         Log.d(TAG, "login: 开始登录流程，用户名=" + username + ", 记住密码=" + rememberPassword);
-        // 防抖检查
-        if (!DebounceUtils.canClick(String.valueOf(LOGIN_BUTTON_ID))) {
-            Log.w(TAG, "login: 防抖检查失败，阻止重复点击");
-            toastMessage.setValue("请稍后再试");
-            return;
-        }
-        
         usernameError.setValue(null);
         passwordError.setValue(null);
         toastMessage.setValue(null);
@@ -128,92 +130,63 @@ public class LoginViewModel extends AndroidViewModel {
             passwordError.setValue("请输入密码");
             return;
         }
-        if (!isPasswordValid(password)) {
+        // 登录沿用旧规则，已有账号不受注册规则变严的影响
+        if (!PasswordPolicy.LEGACY.isValid(password)) {
             Log.d(TAG, "login: 密码格式不正确");
             passwordError.setValue("密码至少8位，必须包含数字和字母");
             return;
         }
         
-        Log.d(TAG, "login: 输入验证通过，开始设置防抖");
-        // 设置防抖状态
-        DebounceUtils.setDebounce(String.valueOf(LOGIN_BUTTON_ID), () -> {
-            // 防抖结束后的回调，可以在这里做一些清理工作
-            Log.d(TAG, "login: 防抖结束回调");
-        });
-        
-        // 对密码进行MD5加密
-        String encryptedPassword = MD5Utils.encrypt(password);
-        Log.d(TAG, "login: 密码加密完成");
+        Log.d(TAG, "login: 输入验证通过，开始防抖检查");
+        // 检查并设置防抖状态是一次原子操作，同时到达的两次点击只有一次能提交
+        if (!DebounceUtils.tryClick(LOGIN_BUTTON_ID)) {
+            Log.w(TAG, "login: 防抖检查失败，阻止重复点击");
+            toastMessage.setValue("请稍后再试");
+            return;
+        }
         
-        // 异步数据库校验（使用加密后的密码）
-        Log.d(TAG, "login: 开始数据库查询");
-        userRepository.getUserByUsername(username, user -> {
-            Log.d(TAG, "login: 数据库查询回调，用户存在=" + (user != null));
-            if (user != null && encryptedPassword.equals(user.getPassword())) {
+        // 预哈希与数据库查询并行，校验在后台线程完成，主线程只负责提交
+        Log.d(TAG, "login: 提交登录流水线");
+        userRepository.login(username, password).whenComplete((outcome, error) -> {
+            if (error != null) {
+                Log.e(TAG, "login: 登录流水线异常", error);
+            }
+            if (error == null && outcome.isThrottled()) {
+                long seconds = (outcome.getRetryAfterMillis() + 999) / 1000;
+                Log.d(TAG, "login: 登录尝试过于频繁，需等待" + seconds + "秒");
+                toastMessage.postValue("尝试次数过多，请" + seconds + "秒后再试");
+                loginResult.postValue(false);
+                DebounceUtils.clearDebounce(LOGIN_BUTTON_ID);
+                return;
+            }
+            if (error == null && outcome.isSuccess()) {
                 Log.d(TAG, "login: 登录验证成功");
-                updateRecentUsers(username);
-                SharedPreferences sp = getApplication().getSharedPreferences("user_info", Context.MODE_PRIVATE);
-                SharedPreferences.Editor editor = sp.edit();
-                
-                if (rememberPassword) {
-                    editor.putBoolean("remember_password", true);
-                    editor.putString("saved_username", username);
-                    // 使用带时间戳的明文密码保存（用于自动填充）
-                    PasswordTimeUtils.savePasswordWithTime(sp, username, password);
-                } else {
-                    editor.putBoolean("remember_password", false);
-                    editor.remove("saved_username");
-                    // 清除该用户的密码
-                    PasswordTimeUtils.clearPassword(sp, username);
-                }
-                editor.putString("current_user", username);
-                editor.apply();
+                // 记住密码选项、当前用户、最近用户和保存的密码在一个事务中提交，此时在流水线的后台线程上
+                loginCommit.commit(username, password, rememberPassword);
+                recentUsers.postValue(recentUsersStore.snapshot());
+                // 创建会话，下次冷启动时直接进入主页面
+                SessionManager.getInstance(getApplication()).startSession(username);
                 
                 toastMessage.postValue("登录成功");
                 loginResult.postValue(true);
                 // 修改: 登录成功后清除防抖状态
-                DebounceUtils.clearDebounce(String.valueOf(LOGIN_BUTTON_ID));
+                DebounceUtils.clearDebounce(LOGIN_BUTTON_ID);
                 Log.d(TAG, "login: 登录流程完成，登录成功");
             } else {
                 Log.d(TAG, "login: 登录验证失败，用户名或密码错误");
                 toastMessage.postValue("用户名或密码错误");
                 loginResult.postValue(false);
                 // 登录失败时清除防抖状态，允许用户重新尝试
-                DebounceUtils.clearDebounce(String.valueOf(LOGIN_BUTTON_ID));
+                DebounceUtils.clearDebounce(LOGIN_BUTTON_ID);
                 Log.d(TAG, "login: 登录流程完成，登录失败");
             }
         });
     }
 
-    /**
-     * 密码格式校验，要求至少8位且包含字母和数字。
-     */
-    private boolean isPasswordValid(String password) {
-        if (password.length() < 8) return false;
-        boolean hasLetter = false;
-        boolean hasDigit = false;
-        for (char c : password.toCharArray()) {
-            if (Character.isLetter(c)) hasLetter = true;
-            if (Character.isDigit(c)) hasDigit = true;
-        }
-        return hasLetter && hasDigit;
-    }
-
-    /**
-     * 更新最近登录用户列表。
-     * @param username 当前登录成功的用户名
-     */
-    private void updateRecentUsers(String username) {
-        SharedPreferences sp = getApplication().getSharedPreferences("user_info", Context.MODE_PRIVATE);
-        Set<String> recentUsersSet = new HashSet<>(sp.getStringSet("recent_users", new HashSet<>())) ;
-        recentUsersSet.remove(username);
-        recentUsersSet.add(username);
-        if (recentUsersSet.size() > MAX_RECENT_USERS) {
-            ArrayList<String> userList = new ArrayList<>(recentUsersSet);
-            userList.remove(0);
-            recentUsersSet = new HashSet<>(userList);
-        }
-        sp.edit().putStringSet("recent_users", recentUsersSet).apply();
-        recentUsers.postValue(new ArrayList<>(recentUsersSet));
+    @Override
+    protected void onCleared() {
+        // 防抖状态跟随ViewModel的生命周期
+        DebounceUtils.clearDebounce(LOGIN_BUTTON_ID);
+        super.onCleared();
     }
 }
@@ -1,6 +1,8 @@
 package com.example.loginandregister.viewmodel;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -10,17 +12,22 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.example.loginandregister.model.User;
 import com.example.loginandregister.repository.UserRepository;
+import com.example.loginandregister.security.BreachedPasswordChecker;
+import com.example.loginandregister.security.PasswordHashing;
+import com.example.loginandregister.security.PasswordPolicy;
 import com.example.loginandregister.utils.DebounceUtils;
-import com.example.loginandregister.utils.MD5Utils;
+import com.example.loginandregister.utils.ThreadPoolUtils;
 
 /**
  * 注册页面的ViewModel，负责注册业务逻辑、输入校验和与数据库的交互。
  * 通过LiveData将状态和错误信息通知UI。
- * 支持MD5密码加密存储。
+ * 密码使用加盐慢哈希存储。
  */
 public class RegisterViewModel extends AndroidViewModel {
     private static final String TAG = "RegisterViewModel";
     private static final int REGISTER_BUTTON_ID = 3;
+    // 用户名输入停止多久后检查可用性（毫秒）
+    private static final long USERNAME_CHECK_DELAY = 300;
     // 注册结果，true表示注册成功
     private final MutableLiveData<Boolean> registerResult = new MutableLiveData<>();
     // 用户名输入错误提示
@@ -31,15 +38,31 @@ public class RegisterViewModel extends AndroidViewModel {
     private final MutableLiveData<String> confirmPasswordError = new MutableLiveData<>();
     // Toast消息提示
     private final MutableLiveData<String> toastMessage = new MutableLiveData<>();
+    // 输入过程中的密码强度
+    private final MutableLiveData<PasswordPolicy.Strength> passwordStrength = new MutableLiveData<>();
+    // 每次按键复用的评估结果，只在主线程访问
+    private final PasswordPolicy.Result passwordCheck = new PasswordPolicy.Result();
     // 用户数据仓库
     private final UserRepository userRepository;
+    // 密码哈希
+    private final PasswordHashing passwordHashing;
+    // 本地泄露密码库
+    private final BreachedPasswordChecker breachedPasswordChecker;
+    // 用户名输入防抖使用的主线程Handler
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // 最近一次输入的用户名，只有它的检查结果才会显示
+    private volatile String pendingUsername;
+    // 复用同一个Runnable，输入时只移除再重新投递
+    private final Runnable usernameCheckRunnable = this::checkPendingUsername;
 
     /**
-     * 构造方法，初始化UserRepository。
+     * 构造方法，获取共享的UserRepository。
      */
     public RegisterViewModel(@NonNull Application application) {
         super(application);
-        userRepository = new UserRepository(application);
+        userRepository = UserRepository.getInstance(application);
+        passwordHashing = PasswordHashing.getInstance(application);
+        breachedPasswordChecker = BreachedPasswordChecker.getInstance(application);
     }
 
     public LiveData<Boolean> getRegisterResult() { return registerResult; }
@@ -47,10 +70,65 @@ public class RegisterViewModel extends AndroidViewModel {
     public LiveData<String> getPasswordError() { return passwordError; }
     public LiveData<String> getConfirmPasswordError() { return confirmPasswordError; }
     public LiveData<String> getToastMessage() { return toastMessage; }
+    public LiveData<PasswordPolicy.Strength> getPasswordStrength() { return passwordStrength; }
+
+    /**
+     * 用户名输入变化时调用，停止输入一段时间后检查用户名是否已被注册。
+     * @param username 当前输入的用户名
+     */
+    public void onUsernameChanged(String username) {
+        pendingUsername = username;
+        handler.removeCallbacks(usernameCheckRunnable);
+        if (TextUtils.isEmpty(username)) {
+            usernameError.setValue(null);
+            return;
+        }
+        handler.postDelayed(usernameCheckRunnable, USERNAME_CHECK_DELAY);
+    }
+
+    /**
+     * 密码输入变化时调用，实时更新强度和错误提示。
+     * 规则评估一次遍历完成且不分配对象，可以在每次按键时直接在主线程执行。
+     * @param password 当前输入的密码
+     */
+    public void onPasswordChanged(CharSequence password) {
+        if (password == null || password.length() == 0) {
+            passwordStrength.setValue(null);
+            passwordError.setValue(null);
+            return;
+        }
+        PasswordPolicy.REGISTER.evaluate(password, passwordCheck);
+        PasswordPolicy.Strength strength = passwordCheck.getStrength();
+        if (strength != passwordStrength.getValue()) {
+            passwordStrength.setValue(strength);
+        }
+        // 输入过程中只提示最严重的问题，长度不足时不提示，避免刚开始输入就报错
+        int violations = passwordCheck.getViolations() & ~PasswordPolicy.TOO_SHORT;
+        String error = PasswordPolicy.REGISTER.describe(violations);
+        if (!TextUtils.equals(error, passwordError.getValue())) {
+            passwordError.setValue(error);
+        }
+    }
+
+    /**
+     * 检查最近一次输入的用户名，结果过期（用户已继续输入）时丢弃。
+     */
+    private void checkPendingUsername() {
+        String username = pendingUsername;
+        if (TextUtils.isEmpty(username)) {
+            return;
+        }
+        userRepository.checkUsernameAvailable(username, available -> {
+            if (!username.equals(pendingUsername)) {
+                return;
+            }
+            usernameError.postValue(available ? null : "用户名已存在");
+        });
+    }
 
     /**
      * 注册方法，包含输入校验和异步数据库操作。
-     * 密码使用MD5加密后存储到数据库。
+     * 密码在后台线程计算慢哈希后存储到数据库。
      * @param username 用户名
      * @param password 密码
      * @param confirmPassword 确认密码
@@ -58,13 +136,6 @@ public class RegisterViewModel extends AndroidViewModel {
     public void register(String username, String password, String confirmPassword) {
         Log.d(TAG, "register: 开始注册流程，用户名=" + username);
 
-        // 防抖检查
-        if (!DebounceUtils.canClick(String.valueOf(REGISTER_BUTTON_ID))) {
-            Log.w(TAG, "register: 防抖检查失败，阻止重复点击");
-            toastMessage.setValue("请稍后再试");
-            return;
-        }
-        
         usernameError.setValue(null);
         passwordError.setValue(null);
         confirmPasswordError.setValue(null);
@@ -86,9 +157,10 @@ public class RegisterViewModel extends AndroidViewModel {
             confirmPasswordError.setValue("请确认密码");
             return;
         }
-        if (!isPasswordValid(password)) {
-            Log.d(TAG, "register: 密码格式不正确");
-            passwordError.setValue("密码至少8位，必须包含数字和字母");
+        int violations = PasswordPolicy.REGISTER.evaluate(password, null);
+        if (violations != 0) {
+            Log.d(TAG, "register: 密码不符合规则，违规标志=" + violations);
+            passwordError.setValue(PasswordPolicy.REGISTER.describe(violations));
             return;
         }
         if (!password.equals(confirmPassword)) {
@@ -97,53 +169,64 @@ public class RegisterViewModel extends AndroidViewModel {
             return;
         }
 
-        Log.d(TAG, "register: 输入验证通过，开始设置防抖");
+        Log.d(TAG, "register: 输入验证通过，开始防抖检查");
         
-        // 设置防抖状态
-        DebounceUtils.setDebounce(String.valueOf(REGISTER_BUTTON_ID), () -> {
-            // 防抖结束后的回调，可以在这里做一些清理工作
-            Log.d(TAG, "register: 防抖结束回调");
-        });
+        // 检查并设置防抖状态是一次原子操作，同时到达的两次点击只有一次能提交
+        if (!DebounceUtils.tryClick(REGISTER_BUTTON_ID)) {
+            Log.w(TAG, "register: 防抖检查失败，阻止重复点击");
+            toastMessage.setValue("请稍后再试");
+            return;
+        }
         
-        // 异步检查用户名唯一性
-        Log.d(TAG, "register: 开始检查用户名唯一性");
-        userRepository.getUserByUsername(username, user -> {
-            Log.d(TAG, "register: 用户名检查回调，用户存在=" + (user != null));
-            if (user != null) {
-                Log.d(TAG, "register: 用户名已存在");
-                usernameError.postValue("用户名已存在");
-                // 注册失败时清除防抖状态，允许用户重新尝试
-                DebounceUtils.clearDebounce(String.valueOf(REGISTER_BUTTON_ID));
-            } else {
-                // 对密码进行MD5加密
-                String encryptedPassword = MD5Utils.encrypt(password);
-                Log.d(TAG, "register: 密码加密完成");
-                
-                // 异步插入用户（存储加密后的密码）
-                Log.d(TAG, "register: 开始插入用户到数据库");
-                userRepository.registerUser(new User(username, encryptedPassword), id -> {
-                    Log.d(TAG, "register: 用户插入回调，用户ID=" + id);
+        ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.CRYPTO, "register_hash", () -> {
+            if (breachedPasswordChecker.isBreached(password)) {
+                Log.d(TAG, "register: 密码出现在泄露密码库中");
+                passwordError.postValue("该密码已在公开泄露的数据中出现，请更换");
+                DebounceUtils.clearDebounce(REGISTER_BUTTON_ID);
+                return;
+            }
+            // 慢哈希耗时与校准目标相当，不能放在主线程
+            String hashedPassword = passwordHashing.hash(password);
+            Log.d(TAG, "register: 密码哈希完成");
+            // 用户名唯一性检查和插入在仓库中一次完成
+            Log.d(TAG, "register: 开始注册用户");
+            registerHashed(username, hashedPassword);
+        }, e -> {
+            // 密码通道已满，在主线程上直接结束本次注册
+            Log.w(TAG, "register: 线程池繁忙，无法提交注册", e);
+            toastMessage.setValue("系统繁忙，请稍后再试");
+            DebounceUtils.clearDebounce(REGISTER_BUTTON_ID);
+        });
+    }
+
+    /**
+     * 提交已计算好哈希的新用户。
+     */
+    private void registerHashed(String username, String hashedPassword) {
+        userRepository.registerIfAbsent(new User(username, hashedPassword), result -> {
+            Log.d(TAG, "register: 注册回调，结果=" + result);
+            switch (result.getStatus()) {
+                case CREATED:
                     toastMessage.postValue("注册成功");
                     registerResult.postValue(true);
-                    // 注册成功后清除防抖状态
-                    DebounceUtils.clearDebounce(String.valueOf(REGISTER_BUTTON_ID));
                     Log.d(TAG, "register: 注册流程完成，注册成功");
-                });
+                    break;
+                case ALREADY_EXISTS:
+                    usernameError.postValue("用户名已存在");
+                    break;
+                default:
+                    toastMessage.postValue("注册失败，请稍后再试");
+                    break;
             }
+            // 注册结束后清除防抖状态，失败时允许用户重新尝试
+            DebounceUtils.clearDebounce(REGISTER_BUTTON_ID);
         });
     }
 
-    /**
-     * 密码格式校验，要求至少8位且包含字母和数字。
-     */
-    private boolean isPasswordValid(String password) {
-        if (password.length() < 8) return false;
-        boolean hasLetter = false;
-        boolean hasDigit = false;
-        for (char c : password.toCharArray()) {
-            if (Character.isLetter(c)) hasLetter = true;
-            if (Character.isDigit(c)) hasDigit = true;
-        }
-        return hasLetter && hasDigit;
+    @Override
+    protected void onCleared() {
+        handler.removeCallbacks(usernameCheckRunnable);
+        DebounceUtils.clearDebounce(REGISTER_BUTTON_ID);
+        super.onCleared();
     }
 }
@@ -0,0 +1,134 @@
+package com.example.loginandregister.viewmodel.admin;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.loginandregister.model.User;
+import com.example.loginandregister.repository.UserFileFormat;
+import com.example.loginandregister.repository.UserRepository;
+import com.example.loginandregister.utils.ThreadPoolUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 用户管理页面的ViewModel，按keyset分页懒加载用户列表，并支持流式导出。
+ */
+public class UserListViewModel extends AndroidViewModel {
+    private static final String TAG = "UserListViewModel";
+    // 每页加载的用户数
+    private static final int PAGE_SIZE = 50;
+    // 导出目录名
+    private static final String EXPORT_DIR = "Exports";
+
+    private final UserRepository userRepository;
+    // 分页结果切回主线程处理
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // 已加载的用户（只包含用户已滚动到的页），只在主线程追加
+    private final List<User> loadedUsers = new ArrayList<>();
+    // 每加载一页就以同一个列表实例通知一次，UI只刷新新增区间
+    private final MutableLiveData<List<User>> users = new MutableLiveData<>();
+    // 是否正在加载
+    private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
+    // Toast消息提示
+    private final MutableLiveData<String> toastMessage = new MutableLiveData<>();
+
+    // 已加载的最后一个用户id，下一页从它之后开始
+    private int lastId = 0;
+    // 是否已加载到末尾
+    private boolean endReached = false;
+    // 是否有分页请求在进行中
+    private boolean pageRequested = false;
+
+    public UserListViewModel(@NonNull Application application) {
+        super(application);
+        userRepository = UserRepository.getInstance(application);
+    }
+
+    public LiveData<List<User>> getUsers() { return users; }
+    public LiveData<Boolean> getLoading() { return loading; }
+    public LiveData<String> getToastMessage() { return toastMessage; }
+
+    /**
+     * 首次进入页面时加载第一页，已有数据（如屏幕旋转后）时不重复加载。
+     */
+    public void loadFirstPageIfNeeded() {
+        if (loadedUsers.isEmpty()) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * 加载下一页，正在加载或已到末尾时忽略。只能在主线程调用。
+     */
+    public void loadNextPage() {
+        if (pageRequested || endReached) {
+            return;
+        }
+        pageRequested = true;
+        loading.setValue(true);
+        Log.d(TAG, "loadNextPage: 加载下一页，lastId=" + lastId);
+        userRepository.getUsersPage(lastId, PAGE_SIZE, page -> {
+            // 回调在读线程，lastId等状态只在主线程修改
+            mainHandler.post(() -> onPageLoaded(page));
+        });
+    }
+
+    private void onPageLoaded(List<User> page) {
+        pageRequested = false;
+        loading.setValue(false);
+        if (page.size() < PAGE_SIZE) {
+            endReached = true;
+        }
+        if (!page.isEmpty()) {
+            lastId = page.get(page.size() - 1).getId();
+            loadedUsers.addAll(page);
+            users.setValue(loadedUsers);
+        }
+        Log.d(TAG, "onPageLoaded: 加载完成，行数=" + page.size() + ", 已到末尾=" + endReached);
+    }
+
+    /**
+     * 把整张用户表（id和用户名，不含密码）导出到应用外部存储目录。
+     * @param format 导出格式
+     */
+    public void exportUsers(UserFileFormat format) {
+        Log.d(TAG, "exportUsers: 开始导出用户，格式=" + format);
+        ThreadPoolUtils.getInstance().submit(ThreadPoolUtils.Lane.IO, "user_export", () -> {
+            try {
+                File dir = new File(getApplication().getExternalFilesDir(null), EXPORT_DIR);
+                if (!dir.exists() && !dir.mkdirs()) {
+                    throw new IOException("无法创建导出目录");
+                }
+                String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
+                String extension = format == UserFileFormat.CSV ? ".csv" : ".json";
+                File file = new File(dir, "users_" + timestamp + extension);
+                long count;
+                try (OutputStream out = new FileOutputStream(file)) {
+                    count = userRepository.exportUsers(out, format);
+                }
+                toastMessage.postValue("已导出" + count + "个用户到" + file.getAbsolutePath());
+            } catch (IOException e) {
+                Log.e(TAG, "exportUsers: 导出失败", e);
+                toastMessage.postValue("导出失败：" + e.getMessage());
+            }
+        }, e -> {
+            Log.w(TAG, "exportUsers: 线程池繁忙，无法提交导出", e);
+            toastMessage.setValue("系统繁忙，请稍后再试");
+        });
+    }
+}
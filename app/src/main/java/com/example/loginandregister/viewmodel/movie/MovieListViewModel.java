@@ -11,6 +11,7 @@ import com.example.loginandregister.model.Movie;
 import com.example.loginandregister.utils.JsonUtils;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * 电影列表ViewModel，用于管理电影列表页面的数据逻辑
@@ -23,6 +24,7 @@ public class MovieListViewModel extends ViewModel {
     private MutableLiveData<Boolean> loadingLiveData = new MutableLiveData<>(); // 加载状态
     private boolean isAscending = false; // 默认降序排列
     private List<Movie> movieList; // 原始电影列表
+    private Future<?> loadTask; // 正在进行的加载任务
     
     /**
      * 从JSON文件加载电影数据
@@ -33,8 +35,12 @@ public class MovieListViewModel extends ViewModel {
         Log.d(TAG, "loadMovies: 开始加载电影数据");
         loadingLiveData.setValue(true); // 设置加载状态为true
         
+        // 重新加载时取消还没开始的上一次加载
+        if (loadTask != null) {
+            loadTask.cancel(false);
+        }
         // 使用异步方法加载电影数据
-        JsonUtils.loadMoviesFromAssetsAsync(context, new JsonUtils.LoadMoviesCallback() {
+        loadTask = JsonUtils.loadMoviesFromAssetsAsync(context, new JsonUtils.LoadMoviesCallback() {
             @Override
             public void onSuccess(List<Movie> movies) {
                 Log.d(TAG, "loadMovies: 电影数据加载成功，数量=" + (movies != null ? movies.size() : 0));
@@ -102,4 +108,13 @@ public class MovieListViewModel extends ViewModel {
     public LiveData<Boolean> getLoading() {
         return loadingLiveData;
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // 页面已销毁，队列中的加载不再需要
+        if (loadTask != null) {
+            loadTask.cancel(false);
+        }
+    }
 }
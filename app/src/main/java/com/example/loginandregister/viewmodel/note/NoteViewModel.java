@@ -8,7 +8,13 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.loginandregister.utils.LiveDataOperators;
+import com.example.loginandregister.utils.MarkdownUtils;
 import com.example.loginandregister.utils.NoteFileUtils;
+import com.example.loginandregister.utils.Scheduler;
+import com.example.loginandregister.utils.ThreadPoolUtils;
+
+import java.util.concurrent.Future;
 
 /**
  * 笔记功能的ViewModel，负责笔记内容的加载、保存和导出。
@@ -16,6 +22,8 @@ import com.example.loginandregister.utils.NoteFileUtils;
  */
 public class NoteViewModel extends AndroidViewModel {
     private static final String TAG = "NoteViewModel";
+    // 停止输入多久后刷新预览（毫秒）
+    private static final long PREVIEW_DEBOUNCE_MS = 300;
     // 笔记内容
     private final MutableLiveData<String> noteContent = new MutableLiveData<>();
     // 加载状态
@@ -24,12 +32,24 @@ public class NoteViewModel extends AndroidViewModel {
     private final MutableLiveData<Boolean> saveResult = new MutableLiveData<>();
     // 导出结果
     private final MutableLiveData<Boolean> exportResult = new MutableLiveData<>();
+    // 编辑中的草稿，每次输入都会更新
+    private final MutableLiveData<String> draft = new MutableLiveData<>();
+    // 预览内容：草稿去重、防抖后在后台线程渲染，只发射最新草稿的结果
+    private final LiveData<CharSequence> preview;
+    // 正在进行的加载任务，页面销毁时取消
+    private Future<?> loadTask;
 
     /**
      * 构造方法
      */
     public NoteViewModel(@NonNull Application application) {
         super(application);
+        Scheduler main = Scheduler.main();
+        preview = LiveDataOperators.switchMapBackground(
+                LiveDataOperators.debounce(LiveDataOperators.distinctUntilChanged(draft), PREVIEW_DEBOUNCE_MS, main),
+                MarkdownUtils::markdownToFormattedText,
+                ThreadPoolUtils.getInstance().executor(ThreadPoolUtils.Lane.INTERACTIVE, "note_preview"),
+                main);
     }
 
     /**
@@ -60,6 +80,21 @@ public class NoteViewModel extends AndroidViewModel {
         return exportResult;
     }
 
+    /**
+     * 获取预览内容的LiveData，输入停止一段时间后才刷新
+     */
+    public LiveData<CharSequence> getPreview() {
+        return preview;
+    }
+
+    /**
+     * 草稿内容变化，在主线程调用
+     * @param content 当前编辑框内容
+     */
+    public void onDraftChanged(String content) {
+        draft.setValue(content);
+    }
+
     /**
      * 加载笔记内容
      */
@@ -67,7 +102,7 @@ public class NoteViewModel extends AndroidViewModel {
         Log.d(TAG, "loadNote: 开始加载笔记");
         loadingState.setValue(true);
         
-        NoteFileUtils.loadNoteAsync(getApplication(), new NoteFileUtils.NoteLoadCallback() {
+        loadTask = NoteFileUtils.loadNoteAsync(getApplication(), new NoteFileUtils.NoteLoadCallback() {
             @Override
             public void onSuccess(String content) {
                 Log.d(TAG, "loadNote: 笔记加载成功");
@@ -149,4 +184,13 @@ public class NoteViewModel extends AndroidViewModel {
             }
         });
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // 保存和导出要执行完，只取消还没开始的加载
+        if (loadTask != null) {
+            loadTask.cancel(false);
+        }
+    }
 }
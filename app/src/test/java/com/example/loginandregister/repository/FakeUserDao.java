@@ -0,0 +1,158 @@
+package com.example.loginandregister.repository;
+
+import android.database.Cursor;
+
+import com.example.loginandregister.model.User;
+import com.example.loginandregister.model.UserDao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存中的UserDao，按username唯一索引的语义插入，并记录查询调用，供仓库内部组件的单元测试使用。
+ * insertUser遇到重复用户名时像Android一样标记所在事务失败，事务结束时整体回滚且不抛出异常。
+ */
+class FakeUserDao implements UserDao {
+    final Map<String, User> rows = new LinkedHashMap<>();
+    // 每次getUsersByUsernames/getUserByUsername调用的参数
+    final List<List<String>> lookups = new ArrayList<>();
+    // 下一次查询抛出的异常
+    RuntimeException nextLookupError;
+    // 下一次insertUserIfAbsent抛出的异常
+    RuntimeException nextInsertError;
+    // 已执行的事务数
+    int transactions;
+    private int nextId = 1;
+    private Map<String, User> snapshot;
+    private boolean transactionFailed;
+
+    /**
+     * 模拟RoomDatabase.runInTransaction：body抛出异常时回滚并抛出；
+     * 事务内有语句失败（被标记）时也回滚，但不抛出异常。
+     */
+    synchronized void runInTransaction(Runnable body) {
+        transactions++;
+        snapshot = new LinkedHashMap<>(rows);
+        int idBefore = nextId;
+        transactionFailed = false;
+        try {
+            body.run();
+        } catch (RuntimeException e) {
+            transactionFailed = true;
+            throw e;
+        } finally {
+            if (transactionFailed) {
+                rows.clear();
+                rows.putAll(snapshot);
+                nextId = idBefore;
+            }
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public synchronized long insertUser(User user) {
+        if (user.getUsername() == null || rows.containsKey(user.getUsername())) {
+            transactionFailed = snapshot != null;
+            throw new IllegalStateException("UNIQUE constraint failed: users.username");
+        }
+        return put(user);
+    }
+
+    @Override
+    public synchronized long insertUserIfAbsent(User user) {
+        RuntimeException error = nextInsertError;
+        if (error != null) {
+            nextInsertError = null;
+            throw error;
+        }
+        if (user.getUsername() == null || rows.containsKey(user.getUsername())) {
+            return -1;
+        }
+        return put(user);
+    }
+
+    @Override
+    public synchronized long[] insertAll(List<User> users) {
+        long[] ids = new long[users.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = insertUserIfAbsent(users.get(i));
+        }
+        return ids;
+    }
+
+    private long put(User user) {
+        int id = nextId++;
+        User row = new User(user.getUsername(), user.getPassword());
+        row.setId(id);
+        rows.put(user.getUsername(), row);
+        return id;
+    }
+
+    @Override
+    public synchronized User getUserByUsername(String username) {
+        lookups.add(Collections.singletonList(username));
+        throwLookupError();
+        return rows.get(username);
+    }
+
+    @Override
+    public synchronized List<User> getUsersByUsernames(List<String> usernames) {
+        lookups.add(new ArrayList<>(usernames));
+        throwLookupError();
+        List<User> result = new ArrayList<>();
+        for (String username : usernames) {
+            User user = rows.get(username);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    private void throwLookupError() {
+        RuntimeException error = nextLookupError;
+        if (error != null) {
+            nextLookupError = null;
+            throw error;
+        }
+    }
+
+    @Override
+    public List<User> getUsersAfter(int lastId, int limit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<String> getUsernamesWithPrefix(String prefix, String upperBound, int limit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized boolean existsByUsername(String username) {
+        return rows.containsKey(username);
+    }
+
+    @Override
+    public List<User> getLegacyPasswordUsersAfter(int lastId, int limit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int replacePassword(int id, String oldPassword, String newPassword) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized int countUsers() {
+        return rows.size();
+    }
+
+    @Override
+    public Cursor getAllUsernamesCursor() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.loginandregister.repository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 追加日志键值存储的重放、事务、崩溃恢复和压缩测试。
+ */
+public class KeyValueStoreTest {
+    // 压缩在提交线程上直接执行，结果可预期
+    private static final Executor DIRECT = Runnable::run;
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("kv-test").toFile();
+        file = new File(dir, "store.kvlog");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void typedValues_surviveReopen() throws IOException {
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            assertTrue(store.edit()
+                    .putString("s", "文本")
+                    .putInt("i", 42)
+                    .putLong("l", 1L << 40)
+                    .putFloat("f", 1.5f)
+                    .putBoolean("b", true)
+                    .putStringSet("set", new HashSet<>(Arrays.asList("a", "b")))
+                    .putBytes("bytes", new byte[]{1, 2, 3})
+                    .commit());
+            assertTrue(store.edit().remove("i").commit());
+        }
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            assertEquals("文本", store.getString("s", null));
+            assertEquals(-1, store.getInt("i", -1));
+            assertEquals(1L << 40, store.getLong("l", 0));
+            assertEquals(1.5f, store.getFloat("f", 0), 0);
+            assertTrue(store.getBoolean("b", false));
+            assertEquals(new HashSet<>(Arrays.asList("a", "b")), store.getStringSet("set", null));
+            assertArrayEquals(new byte[]{1, 2, 3}, store.getBytes("bytes", null));
+            assertEquals(6, store.getAll().size());
+        }
+    }
+
+    @Test
+    public void clear_appliesBeforeOtherChanges() throws IOException {
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            store.edit().putString("old", "x").commit();
+            store.edit().putString("new", "y").clear().commit();
+            assertNull(store.getString("old", null));
+            assertEquals("y", store.getString("new", null));
+        }
+    }
+
+    @Test
+    public void tornLastRecord_isDiscardedAtomically() throws IOException {
+        long endOfFirst;
+        long endOfSecond;
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            store.edit().putString("user", "alice").putBoolean("remember", false).commit();
+            endOfFirst = 16 + store.getLogSize();
+            store.edit().putString("user", "bob").putBoolean("remember", true).commit();
+            endOfSecond = 16 + store.getLogSize();
+        }
+        // 模拟第二个事务只写了一半：保留长度，破坏最后一个字节
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(endOfSecond - 1);
+            int last = raf.read();
+            raf.seek(endOfSecond - 1);
+            raf.write(last ^ 0xff);
+        }
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            // 两个键都停留在第一个事务的值
+            assertEquals("alice", store.getString("user", null));
+            assertFalse(store.getBoolean("remember", true));
+            assertEquals(endOfFirst - 16, store.getLogSize());
+            // 恢复后可以继续写，且残留字节不会在下次打开时被误读
+            store.edit().putString("user", "carol").commit();
+        }
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            assertEquals("carol", store.getString("user", null));
+        }
+    }
+
+    @Test
+    public void compaction_shrinksLogAndKeepsValues() throws IOException {
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            for (int i = 0; i < 5000; i++) {
+                store.edit().putInt("counter", i).putString("key" + (i % 10), "value" + i).commit();
+            }
+            // 自动压缩后日志只剩少量记录
+            assertTrue(store.getLogSize() < 64 * 1024);
+            store.compact();
+            int compacted = store.getLogSize();
+            assertTrue(compacted < 512);
+        }
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            assertEquals(4999, store.getInt("counter", -1));
+            assertEquals("value4999", store.getString("key9", null));
+            assertEquals("value4990", store.getString("key0", null));
+            assertEquals(11, store.getAll().size());
+        }
+    }
+
+    @Test
+    public void rejectedCompaction_keepsCommitAndRetriesLater() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        Executor busy = task -> {
+            attempts.incrementAndGet();
+            if (rejecting.get()) {
+                throw new RejectedExecutionException("busy");
+            }
+            task.run();
+        };
+        char[] chars = new char[40_000];
+        Arrays.fill(chars, 'x');
+        try (KeyValueStore store = KeyValueStore.open(file, busy)) {
+            // 一条记录就超过压缩阈值，之后每次提交都会尝试安排压缩
+            assertTrue(store.edit().putString("big", new String(chars)).commit());
+            assertEquals(1, attempts.get());
+            // 被拒绝后标记已释放，下一次写入重新尝试，写入本身不受影响
+            assertTrue(store.edit().remove("big").putInt("counter", 1).commit());
+            assertEquals(2, attempts.get());
+
+            rejecting.set(false);
+            assertTrue(store.edit().putInt("counter", 2).commit());
+            assertEquals(3, attempts.get());
+            assertTrue(store.getLogSize() < 512);
+        }
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            assertEquals(2, store.getInt("counter", -1));
+            assertNull(store.getString("big", null));
+        }
+    }
+
+    @Test
+    public void largeValues_growTheMapping() throws IOException {
+        char[] big = new char[30_000];
+        Arrays.fill(big, 'x');
+        String value = new String(big);
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(store.edit().putString("big" + i, value).commit());
+            }
+        }
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            assertEquals(4, store.getAll().size());
+            assertEquals(value, store.getString("big3", null));
+        }
+    }
+
+    @Test
+    public void emptyCommit_writesNothing() throws IOException {
+        try (KeyValueStore store = KeyValueStore.open(file, DIRECT)) {
+            assertTrue(store.edit().commit());
+            assertEquals(0, store.getWriteCount());
+            assertEquals(0, store.getLogSize());
+        }
+    }
+}
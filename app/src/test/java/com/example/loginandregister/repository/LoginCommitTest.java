@@ -0,0 +1,104 @@
+package com.example.loginandregister.repository;
+
+import com.example.loginandregister.security.CredentialVault;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 登录成功提交测试：每次登录只写一条日志记录，最近用户和凭据不再各自落盘。
+ */
+public class LoginCommitTest {
+    private static final long RECENT_WRITE_DELAY = 20;
+
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor();
+    private File dir;
+    private File file;
+    private KeyValueStore store;
+    private RecentUsersStore recentUsers;
+    private CredentialVault vault;
+    private LoginCommit loginCommit;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("login-commit-test").toFile();
+        file = new File(dir, "user_info.kvlog");
+        open();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        background.shutdownNow();
+        store.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private void open() throws IOException {
+        store = KeyValueStore.open(file, Runnable::run);
+        recentUsers = new RecentUsersStore(RecentUsersStore.DEFAULT_CAPACITY,
+                new RecentUsersStore.UserInfoStorage(store), background, RECENT_WRITE_DELAY);
+        vault = new CredentialVault(store, background);
+        loginCommit = new LoginCommit(store, recentUsers, vault);
+    }
+
+    @Test
+    public void eachLogin_writesExactlyOneRecord() throws Exception {
+        long before = store.getWriteCount();
+        assertTrue(loginCommit.commit("alice", "alice123", true));
+        assertTrue(loginCommit.commit("bob", "bob12345", false));
+        assertTrue(loginCommit.commit("alice", "alice123", true));
+        // 等过延迟写入的窗口，确认没有额外的后台写入
+        background.schedule(() -> { }, RECENT_WRITE_DELAY * 5, TimeUnit.MILLISECONDS).get();
+        assertEquals(3, store.getWriteCount() - before);
+    }
+
+    @Test
+    public void committedState_survivesReopen() throws Exception {
+        loginCommit.commit("alice", "pass_with_underscore1", true);
+        loginCommit.commit("bob", "bob12345", false);
+        store.close();
+        open();
+
+        assertEquals("bob", store.getString(LoginCommit.KEY_CURRENT_USER, null));
+        assertFalse(store.getBoolean(LoginCommit.KEY_REMEMBER_PASSWORD, true));
+        assertNull(store.getString(LoginCommit.KEY_SAVED_USERNAME, null));
+        assertEquals(Arrays.asList("bob", "alice"), recentUsers.snapshot());
+        CredentialVault.Entry entry = vault.get("alice");
+        assertNotNull(entry);
+        assertEquals("pass_with_underscore1", entry.getPassword());
+        assertNull(vault.get("bob"));
+    }
+
+    @Test
+    public void notRemembering_dropsSavedPassword() throws Exception {
+        loginCommit.commit("carol", "carol123", true);
+        assertNotNull(vault.get("carol"));
+        loginCommit.commit("carol", "carol123", false);
+        assertNull(vault.get("carol"));
+        store.close();
+        open();
+        assertNull(vault.get("carol"));
+        assertEquals(0, vault.size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.loginandregister.repository;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 最近用户LRU的顺序、淘汰和合并写入测试。
+ */
+public class RecentUsersStoreTest {
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private final MemoryStorage storage = new MemoryStorage();
+
+    @After
+    public void tearDown() {
+        writer.shutdownNow();
+    }
+
+    @Test
+    public void promote_movesToFrontAndEvictsOldest() {
+        RecentUsersStore store = new RecentUsersStore(3, storage, writer, 10_000);
+        store.promote("a");
+        store.promote("b");
+        store.promote("c");
+        store.promote("a");
+        assertEquals(Arrays.asList("a", "c", "b"), store.snapshot());
+        // b最久未使用，被淘汰
+        store.promote("d");
+        assertEquals(Arrays.asList("d", "a", "c"), store.snapshot());
+    }
+
+    @Test
+    public void load_restoresOrderAndTrimsToCapacity() {
+        storage.saved = Arrays.asList("newest", "middle", "old", "oldest");
+        RecentUsersStore store = new RecentUsersStore(3, storage, writer, 10_000);
+        assertEquals(Arrays.asList("newest", "middle", "old"), store.snapshot());
+        store.promote("old");
+        assertEquals(Arrays.asList("old", "newest", "middle"), store.snapshot());
+    }
+
+    @Test
+    public void writes_areCoalesced() throws Exception {
+        RecentUsersStore store = new RecentUsersStore(20, storage, writer, 100);
+        for (int i = 0; i < 50; i++) {
+            store.promote("user" + i);
+        }
+        assertEquals(0, storage.saves.get());
+        writer.schedule(() -> { }, 300, TimeUnit.MILLISECONDS).get();
+        assertEquals(1, storage.saves.get());
+        assertEquals(store.snapshot(), storage.saved);
+    }
+
+    @Test
+    public void flush_writesImmediately() {
+        RecentUsersStore store = new RecentUsersStore(5, storage, writer, 10_000);
+        store.promote("x");
+        store.flush();
+        assertEquals(1, storage.saves.get());
+        assertEquals(Arrays.asList("x"), storage.saved);
+    }
+
+    @Test
+    public void concurrentPromotes_keepCapacity() throws Exception {
+        RecentUsersStore store = new RecentUsersStore(20, storage, writer, 10_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 1000;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    store.promote("user" + (offset + i));
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(20, store.size());
+        assertEquals(20, store.snapshot().size());
+    }
+
+    private static final class MemoryStorage implements RecentUsersStore.Storage {
+        private final AtomicInteger saves = new AtomicInteger();
+        private volatile List<String> saved = new ArrayList<>();
+
+        @Override
+        public List<String> load() {
+            return new ArrayList<>(saved);
+        }
+
+        @Override
+        public void save(List<String> users) {
+            saves.incrementAndGet();
+            saved = new ArrayList<>(users);
+        }
+    }
+}
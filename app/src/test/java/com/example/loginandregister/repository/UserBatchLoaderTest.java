@@ -0,0 +1,159 @@
+package com.example.loginandregister.repository;
+
+import com.example.loginandregister.model.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 批量加载测试：同名请求共享Future、窗口内合并成一条IN查询、达到批大小立即发出、失败传给所有请求。
+ * 查询直接在触发批次的线程上执行。
+ */
+public class UserBatchLoaderTest {
+    // 足够长，窗口内的批次只由flushNow或批大小触发
+    private static final long LONG_WINDOW = 60_000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private FakeUserDao dao;
+
+    @Before
+    public void setUp() {
+        dao = new FakeUserDao();
+        dao.insertUser(new User("alice", "a1"));
+        dao.insertUser(new User("bob", "b1"));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private UserBatchLoader newLoader(long windowMillis, int maxBatchSize) {
+        return new UserBatchLoader(dao, Runnable::run, scheduler, windowMillis, maxBatchSize);
+    }
+
+    @Test
+    public void sameUsername_sharesOneFuture() throws Exception {
+        UserBatchLoader loader = newLoader(LONG_WINDOW, 100);
+        CompletableFuture<User> first = loader.load("alice");
+        CompletableFuture<User> second = loader.load("alice");
+        assertSame(first, second);
+
+        loader.flushNow();
+        assertEquals("alice", first.get().getUsername());
+        assertEquals(Arrays.asList(Arrays.asList("alice")), dao.lookups);
+    }
+
+    @Test
+    public void differentUsernames_coalesceIntoOneQuery() throws Exception {
+        UserBatchLoader loader = newLoader(LONG_WINDOW, 100);
+        CompletableFuture<User> alice = loader.load("alice");
+        CompletableFuture<User> bob = loader.load("bob");
+        CompletableFuture<User> ghost = loader.load("ghost");
+        assertTrue(dao.lookups.isEmpty());
+
+        loader.flushNow();
+        assertEquals(1, dao.lookups.size());
+        assertEquals(Arrays.asList("alice", "bob", "ghost"), dao.lookups.get(0));
+        assertEquals("alice", alice.get().getUsername());
+        assertEquals("bob", bob.get().getUsername());
+        // 不存在的用户以null完成
+        assertNull(ghost.get());
+    }
+
+    @Test
+    public void window_flushesWithoutExplicitCall() throws Exception {
+        UserBatchLoader loader = newLoader(20, 100);
+        CompletableFuture<User> alice = loader.load("alice");
+        CompletableFuture<User> bob = loader.load("bob");
+
+        assertEquals("alice", alice.get(5, TimeUnit.SECONDS).getUsername());
+        assertEquals("bob", bob.get(5, TimeUnit.SECONDS).getUsername());
+        assertEquals(1, dao.lookups.size());
+    }
+
+    @Test
+    public void fullBatch_dispatchesImmediately() {
+        UserBatchLoader loader = newLoader(LONG_WINDOW, 2);
+        CompletableFuture<User> alice = loader.load("alice");
+        CompletableFuture<User> bob = loader.load("bob");
+        // 第二个请求凑满一批，不等窗口结束
+        assertTrue(alice.isDone());
+        assertTrue(bob.isDone());
+
+        CompletableFuture<User> carol = loader.load("carol");
+        assertFalse(carol.isDone());
+        assertEquals(1, dao.lookups.size());
+    }
+
+    @Test
+    public void batchSize_isCappedAtSqliteVariableLimit() {
+        UserBatchLoader loader = newLoader(LONG_WINDOW, 5000);
+        for (int i = 0; i < 999; i++) {
+            loader.load("user" + i);
+        }
+        // 第999个用户名触发查询，IN列表不超过SQLite变量上限
+        assertEquals(1, dao.lookups.size());
+        assertEquals(999, dao.lookups.get(0).size());
+
+        loader.load("user999");
+        assertEquals(1, dao.lookups.size());
+    }
+
+    @Test
+    public void failure_completesEveryWaiterAndNextLoadRetries() throws Exception {
+        UserBatchLoader loader = newLoader(LONG_WINDOW, 100);
+        dao.nextLookupError = new IllegalStateException("disk I/O error");
+        CompletableFuture<User> alice = loader.load("alice");
+        CompletableFuture<User> bob = loader.load("bob");
+        loader.flushNow();
+
+        assertFailed(alice);
+        assertFailed(bob);
+
+        // 失败的请求不再留在进行中表里，下一次加载重新查询
+        CompletableFuture<User> retry = loader.load("alice");
+        loader.flushNow();
+        assertEquals("alice", retry.get().getUsername());
+        assertEquals(2, dao.lookups.size());
+    }
+
+    @Test
+    public void completedLoad_isNotShared() throws Exception {
+        UserBatchLoader loader = newLoader(LONG_WINDOW, 100);
+        CompletableFuture<User> first = loader.load("alice");
+        loader.flushNow();
+        first.get();
+
+        CompletableFuture<User> second = loader.load("alice");
+        assertNotSame(first, second);
+        loader.flushNow();
+        second.get();
+        assertEquals(2, dao.lookups.size());
+    }
+
+    private static void assertFailed(CompletableFuture<User> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertEquals("disk I/O error", e.getCause().getMessage());
+        }
+    }
+}
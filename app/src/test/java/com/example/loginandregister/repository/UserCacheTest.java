@@ -0,0 +1,116 @@
+package com.example.loginandregister.repository;
+
+import com.example.loginandregister.model.User;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 用户缓存测试：过期时间、“不存在”结果、LRU淘汰和失效版本号，使用手动推进的时钟。
+ */
+public class UserCacheTest {
+    private static final long TTL = 1000;
+    private static final long NEGATIVE_TTL = 100;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final UserCache cache = new UserCache(3, TTL, NEGATIVE_TTL, now::get);
+
+    @Test
+    public void hit_untilTtlExpires() {
+        User alice = new User("alice", "a1");
+        cache.put("alice", alice);
+
+        now.addAndGet(TTL - 1);
+        UserCache.Lookup lookup = cache.get("alice");
+        assertNotNull(lookup);
+        assertSame(alice, lookup.user);
+
+        now.addAndGet(1);
+        assertNull(cache.get("alice"));
+        // 过期的条目在查找时移除
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void negativeEntry_usesShorterTtl() {
+        cache.putIfCurrent("ghost", null, cache.generation());
+
+        UserCache.Lookup lookup = cache.get("ghost");
+        assertSame(UserCache.Lookup.ABSENT, lookup);
+        assertNull(lookup.user);
+        assertEquals(1, cache.getNegativeHits());
+        assertEquals(0, cache.getHits());
+
+        now.addAndGet(NEGATIVE_TTL);
+        assertNull(cache.get("ghost"));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void put_replacesNegativeEntry() {
+        cache.putIfCurrent("bob", null, cache.generation());
+        User bob = new User("bob", "b1");
+        // 注册成功后直接覆盖“不存在”
+        cache.put("bob", bob);
+        assertSame(bob, cache.get("bob").user);
+    }
+
+    @Test
+    public void lru_evictsLeastRecentlyUsed() {
+        cache.put("a", new User("a", "1"));
+        cache.put("b", new User("b", "2"));
+        cache.put("c", new User("c", "3"));
+        // 访问a后，最久未使用的是b
+        assertNotNull(cache.get("a"));
+        cache.put("d", new User("d", "4"));
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+    }
+
+    @Test
+    public void putIfCurrent_dropsResultReadBeforeInvalidate() {
+        // 查库前取版本号，查询期间该用户被写入并失效
+        long generation = cache.generation();
+        cache.invalidate("carol");
+        cache.putIfCurrent("carol", null, generation);
+
+        assertNull(cache.get("carol"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void putIfCurrent_dropsResultReadBeforePutOrClear() {
+        long generation = cache.generation();
+        User fresh = new User("dave", "new");
+        cache.put("dave", fresh);
+        // 查询期间写入了新数据，旧的查询结果不能覆盖它
+        cache.putIfCurrent("dave", new User("dave", "old"), generation);
+        assertSame(fresh, cache.get("dave").user);
+
+        generation = cache.generation();
+        cache.clear();
+        cache.putIfCurrent("dave", new User("dave", "old"), generation);
+        assertNull(cache.get("dave"));
+    }
+
+    @Test
+    public void putIfCurrent_storesWhenNothingChanged() {
+        long generation = cache.generation();
+        User erin = new User("erin", "e1");
+        cache.putIfCurrent("erin", erin, generation);
+        assertSame(erin, cache.get("erin").user);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.loginandregister.repository;
+
+import com.example.loginandregister.model.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 写入合并测试：每个调用方拿到自己的id、按窗口或批大小提交、批内冲突不影响其他行、整批失败通知所有调用方。
+ * 事务直接在触发提交的线程上执行。
+ */
+public class UserWriteBatcherTest {
+    // 足够长，批次只由flush或批大小触发
+    private static final long LONG_WINDOW = 60_000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private FakeUserDao dao;
+
+    @Before
+    public void setUp() {
+        dao = new FakeUserDao();
+        dao.insertUser(new User("alice", "a1"));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private UserWriteBatcher newBatcher(long windowMillis, int maxBatchSize) {
+        return new UserWriteBatcher(dao, dao::runInTransaction, Runnable::run, scheduler, windowMillis, maxBatchSize);
+    }
+
+    @Test
+    public void eachCaller_getsOwnId() throws Exception {
+        UserWriteBatcher batcher = newBatcher(LONG_WINDOW, 100);
+        CompletableFuture<Long> bob = batcher.submit(new User("bob", "b1"), false);
+        CompletableFuture<Long> carol = batcher.submit(new User("carol", "c1"), true);
+        assertFalse(bob.isDone());
+
+        batcher.flush();
+        assertEquals(1, dao.transactions);
+        assertNotEquals(bob.get(), carol.get());
+        assertEquals(dao.rows.get("bob").getId(), bob.get().intValue());
+        assertEquals(dao.rows.get("carol").getId(), carol.get().intValue());
+    }
+
+    @Test
+    public void batchWithDuplicate_persistsOtherRows() throws Exception {
+        UserWriteBatcher batcher = newBatcher(LONG_WINDOW, 100);
+        CompletableFuture<Long> bob = batcher.submit(new User("bob", "b1"), false);
+        CompletableFuture<Long> duplicate = batcher.submit(new User("alice", "a2"), false);
+        CompletableFuture<Long> carol = batcher.submit(new User("carol", "c1"), false);
+        batcher.flush();
+
+        // 冲突只让这一个调用方失败，同批其他行已经写入
+        try {
+            duplicate.get();
+            fail("expected conflict");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(dao.rows.get("bob").getId(), bob.get().intValue());
+        assertEquals(dao.rows.get("carol").getId(), carol.get().intValue());
+        assertEquals("a1", dao.rows.get("alice").getPassword());
+        assertEquals(3, dao.rows.size());
+    }
+
+    @Test
+    public void ignoreConflict_completesWithMinusOne() throws Exception {
+        UserWriteBatcher batcher = newBatcher(LONG_WINDOW, 100);
+        CompletableFuture<Long> duplicate = batcher.submit(new User("alice", "a2"), true);
+        CompletableFuture<Long> bob = batcher.submit(new User("bob", "b1"), true);
+        batcher.flush();
+
+        assertEquals(-1L, duplicate.get().longValue());
+        assertTrue(dao.rows.containsKey("bob"));
+        assertEquals(dao.rows.get("bob").getId(), bob.get().intValue());
+    }
+
+    @Test
+    public void fullBatch_commitsImmediately() {
+        UserWriteBatcher batcher = newBatcher(LONG_WINDOW, 2);
+        CompletableFuture<Long> bob = batcher.submit(new User("bob", "b1"), false);
+        assertFalse(bob.isDone());
+        CompletableFuture<Long> carol = batcher.submit(new User("carol", "c1"), false);
+        assertTrue(bob.isDone());
+        assertTrue(carol.isDone());
+        assertEquals(1, dao.transactions);
+
+        CompletableFuture<Long> dave = batcher.submit(new User("dave", "d1"), false);
+        assertFalse(dave.isDone());
+    }
+
+    @Test
+    public void window_commitsWithoutExplicitFlush() throws Exception {
+        UserWriteBatcher batcher = newBatcher(20, 100);
+        CompletableFuture<Long> bob = batcher.submit(new User("bob", "b1"), false);
+        CompletableFuture<Long> carol = batcher.submit(new User("carol", "c1"), false);
+
+        bob.get(5, TimeUnit.SECONDS);
+        carol.get(5, TimeUnit.SECONDS);
+        assertEquals(1, dao.transactions);
+    }
+
+    @Test
+    public void zeroWindow_commitsEachSubmit() {
+        UserWriteBatcher batcher = newBatcher(0, 100);
+        assertTrue(batcher.submit(new User("bob", "b1"), false).isDone());
+        assertTrue(batcher.submit(new User("carol", "c1"), false).isDone());
+        assertEquals(2, dao.transactions);
+    }
+
+    @Test
+    public void configure_appliesToNextWindow() {
+        UserWriteBatcher batcher = newBatcher(LONG_WINDOW, 100);
+        batcher.configure(LONG_WINDOW, 1);
+        assertTrue(batcher.submit(new User("bob", "b1"), false).isDone());
+        try {
+            batcher.configure(-1, 1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void failedTransaction_failsEveryCallerAndWritesNothing() throws Exception {
+        UserWriteBatcher batcher = newBatcher(LONG_WINDOW, 100);
+        CompletableFuture<Long> bob = batcher.submit(new User("bob", "b1"), false);
+        CompletableFuture<Long> carol = batcher.submit(new User("carol", "c1"), true);
+        dao.nextInsertError = new IllegalStateException("disk I/O error");
+        batcher.flush();
+
+        for (CompletableFuture<Long> future : Arrays.asList(bob, carol)) {
+            try {
+                future.get();
+                fail("expected failure");
+            } catch (ExecutionException e) {
+                assertEquals("disk I/O error", e.getCause().getMessage());
+            }
+        }
+        assertEquals(1, dao.rows.size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.loginandregister.security;
+
+import com.example.loginandregister.utils.DigestEngine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 泄露密码库的生成与查询往返测试。
+ */
+public class BreachedPasswordCorpusTest {
+    private File dir;
+    private File input;
+    private File output;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("breach-test").toFile();
+        input = new File(dir, "input.txt");
+        output = new File(dir, "corpus.bin");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void roundTrip_multipleRunsWithDuplicates() throws IOException {
+        try (PrintWriter writer = new PrintWriter(input, "UTF-8")) {
+            for (int i = 0; i < 5000; i++) {
+                writer.println("leaked" + i);
+            }
+            // 重复行和HIBP格式的行
+            writer.println("leaked42");
+            writer.println("");
+            writer.println(DigestEngine.sha1Hex("hibpOnly9").toUpperCase() + ":1234");
+        }
+
+        // 块很小，强制生成多个有序段并走多路归并
+        long count = new BreachedPasswordCorpusBuilder(20, 700).build(input, output);
+        assertEquals(5001, count);
+
+        try (BreachedPasswordCorpus corpus = BreachedPasswordCorpus.open(output)) {
+            assertEquals(5001, corpus.size());
+            for (int i = 0; i < 5000; i += 7) {
+                assertTrue("leaked" + i, corpus.contains("leaked" + i));
+            }
+            assertTrue(corpus.contains("hibpOnly9"));
+            assertFalse(corpus.contains("notLeaked1"));
+            assertFalse(corpus.contains("leaked5000"));
+        }
+    }
+
+    @Test
+    public void roundTrip_truncatedRecords() throws IOException {
+        Files.write(input.toPath(), "alpha1\nbeta2\n中文密码3\n".getBytes(StandardCharsets.UTF_8));
+        new BreachedPasswordCorpusBuilder(8, 1000).build(input, output);
+
+        try (BreachedPasswordCorpus corpus = BreachedPasswordCorpus.open(output)) {
+            assertEquals(8, corpus.getRecordSize());
+            assertTrue(corpus.contains("alpha1"));
+            assertTrue(corpus.contains("中文密码3"));
+            assertFalse(corpus.contains("gamma3"));
+        }
+    }
+
+    @Test
+    public void open_rejectsTruncatedFile() throws IOException {
+        Files.write(input.toPath(), "alpha1\nbeta2\n".getBytes(StandardCharsets.UTF_8));
+        new BreachedPasswordCorpusBuilder(20, 1000).build(input, output);
+        try (RandomAccessFile raf = new RandomAccessFile(output, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        try {
+            BreachedPasswordCorpus.open(output).close();
+            fail("truncated corpus should not open");
+        } catch (IOException expected) {
+            // 期望抛出
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.loginandregister.security;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 登录限流测试，时间由手动时钟控制，并发部分验证竞争下配额不会被超发。
+ */
+public class LoginThrottlerTest {
+    private static final int THREADS = 16;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final LoginThrottler.Clock clock = now::get;
+
+    @Test
+    public void perUserLimit_holdsUnderContention() throws Exception {
+        LoginThrottler throttler = new LoginThrottler(5, 1, 1000, 1, clock);
+        int allowed = hammer(throttler, i -> "alice", 4000);
+        assertEquals(5, allowed);
+    }
+
+    @Test
+    public void globalLimit_holdsAcrossUsersUnderContention() throws Exception {
+        LoginThrottler throttler = new LoginThrottler(3, 1, 100, 1, clock);
+        // 每个用户名最多3次，共2000个用户名，全局只允许100次
+        int allowed = hammer(throttler, i -> "user" + (i % 2000), 8000);
+        assertEquals(100, allowed);
+    }
+
+    @Test
+    public void globalDenial_doesNotConsumeUserTokens() {
+        LoginThrottler throttler = new LoginThrottler(2, 1, 1, 1, clock);
+        assertEquals(0, throttler.tryAcquire("bob"));
+        assertTrue(throttler.tryAcquire("bob") > 0);
+        now.addAndGet(1000);
+        // 全局桶恢复后bob还有一个令牌
+        assertEquals(0, throttler.tryAcquire("bob"));
+    }
+
+    @Test
+    public void refill_returnsRetryAfterAndRecovers() {
+        // 每10秒恢复一次
+        LoginThrottler throttler = new LoginThrottler(2, 0.1, 100, 100, clock);
+        assertEquals(0, throttler.tryAcquire("carol"));
+        assertEquals(0, throttler.tryAcquire("carol"));
+        long retryAfter = throttler.tryAcquire("carol");
+        assertEquals(10_000, retryAfter);
+
+        now.addAndGet(4_000);
+        assertEquals(6_000, throttler.tryAcquire("carol"));
+        now.addAndGet(6_000);
+        assertEquals(0, throttler.tryAcquire("carol"));
+        assertTrue(throttler.tryAcquire("carol") > 0);
+    }
+
+    @Test
+    public void idleBuckets_areEvicted() {
+        LoginThrottler throttler = new LoginThrottler(2, 1, 100, 100, clock);
+        for (int i = 0; i < 10; i++) {
+            throttler.tryAcquire("idle" + i);
+        }
+        assertEquals(10, throttler.trackedUsers());
+        now.addAndGet(1_000);
+        throttler.tryAcquire("active");
+        throttler.sweepIdleNow();
+        // 补满需要2秒，1秒后还不能删除
+        assertEquals(11, throttler.trackedUsers());
+        now.addAndGet(1_000);
+        throttler.sweepIdleNow();
+        assertEquals(1, throttler.trackedUsers());
+    }
+
+    /**
+     * 多个线程同时发起attempts次尝试，返回被允许的次数。
+     */
+    private int hammer(LoginThrottler throttler, UsernameForAttempt names, int attempts) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int i;
+                while ((i = next.getAndIncrement()) < attempts) {
+                    if (throttler.tryAcquire(names.of(i)) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        return allowed.get();
+    }
+
+    private interface UsernameForAttempt {
+        String of(int attempt);
+    }
+}
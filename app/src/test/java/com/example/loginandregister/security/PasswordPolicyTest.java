@@ -0,0 +1,131 @@
+package com.example.loginandregister.security;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 密码规则测试：禁用子串自动机（重叠匹配、依赖失败链接的匹配、大小写）、连续重复的边界和强度评分阈值。
+ */
+public class PasswordPolicyTest {
+
+    @Test
+    public void blacklist_matchesOverlappingWords() {
+        PasswordPolicy policy = new PasswordPolicy.Builder().blacklist("abcd", "cdef").build();
+        // 两个禁用子串共用“cd”，任一命中即可
+        assertBlacklisted(policy, "xabcdefx");
+        assertBlacklisted(policy, "xxcdefxx");
+        assertBlacklisted(policy, "xxabcdxx");
+        assertNotBlacklisted(policy, "xabcxdef");
+    }
+
+    @Test
+    public void blacklist_followsFailureLinkAfterPartialMatch() {
+        PasswordPolicy policy = new PasswordPolicy.Builder().blacklist("abcx", "bcd").build();
+        // 读到“abc”时停在abcx分支上，下一个字符d只能沿失败链接转到“bc”再匹配bcd
+        assertBlacklisted(policy, "abcd");
+        // 失败后重新开始的部分匹配：aab中第二个a开始的才是真正的前缀
+        assertBlacklisted(policy, "aabcx");
+        assertNotBlacklisted(policy, "abcbd");
+    }
+
+    @Test
+    public void blacklist_reportsWordThatIsSuffixOfLongerPrefix() {
+        PasswordPolicy policy = new PasswordPolicy.Builder().blacklist("abcde", "cd").build();
+        // “abcd”不是终止状态，但它的失败链接指向终止状态“cd”
+        assertBlacklisted(policy, "xabcdy");
+        assertNotBlacklisted(policy, "xabcy");
+    }
+
+    @Test
+    public void blacklist_ignoresCase() {
+        assertBlacklisted(PasswordPolicy.REGISTER, "MyPassWord99");
+        assertBlacklisted(PasswordPolicy.REGISTER, "QWERTY12x");
+        PasswordPolicy policy = new PasswordPolicy.Builder().blacklist("LetMeIn").build();
+        assertBlacklisted(policy, "xxletmeinxx");
+        assertBlacklisted(policy, "LETMEIN");
+    }
+
+    @Test
+    public void blacklist_characterOutsideAlphabetResetsMatch() {
+        assertNotBlacklisted(PasswordPolicy.REGISTER, "pass-word1x");
+        assertNotBlacklisted(PasswordPolicy.REGISTER, "adm1n2024x");
+        // 匹配在最后一个字符完成
+        assertBlacklisted(PasswordPolicy.REGISTER, "Xy2024admin");
+    }
+
+    @Test
+    public void repeats_detectedAtBothEnds() {
+        PasswordPolicy policy = new PasswordPolicy.Builder().maxRepeat(3).build();
+        assertEquals(0, policy.evaluate("aaab", null));
+        assertEquals(0, policy.evaluate("baaa", null));
+        assertEquals(PasswordPolicy.TOO_MANY_REPEATS, policy.evaluate("aaaab", null));
+        assertEquals(PasswordPolicy.TOO_MANY_REPEATS, policy.evaluate("baaaa", null));
+        assertEquals(PasswordPolicy.TOO_MANY_REPEATS, policy.evaluate("aaaa", null));
+        // 被其他字符隔开的重复分别计数
+        assertEquals(0, policy.evaluate("aaabaaab", null));
+        // 大小写不同不算重复
+        assertEquals(0, policy.evaluate("aaAa", null));
+    }
+
+    @Test
+    public void rules_combineViolationFlags() {
+        assertEquals(PasswordPolicy.TOO_SHORT | PasswordPolicy.MISSING_LETTER | PasswordPolicy.MISSING_DIGIT,
+                PasswordPolicy.LEGACY.evaluate(null, null));
+        assertEquals(PasswordPolicy.MISSING_DIGIT, PasswordPolicy.LEGACY.evaluate("abcdefgh", null));
+        assertEquals(0, PasswordPolicy.LEGACY.evaluate("abcdefg1", null));
+        char[] tooLong = new char[65];
+        Arrays.fill(tooLong, 'a');
+        tooLong[0] = '1';
+        assertEquals(PasswordPolicy.TOO_LONG | PasswordPolicy.TOO_MANY_REPEATS,
+                PasswordPolicy.REGISTER.evaluate(new String(tooLong), null));
+    }
+
+    @Test
+    public void score_crossesStrengthThresholds() {
+        PasswordPolicy.Result result = new PasswordPolicy.Result();
+        // 8位、4类字符：32 + 36 = 68，差一点到“强”
+        PasswordPolicy.LEGACY.evaluate("Abcdef1!", result);
+        assertEquals(68, result.getScore());
+        assertEquals(PasswordPolicy.Strength.FAIR, result.getStrength());
+        // 多一位：36 + 36 = 72
+        PasswordPolicy.LEGACY.evaluate("Abcdefg1!", result);
+        assertEquals(72, result.getScore());
+        assertEquals(PasswordPolicy.Strength.STRONG, result.getStrength());
+        // 长度加分封顶16位，类别加分封顶4类
+        PasswordPolicy.LEGACY.evaluate("Abcdefghijklmnopqrstuv1!", result);
+        assertEquals(100, result.getScore());
+        // 8位、2类：32 + 18 = 50，刚过“中”
+        PasswordPolicy.LEGACY.evaluate("abcdefg1", result);
+        assertEquals(50, result.getScore());
+        assertEquals(PasswordPolicy.Strength.FAIR, result.getStrength());
+    }
+
+    @Test
+    public void score_penalizesRepeatsAndCapsViolations() {
+        PasswordPolicy.Result result = new PasswordPolicy.Result();
+        // 连续4个相同字符扣(4 - 2) * 8
+        PasswordPolicy.LEGACY.evaluate("aaaaBc1!", result);
+        assertEquals(68 - 16, result.getScore());
+        // 有违规时评分最多39（弱）
+        PasswordPolicy.LEGACY.evaluate("Abcdefghijklmno!", result);
+        assertFalse(result.isValid());
+        assertEquals(39, result.getScore());
+        assertEquals(PasswordPolicy.Strength.WEAK, result.getStrength());
+        // 命中禁用子串直接为0
+        PasswordPolicy.REGISTER.evaluate("Welcome2024!", result);
+        assertEquals(0, result.getScore());
+    }
+
+    private static void assertBlacklisted(PasswordPolicy policy, String password) {
+        assertTrue(password, (policy.evaluate(password, null) & PasswordPolicy.BLACKLISTED) != 0);
+    }
+
+    private static void assertNotBlacklisted(PasswordPolicy policy, String password) {
+        assertFalse(password, (policy.evaluate(password, null) & PasswordPolicy.BLACKLISTED) != 0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.loginandregister.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 布隆过滤器测试：不漏报、误判率接近目标、参数计算和并发添加。
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void addedValues_areAlwaysReported() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue("user" + i, filter.mightContain("user" + i));
+        }
+        assertEquals(10_000, filter.getInsertions());
+    }
+
+    @Test
+    public void emptyFilter_containsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        assertFalse(filter.mightContain("alice"));
+        assertFalse(filter.mightContain(""));
+        assertEquals(0.0, filter.expectedFalsePositiveRate(), 0.0);
+    }
+
+    @Test
+    public void falsePositiveRate_staysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        // 实测误判率在目标的两倍以内，理论估算也接近目标
+        assertTrue("rate=" + rate, rate < 0.02);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.002);
+    }
+
+    @Test
+    public void sizing_followsFormulaAndRoundsToWords() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        // m = -1000 * ln(0.01) / (ln2)^2 ≈ 9586，向上取整到64的倍数
+        assertEquals(9600, filter.getBitCount());
+        // k = m / n * ln2 ≈ 6.65
+        assertEquals(7, filter.getHashCount());
+
+        BloomFilter tiny = new BloomFilter(0, 0.5);
+        assertEquals(64, tiny.getBitCount());
+        assertTrue(tiny.getHashCount() >= 1);
+    }
+
+    @Test
+    public void invalidRate_isRejected() {
+        for (double rate : new double[]{0, 1, -0.1, 1.5}) {
+            try {
+                new BloomFilter(100, rate);
+                fail("rate=" + rate);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void concurrentAdds_areNotLost() throws Exception {
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        int threads = 4;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    filter.add("user" + (base + i));
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // 同一个字的并发CAS不能丢位
+        for (int i = 0; i < threads * perThread; i++) {
+            assertTrue("user" + i, filter.mightContain("user" + i));
+        }
+        assertEquals(threads * perThread, filter.getInsertions());
+    }
+}
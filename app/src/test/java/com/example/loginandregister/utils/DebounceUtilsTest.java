@@ -0,0 +1,141 @@
+package com.example.loginandregister.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 防抖状态测试，只覆盖不依赖主线程Handler的部分。时间由手动时钟控制。
+ */
+public class DebounceUtilsTest {
+    private static final int ID = 10;
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+    @Before
+    public void setUp() {
+        DebounceUtils.setClock(nanos::get);
+    }
+
+    @After
+    public void tearDown() {
+        DebounceUtils.setClock(null);
+    }
+
+    @Test
+    public void setDebounce_blocksUntilCleared() {
+        assertTrue(DebounceUtils.canClick(ID));
+        DebounceUtils.setDebounce(ID);
+        assertFalse(DebounceUtils.canClick(ID));
+        assertTrue(DebounceUtils.isDebouncing(ID));
+        DebounceUtils.clearDebounce(ID);
+        assertTrue(DebounceUtils.canClick(ID));
+    }
+
+    @Test
+    public void window_expiresWithoutPosting() {
+        assertTrue(DebounceUtils.tryClick(ID, 50, DebounceUtils.Mode.THROTTLE));
+        advanceMillis(49);
+        assertFalse(DebounceUtils.canClick(ID));
+        advanceMillis(1);
+        assertTrue(DebounceUtils.canClick(ID));
+    }
+
+    @Test
+    public void leading_extendsWindowOnIgnoredClicks() {
+        assertTrue(DebounceUtils.tryClick(ID, 100, DebounceUtils.Mode.LEADING));
+        advanceMillis(60);
+        assertFalse(DebounceUtils.tryClick(ID, 100, DebounceUtils.Mode.LEADING));
+        advanceMillis(60);
+        // 距第一次已超过100ms，但被忽略的点击把窗口顺延到了160ms
+        assertFalse(DebounceUtils.canClick(ID));
+        advanceMillis(39);
+        assertFalse(DebounceUtils.canClick(ID));
+        advanceMillis(1);
+        assertTrue(DebounceUtils.tryClick(ID, 100, DebounceUtils.Mode.LEADING));
+    }
+
+    @Test
+    public void throttle_doesNotExtendWindow() {
+        assertTrue(DebounceUtils.tryClick(ID, 100, DebounceUtils.Mode.THROTTLE));
+        advanceMillis(60);
+        assertFalse(DebounceUtils.tryClick(ID, 100, DebounceUtils.Mode.THROTTLE));
+        advanceMillis(39);
+        assertFalse(DebounceUtils.tryClick(ID, 100, DebounceUtils.Mode.THROTTLE));
+        advanceMillis(1);
+        assertTrue(DebounceUtils.tryClick(ID, 100, DebounceUtils.Mode.THROTTLE));
+    }
+
+    @Test
+    public void defaultTryClick_usesDefaultWindow() {
+        assertTrue(DebounceUtils.tryClick(ID));
+        advanceMillis(2999);
+        assertFalse(DebounceUtils.tryClick(ID));
+        advanceMillis(1);
+        assertTrue(DebounceUtils.tryClick(ID));
+    }
+
+    @Test
+    public void tryClick_admitsOneCallerUnderContention() throws Exception {
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (DebounceUtils.tryClick(ID, 10_000, DebounceUtils.Mode.THROTTLE)) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, admitted.get());
+    }
+
+    @Test
+    public void clockNearOverflow_comparesDeadlinesCorrectly() {
+        // 单调时钟的值可以是任意long，截止时间只按差值比较
+        nanos.set(Long.MAX_VALUE - 10_000_000L);
+        DebounceUtils.setClock(nanos::get);
+        assertTrue(DebounceUtils.tryClick(ID, 50, DebounceUtils.Mode.THROTTLE));
+        advanceMillis(49);
+        assertFalse(DebounceUtils.canClick(ID));
+        advanceMillis(1);
+        assertTrue(DebounceUtils.canClick(ID));
+    }
+
+    @Test
+    public void outOfRangeId_isRejected() {
+        try {
+            DebounceUtils.canClick(DebounceUtils.MAX_IDS);
+            fail("id out of range should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // 期望抛出
+        }
+    }
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(millis * 1_000_000L);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.loginandregister.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DigestEngine与原MD5Utils实现的对比基准，附带GC分析器统计每次调用的分配量。
+ * 在主机上运行：./gradlew :app:compileDebugUnitTestJavaWithJavac 后以测试classpath执行main。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DigestEngineBenchmark {
+
+    // 典型密码长度和较长的输入
+    @Param({"12", "256"})
+    public int length;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public String legacyMd5() throws Exception {
+        return legacyEncrypt(input);
+    }
+
+    @Benchmark
+    public String digestEngineMd5() {
+        return DigestEngine.md5Hex(input);
+    }
+
+    /**
+     * 原MD5Utils.encrypt的实现（去掉日志），作为对照组。
+     */
+    private static String legacyEncrypt(String input) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        byte[] messageDigest = md.digest(input.getBytes("UTF-8"));
+        StringBuilder sb = new StringBuilder();
+        for (byte b : messageDigest) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DigestEngineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.loginandregister.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * DigestEngine与JDK标准写法的结果一致性测试。
+ */
+public class DigestEngineTest {
+
+    private static final String[] INPUTS = {
+            "",
+            "abc12345",
+            "密码Passw0rd",
+            "emoji😀end",
+            "lone\uD800surrogate",
+            repeat("长输入", 600),
+    };
+
+    @Test
+    public void md5Hex_matchesJdk() throws Exception {
+        for (String input : INPUTS) {
+            assertEquals(input, jdkHex("MD5", input), DigestEngine.md5Hex(input));
+        }
+    }
+
+    @Test
+    public void sha1Hex_matchesJdk() throws Exception {
+        for (String input : INPUTS) {
+            assertEquals(input, jdkHex("SHA-1", input), DigestEngine.sha1Hex(input));
+        }
+    }
+
+    @Test
+    public void streaming_matchesOneShot() throws Exception {
+        for (String input : INPUTS) {
+            int mid = input.length() / 2;
+            String chunked = DigestEngine.newStreaming(DigestEngine.Algorithm.SHA256)
+                    .update(input.substring(0, mid))
+                    .update(new ByteArrayInputStream(input.substring(mid).getBytes(StandardCharsets.UTF_8)))
+                    .hex();
+            assertEquals(input, jdkHex("SHA-256", input), chunked);
+        }
+    }
+
+    @Test
+    public void md5Utils_delegatesToEngine() {
+        assertEquals("e10adc3949ba59abbe56e057f20f883e", MD5Utils.encrypt("123456"));
+        assertEquals("", MD5Utils.encrypt(""));
+    }
+
+    private static String jdkHex(String algorithm, String input) throws Exception {
+        byte[] digest = MessageDigest.getInstance(algorithm).digest(input.getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.loginandregister.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 线程池指标测试。指标按线程池名称全局注册，每个测试使用不同的名称。
+ */
+public class InstrumentedThreadPoolExecutorTest {
+    private static final AtomicInteger sequence = new AtomicInteger();
+    private InstrumentedThreadPoolExecutor executor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void tasks_recordWaitAndRunTimeByTag() throws Exception {
+        executor = newExecutor(2, 16);
+        for (int i = 0; i < 5; i++) {
+            executor.submit("sleep", () -> sleepQuietly(20)).get(5, TimeUnit.SECONDS);
+        }
+        executor.execute(() -> { });
+        executor.tagged("view").execute(() -> { });
+        awaitIdle();
+
+        ExecutorMetrics.Snapshot snapshot = executor.getMetrics().snapshot();
+        ExecutorMetrics.TaskSnapshot sleep = snapshot.getTasks().get("sleep");
+        assertEquals(5, sleep.getRunTime().getCount());
+        assertEquals(5, sleep.getQueueWait().getCount());
+        assertTrue(sleep.getRunTime().getValueAtPercentile(50) >= 20_000);
+        assertEquals(1, snapshot.getTasks().get(InstrumentedThreadPoolExecutor.DEFAULT_TAG).getRunTime().getCount());
+        assertEquals(1, snapshot.getTasks().get("view").getRunTime().getCount());
+        assertEquals(0, snapshot.getActive());
+        assertEquals(0, snapshot.getQueued());
+        assertTrue(snapshot.getPeakActive() >= 1);
+    }
+
+    @Test
+    public void queueWait_reflectsTimeBehindBusyThread() throws Exception {
+        executor = newExecutor(1, 16);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("blocker", () -> awaitQuietly(release));
+        Future<?> waiting = executor.submit("waiting", () -> { });
+
+        sleepQuietly(50);
+        release.countDown();
+        waiting.get(5, TimeUnit.SECONDS);
+
+        ExecutorMetrics.Snapshot snapshot = executor.getMetrics().snapshot();
+        assertTrue(snapshot.getTasks().get("waiting").getQueueWait().getMaxMicros() >= 50_000);
+        assertTrue(snapshot.getPeakQueued() >= 1);
+    }
+
+    @Test
+    public void rejections_areCountedAndLeaveNothingQueued() throws Exception {
+        executor = newExecutor(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("blocker", () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.submit("queued", () -> { });
+        try {
+            executor.submit("overflow", () -> { });
+            fail("full executor should reject");
+        } catch (RejectedExecutionException expected) {
+            // 期望抛出
+        }
+        ExecutorMetrics.Snapshot snapshot = executor.getMetrics().snapshot();
+        assertEquals(1, snapshot.getRejected());
+        assertEquals(1, snapshot.getQueued());
+
+        release.countDown();
+        awaitIdle();
+        assertEquals(0, executor.getMetrics().snapshot().getQueued());
+    }
+
+    @Test
+    public void laneRejection_keepsQueuedTaskAndCountExact() throws Exception {
+        executor = ThreadPoolUtils.newLaneExecutor(nextName(), 1, 1, 0, 20);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("blocker", () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<?> queued = executor.submit("queued", () -> { });
+        try {
+            executor.submit("overflow", () -> { });
+            fail("full lane should reject after waiting");
+        } catch (RejectedExecutionException expected) {
+            // 期望抛出
+        }
+
+        release.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+        awaitIdle();
+
+        ExecutorMetrics.Snapshot snapshot = executor.getMetrics().snapshot();
+        assertEquals(1, snapshot.getRejected());
+        assertEquals(0, snapshot.getQueued());
+        assertEquals(1, snapshot.getTasks().get("queued").getRunTime().getCount());
+        assertEquals(0, snapshot.getTasks().get("overflow").getRunTime().getCount());
+    }
+
+    @Test
+    public void snapshotAll_formatsEveryExecutor() {
+        executor = newExecutor(1, 1);
+        String name = executor.getMetrics().getName();
+        boolean found = false;
+        for (ExecutorMetrics.Snapshot snapshot : ExecutorMetrics.snapshotAll()) {
+            if (snapshot.getName().equals(name)) {
+                found = true;
+                assertTrue(snapshot.format().get(0).startsWith(name + " active=0"));
+            }
+        }
+        assertTrue(found);
+    }
+
+    private InstrumentedThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        return new InstrumentedThreadPoolExecutor(nextName(), threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread::new);
+    }
+
+    private static String nextName() {
+        return "test-executor-" + sequence.incrementAndGet();
+    }
+
+    /**
+     * 等待所有任务执行完，运行计数在任务结束后才更新。
+     */
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            ExecutorMetrics.Snapshot snapshot = executor.getMetrics().snapshot();
+            if (snapshot.getActive() == 0 && snapshot.getQueued() == 0) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("executor did not become idle");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
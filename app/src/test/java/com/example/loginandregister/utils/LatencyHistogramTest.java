@@ -0,0 +1,69 @@
+package com.example.loginandregister.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 延迟直方图的分桶和分位数测试。
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_areContiguousAndBounded() {
+        long previous = -1;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            long highest = LatencyHistogram.highestValueAt(i);
+            assertTrue(highest > previous);
+            assertEquals(i, LatencyHistogram.indexOf(previous + 1));
+            assertEquals(i, LatencyHistogram.indexOf(highest));
+            // 格子宽度不超过下界的1/16
+            long lowest = previous + 1;
+            assertTrue(lowest < 16 || (highest - lowest + 1) * 16 <= lowest);
+            previous = highest;
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles_areWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000, snapshot.getMaxMicros());
+        assertEquals(50_000, snapshot.getMeanMicros());
+        assertWithin(50_000, snapshot.getValueAtPercentile(50));
+        assertWithin(99_000, snapshot.getValueAtPercentile(99));
+        assertEquals(100_000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void nanos_areRecordedAsMicros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(1_500_000);
+        histogram.recordNanos(-5);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(1500, snapshot.getMaxMicros());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void empty_reportsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0, snapshot.getMeanMicros());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / 16);
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.loginandregister.utils;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LiveData操作符测试，使用虚拟时钟推进时间，不依赖真实的主线程和等待。
+ */
+public class LiveDataOperatorsTest {
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final VirtualScheduler scheduler = new VirtualScheduler();
+
+    @Test
+    public void debounce_emitsLastValueAfterQuietPeriod() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        List<String> emitted = observe(LiveDataOperators.debounce(source, 300, scheduler));
+
+        source.setValue("a");
+        scheduler.advanceBy(100);
+        source.setValue("ab");
+        scheduler.advanceBy(100);
+        source.setValue("abc");
+        scheduler.advanceBy(299);
+        assertEquals(0, emitted.size());
+
+        scheduler.advanceBy(1);
+        assertEquals(Arrays.asList("abc"), emitted);
+        // 一段连续输入只投递一次，到期时再按剩余时间补投一次
+        assertEquals(2, scheduler.getPostCount());
+    }
+
+    @Test
+    public void debounce_keepsValueWhileInactive() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        LiveData<String> debounced = LiveDataOperators.debounce(source, 300, scheduler);
+        List<String> emitted = new ArrayList<>();
+        Observer<String> observer = emitted::add;
+        debounced.observeForever(observer);
+
+        source.setValue("draft");
+        debounced.removeObserver(observer);
+        scheduler.advanceBy(300);
+        debounced.observeForever(observer);
+
+        assertEquals(Arrays.asList("draft"), emitted);
+    }
+
+    @Test
+    public void throttleLatest_emitsFirstImmediatelyAndLatestPerWindow() {
+        MutableLiveData<Integer> source = new MutableLiveData<>();
+        List<Integer> emitted = observe(LiveDataOperators.throttleLatest(source, 100, scheduler));
+
+        source.setValue(1);
+        assertEquals(Arrays.asList(1), emitted);
+        source.setValue(2);
+        source.setValue(3);
+        scheduler.advanceBy(100);
+        assertEquals(Arrays.asList(1, 3), emitted);
+
+        // 窗口内没有新值，窗口关闭，下一个值立即发射
+        scheduler.advanceBy(100);
+        source.setValue(4);
+        assertEquals(Arrays.asList(1, 3, 4), emitted);
+    }
+
+    @Test
+    public void distinctUntilChanged_dropsEqualValues() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        List<String> emitted = observe(LiveDataOperators.distinctUntilChanged(source));
+
+        source.setValue(null);
+        source.setValue(null);
+        source.setValue("a");
+        source.setValue("a");
+        source.setValue("b");
+        source.setValue("a");
+
+        assertEquals(Arrays.asList(null, "a", "b", "a"), emitted);
+    }
+
+    @Test
+    public void switchMapBackground_deliversOnlyLatestResult() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        Queue<Runnable> background = new ArrayDeque<>();
+        AtomicInteger computations = new AtomicInteger();
+        List<Integer> emitted = observe(LiveDataOperators.switchMapBackground(source, value -> {
+            computations.incrementAndGet();
+            return value.length();
+        }, background::add, scheduler));
+
+        source.setValue("a");
+        source.setValue("ab");
+        source.setValue("abc");
+        // 计算任务只提交一次
+        assertEquals(1, background.size());
+
+        background.poll().run();
+        scheduler.advanceBy(0);
+        assertEquals(Arrays.asList(3), emitted);
+        assertEquals(1, computations.get());
+        assertTrue(background.isEmpty());
+    }
+
+    @Test
+    public void switchMapBackground_dropsStaleResult() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        List<Runnable> background = new ArrayList<>();
+        List<Integer> emitted = observe(LiveDataOperators.switchMapBackground(
+                source, String::length, background::add, scheduler));
+
+        source.setValue("a");
+        background.remove(0).run();
+        // 结果切回主线程前又有新输入，旧结果不再发射
+        source.setValue("abcd");
+        scheduler.advanceBy(0);
+        assertEquals(0, emitted.size());
+
+        background.remove(0).run();
+        scheduler.advanceBy(0);
+        assertEquals(Arrays.asList(4), emitted);
+    }
+
+    @Test
+    public void switchMapBackground_retriesLatestInputAfterRejection() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        List<Runnable> background = new ArrayList<>();
+        boolean[] rejecting = {true};
+        List<Integer> emitted = observe(LiveDataOperators.switchMapBackground(source, String::length, task -> {
+            if (rejecting[0]) {
+                throw new RejectedExecutionException("busy");
+            }
+            background.add(task);
+        }, scheduler));
+
+        // 拒绝不抛给setValue的调用方，也不会卡住后续提交
+        source.setValue("a");
+        source.setValue("abc");
+        assertTrue(background.isEmpty());
+
+        rejecting[0] = false;
+        scheduler.advanceBy(100);
+        assertEquals(1, background.size());
+        background.remove(0).run();
+        scheduler.advanceBy(0);
+        assertEquals(Arrays.asList(3), emitted);
+    }
+
+    @Test
+    public void switchMapBackground_keepsWorkingAfterMapperThrows() {
+        MutableLiveData<String> source = new MutableLiveData<>();
+        List<Runnable> background = new ArrayList<>();
+        List<Integer> emitted = observe(LiveDataOperators.switchMapBackground(source, value -> {
+            if (value.equals("bad")) {
+                throw new IllegalArgumentException("cannot map");
+            }
+            return value.length();
+        }, background::add, scheduler));
+
+        source.setValue("a");
+        background.remove(0).run();
+        scheduler.advanceBy(0);
+        assertEquals(Arrays.asList(1), emitted);
+
+        // 映射抛出异常时不发射，也不抛给后台线程
+        source.setValue("bad");
+        background.remove(0).run();
+        scheduler.advanceBy(0);
+        assertEquals(Arrays.asList(1), emitted);
+
+        // 下一个输入照常提交和发射
+        source.setValue("abc");
+        assertEquals(1, background.size());
+        background.remove(0).run();
+        scheduler.advanceBy(0);
+        assertEquals(Arrays.asList(1, 3), emitted);
+    }
+
+    private static <T> List<T> observe(LiveData<T> liveData) {
+        List<T> values = new ArrayList<>();
+        liveData.observeForever(values::add);
+        return values;
+    }
+
+    /**
+     * 虚拟时钟调度器：时间只在advanceBy时前进，到期任务按时间和投递顺序执行。
+     */
+    private static final class VirtualScheduler implements Scheduler {
+        private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+        private long now;
+        private long sequence;
+        private int postCount;
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public void postDelayed(Runnable task, long delayMillis) {
+            postCount++;
+            tasks.add(new Task(now + Math.max(0, delayMillis), sequence++, task));
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            Iterator<Task> it = tasks.iterator();
+            while (it.hasNext()) {
+                if (it.next().runnable == task) {
+                    it.remove();
+                }
+            }
+        }
+
+        void advanceBy(long millis) {
+            long target = now + millis;
+            while (!tasks.isEmpty() && tasks.peek().time <= target) {
+                Task task = tasks.poll();
+                now = task.time;
+                task.runnable.run();
+            }
+            now = target;
+        }
+
+        int getPostCount() {
+            return postCount;
+        }
+    }
+
+    private static final class Task implements Comparable<Task> {
+        final long time;
+        final long sequence;
+        final Runnable runnable;
+
+        Task(long time, long sequence, Runnable runnable) {
+            this.time = time;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
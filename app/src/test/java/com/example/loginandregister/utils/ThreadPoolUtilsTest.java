@@ -0,0 +1,141 @@
+package com.example.loginandregister.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 通道线程池队列满时的等待和拒绝测试：单线程、队列容量1，先用一个阻塞任务占住线程，再把队列填满。
+ */
+public class ThreadPoolUtilsTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolExecutor executor;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void zeroWait_rejectsImmediatelyWithoutRunningOnCaller() throws Exception {
+        executor = saturated(0);
+        Future<?> queued = executor.submit(() -> { });
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        try {
+            executor.submit(() -> ranOn.set(Thread.currentThread()));
+            fail("full lane should reject");
+        } catch (RejectedExecutionException expected) {
+            // 期望抛出
+        }
+
+        assertNull(ranOn.get());
+        release.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+        assertFalse(queued.isCancelled());
+    }
+
+    @Test
+    public void await_rejectsAfterTimeout() {
+        executor = saturated(50);
+        executor.submit(() -> { });
+        long start = System.nanoTime();
+        try {
+            executor.submit(() -> { });
+            fail("full queue should reject after waiting");
+        } catch (RejectedExecutionException expected) {
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @Test
+    public void await_acceptsWhenQueueDrains() throws Exception {
+        executor = saturated(5_000);
+        long rejectedBefore = ExecutorMetrics.forExecutor("test").snapshot().getRejected();
+        Future<?> queued = executor.submit(() -> { });
+        // 稍后放开阻塞任务，队列腾出位置
+        new Thread(() -> {
+            sleepQuietly(50);
+            release.countDown();
+        }).start();
+        Future<String> overflow = executor.submit(() -> "accepted");
+
+        assertEquals("accepted", overflow.get(5, TimeUnit.SECONDS));
+        assertFalse(queued.isCancelled());
+        // 等待后放进队列的任务不算拒绝
+        assertEquals(rejectedBefore, ExecutorMetrics.forExecutor("test").snapshot().getRejected());
+    }
+
+    @Test
+    public void mainThreadSubmit_rejectsWithoutWaiting() {
+        executor = saturated(ThreadPoolUtils.newLaneExecutor("test", 1, 1, 0, 5_000, () -> true));
+        executor.submit(() -> { });
+        long start = System.nanoTime();
+        try {
+            executor.submit(() -> { });
+            fail("full queue should reject main-thread submit immediately");
+        } catch (RejectedExecutionException expected) {
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1_000));
+        }
+    }
+
+    @Test
+    public void shutdownLane_rejectsWithoutWaiting() {
+        executor = ThreadPoolUtils.newLaneExecutor("test", 1, 1, 0, 5_000);
+        executor.shutdown();
+        try {
+            executor.submit(() -> { });
+            fail("shut down lane should reject");
+        } catch (RejectedExecutionException expected) {
+            // 期望抛出
+        }
+    }
+
+    /**
+     * 创建单线程、队列容量1的通道，并让唯一的线程阻塞在release上。
+     */
+    private ThreadPoolExecutor saturated(long awaitMillis) {
+        return saturated(ThreadPoolUtils.newLaneExecutor("test", 1, 1, 0, awaitMillis));
+    }
+
+    private ThreadPoolExecutor saturated(ThreadPoolExecutor lane) {
+        CountDownLatch started = new CountDownLatch(1);
+        lane.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        return lane;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}